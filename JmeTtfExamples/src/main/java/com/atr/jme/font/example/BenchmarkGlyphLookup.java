@@ -0,0 +1,76 @@
+package com.atr.jme.font.example;
+
+import com.atr.jme.font.sfntly.FontTables;
+import com.google.typography.font.sfntly.Font;
+import com.google.typography.font.sfntly.FontFactory;
+import com.google.typography.font.sfntly.table.core.CMap;
+import com.google.typography.font.sfntly.table.core.HorizontalMetricsTable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Measures the throughput of looking up the advance width of a code point,
+ * comparing sfntly's 'cmap' and 'hmtx' tables against the decoded arrays
+ * of {@link FontTables}.
+ */
+public class BenchmarkGlyphLookup {
+
+    private static final int ROUNDS = 10;
+    private static final int PASSES = 2000;
+
+    /**
+     * @param args array of command-line arguments (ignored)
+     * @throws IOException if the font cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Font font;
+        try (InputStream in = BenchmarkGlyphLookup.class.getClassLoader()
+                .getResourceAsStream(Constants.FONT)) {
+            font = FontFactory.getInstance().loadFonts(in)[0];
+        }
+        FontTables tables = new FontTables(font);
+        CMap cmap = tables.getCharacterMap();
+        HorizontalMetricsTable hmtx = tables.getHorizontalMetrics();
+
+        // Latin, Latin Extended-A, Greek and Cyrillic
+        StringBuilder sb = new StringBuilder();
+        appendRange(sb, 0x20, 0x7E);
+        appendRange(sb, 0xC0, 0x17E);
+        appendRange(sb, 0x391, 0x3C9);
+        appendRange(sb, 0x410, 0x44F);
+        int[] codePoints = new int[sb.length()];
+        for (int i = 0; i < codePoints.length; i++) {
+            codePoints[i] = sb.charAt(i);
+        }
+        long lookups = (long) codePoints.length * PASSES;
+
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int pass = 0; pass < PASSES; pass++) {
+                for (int codePoint : codePoints) {
+                    sink += hmtx.advanceWidth(cmap.glyphId(codePoint));
+                }
+            }
+            long sfntly = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int pass = 0; pass < PASSES; pass++) {
+                for (int codePoint : codePoints) {
+                    sink += tables.getAdvanceWidth(tables.getGlyphID(codePoint));
+                }
+            }
+            long decoded = System.nanoTime() - start;
+
+            System.out.printf("round %d: sfntly %.1f M lookups/s, decoded %.1f M lookups/s%n",
+                    round + 1, lookups * 1e3 / sfntly, lookups * 1e3 / decoded);
+        }
+        System.out.println("checksum " + sink);
+    }
+
+    private static void appendRange(StringBuilder sb, int first, int last) {
+        for (int codePoint = first; codePoint <= last; codePoint++) {
+            sb.append((char) codePoint);
+        }
+    }
+}
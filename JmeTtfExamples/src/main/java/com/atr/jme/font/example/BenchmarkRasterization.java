@@ -0,0 +1,101 @@
+package com.atr.jme.font.example;
+
+import com.atr.jme.font.TrueTypeBMP;
+import com.atr.jme.font.TrueTypeRaster;
+import com.atr.jme.font.util.Style;
+import com.google.typography.font.sfntly.Font;
+import com.google.typography.font.sfntly.FontFactory;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Measures the number of characters per second {@link TrueTypeRaster} adds to
+ * its texture atlas. Characters are requested one at a time, as they are when
+ * text is typed, with the atlas either re-drawn for every new character or
+ * updated incrementally. The bundled font is used unless the path of another
+ * font file is supplied on the command line.
+ */
+public class BenchmarkRasterization {
+
+    private static final int ROUNDS = 10;
+
+    /**
+     * @param args array of command-line arguments, optionally the path of a
+     * font file
+     * @throws IOException if the font cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String path = null;
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                path = arg;
+            }
+        }
+
+        Font font;
+        try (InputStream in = (path != null) ? new FileInputStream(path)
+                : BenchmarkRasterization.class.getClassLoader()
+                        .getResourceAsStream(Constants.FONT)) {
+            font = FontFactory.getInstance().loadFonts(in)[0];
+        }
+        TrueTypeRaster ttr = newFont(font, false);
+
+        StringBuilder latin = new StringBuilder();
+        appendRange(ttr, latin, 0x21, 0x7E);
+        appendRange(ttr, latin, 0xC0, 0x17E);
+        StringBuilder greekCyrillic = new StringBuilder();
+        appendRange(ttr, greekCyrillic, 0x391, 0x3C9);
+        appendRange(ttr, greekCyrillic, 0x410, 0x44F);
+
+        String[] names = {"Latin", "Greek and Cyrillic"};
+        String[] sets = {latin.toString(), greekCyrillic.toString()};
+        boolean[] modes = {false, true};
+        long[][] best = new long[sets.length][modes.length];
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < sets.length; i++) {
+                for (int m = 0; m < modes.length; m++) {
+                    ttr = newFont(font, modes[m]);
+                    long start = System.nanoTime();
+                    sink += rasterize(ttr, sets[i]);
+                    long time = System.nanoTime() - start;
+                    best[i][m] = (round == 0) ? time : Math.min(best[i][m], time);
+                }
+            }
+        }
+
+        for (int i = 0; i < sets.length; i++) {
+            System.out.printf("%s: %d characters, re-drawn %.0f characters/s, incremental %.0f characters/s%n",
+                    names[i], sets[i].length(), sets[i].length() * 1e9 / best[i][0],
+                    sets[i].length() * 1e9 / best[i][1]);
+        }
+        System.out.println("checksum " + sink);
+    }
+
+    private static TrueTypeRaster newFont(Font font, boolean incremental) {
+        TrueTypeRaster ttr = new TrueTypeRaster(null, font, Style.Plain, 16, 0, 72,
+                1024, "", true);
+        ttr.setIncrementalAtlas(incremental);
+
+        return ttr;
+    }
+
+    private static long rasterize(TrueTypeBMP<?> ttb, String text) {
+        long sum = 0;
+        for (int i = 0; i < text.length(); i++) {
+            sum += ttb.getGlyphs(text.substring(i, i + 1))[0].x;
+        }
+
+        return sum;
+    }
+
+    private static void appendRange(TrueTypeRaster ttr, StringBuilder sb, int first,
+            int last) {
+        for (int codePoint = first; codePoint <= last; codePoint++) {
+            if (ttr.canDisplay(codePoint)) {
+                sb.append((char) codePoint);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.atr.jme.font.example;
+
+import com.atr.jme.font.TrueTypeMesh;
+import com.atr.jme.font.util.Style;
+import com.google.typography.font.sfntly.Font;
+import com.google.typography.font.sfntly.FontFactory;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Measures the time taken to triangulate sets of characters with
+ * {@link TrueTypeMesh}. The bundled font is used unless the path of another
+ * font file, a CJK font for example, is supplied on the command line.
+ */
+public class BenchmarkTriangulation {
+
+    private static final int ROUNDS = 20;
+
+    /**
+     * @param args array of command-line arguments, optionally the path of a
+     * font file
+     * @throws IOException if the font cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String path = null;
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                path = arg;
+            }
+        }
+
+        Font font;
+        try (InputStream in = (path != null) ? new FileInputStream(path)
+                : BenchmarkTriangulation.class.getClassLoader()
+                        .getResourceAsStream(Constants.FONT)) {
+            font = FontFactory.getInstance().loadFonts(in)[0];
+        }
+        TrueTypeMesh ttm = new TrueTypeMesh(null, font, Style.Plain, 16, 72, "");
+
+        StringBuilder latin = new StringBuilder();
+        appendRange(ttm, latin, 0x21, 0x7E);
+        appendRange(ttm, latin, 0xC0, 0x17E);
+        StringBuilder greekCyrillic = new StringBuilder();
+        appendRange(ttm, greekCyrillic, 0x391, 0x3C9);
+        appendRange(ttm, greekCyrillic, 0x410, 0x44F);
+        StringBuilder all = new StringBuilder();
+        appendRange(ttm, all, 0x21, 0xD7FF);
+        appendRange(ttm, all, 0xE000, 0xFFFF);
+
+        String[] names = {"Latin", "Greek and Cyrillic", "All"};
+        String[] sets = {latin.toString(), greekCyrillic.toString(), all.toString()};
+        long[] best = new long[sets.length];
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < sets.length; i++) {
+                ttm = new TrueTypeMesh(null, font, Style.Plain, 16, 72, "");
+                long start = System.nanoTime();
+                sink += triangulate(ttm, sets[i]);
+                long time = System.nanoTime() - start;
+                best[i] = (round == 0) ? time : Math.min(best[i], time);
+            }
+        }
+
+        for (int i = 0; i < sets.length; i++) {
+            System.out.printf("%s: %d characters, best %.1f ms, %.0f characters/s%n",
+                    names[i], sets[i].length(), best[i] / 1e6,
+                    sets[i].length() * 1e9 / best[i]);
+        }
+        System.out.println("vertices " + sink);
+    }
+
+    private static long triangulate(TrueTypeMesh ttm, String text) {
+        long vertices = 0;
+        for (int i = 0; i < text.length(); i++) {
+            try {
+                vertices += ttm.getGlyphs(text.substring(i, i + 1))[0]
+                        .getMesh().getVertexCount();
+            } catch (RuntimeException ex) {
+                //characters that fail to triangulate are skipped
+            }
+        }
+
+        return vertices;
+    }
+
+    private static void appendRange(TrueTypeMesh ttm, StringBuilder sb, int first,
+            int last) {
+        for (int codePoint = first; codePoint <= last; codePoint++) {
+            if (ttm.canDisplay(codePoint)) {
+                sb.append((char) codePoint);
+            }
+        }
+    }
+}
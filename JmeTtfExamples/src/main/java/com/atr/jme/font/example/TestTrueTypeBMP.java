@@ -1,5 +1,6 @@
 package com.atr.jme.font.example;
 
+import com.atr.jme.font.TrueTypeBMP;
 import com.atr.jme.font.TrueTypeFont;
 import com.atr.jme.font.asset.TrueTypeKey;
 import com.atr.jme.font.asset.TrueTypeKeyBMP;
@@ -19,6 +20,12 @@ import com.jme3.math.ColorRGBA;
  */
 public class TestTrueTypeBMP extends SimpleApplication {
 
+    private static final String TYPED = "The quick brown fox jumps over the lazy dog. 0123456789";
+
+    private TrueTypeNode typed;
+    private int typedLength = 0;
+    private float typeTime = 0;
+
     /**
      * @param args array of command-line arguments (not null)
      */
@@ -45,6 +52,9 @@ public class TestTrueTypeBMP extends SimpleApplication {
         TrueTypeKey key = new TrueTypeKeyBMP(Constants.FONT, Style.Plain, 48);
         //TrueTypeKey key = new TrueTypeKeyBMP(FONT, Style.Plain, 48, 1, CONTENT, 128);
         TrueTypeFont font = (TrueTypeFont) assetManager.loadAsset(key);
+        // new characters are written into the existing atlas, the text's
+        // AtlasUploadControl uploads them when the text is rendered
+        ((TrueTypeBMP) font).setIncrementalAtlas(true);
         StringContainer sc = new StringContainer(font, Constants.HELLO_WORLD);
 
         // test getFormattedText
@@ -55,5 +65,22 @@ public class TestTrueTypeBMP extends SimpleApplication {
         TrueTypeNode text = font.getText(Constants.HELLO_WORLD, 1, ColorRGBA.White);
         text.move(0, cam.getHeight(), 0);// move up
         guiNode.attachChild(text);
+
+        // test incremental atlas updates, one new character at a time
+        typed = font.getText("", 1, ColorRGBA.White);
+        typed.move(0, cam.getHeight() / 2, 0);
+        guiNode.attachChild(typed);
+    }
+
+    @Override
+    public void simpleUpdate(float tpf) {
+        typeTime += tpf;
+        if (typeTime < 0.2f) {
+            return;
+        }
+        typeTime = 0;
+        typedLength = (typedLength % TYPED.length()) + 1;
+        typed.setText(TYPED.substring(0, typedLength));
+        typed.updateGeometry();
     }
 }
@@ -19,6 +19,9 @@ import com.atr.jme.font.shape.TrueTypeContainer;
 import com.atr.jme.font.shape.TrueTypeBMPContainer;
 import com.atr.jme.font.shape.TrueTypeText;
 import com.atr.jme.font.util.AtlasListener;
+import com.atr.jme.font.util.AtlasPacker;
+import com.atr.jme.font.util.AtlasUploadControl;
+import com.atr.jme.font.util.RowPacker;
 import com.atr.jme.font.util.StringContainer;
 import com.atr.jme.font.util.StringContainer.Align;
 import com.atr.jme.font.util.StringContainer.VAlign;
@@ -26,14 +29,20 @@ import com.atr.jme.font.util.Style;
 import com.jme3.asset.AssetManager;
 import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
-import com.jme3.math.FastMath;
+import com.jme3.renderer.Renderer;
+import com.jme3.texture.Image;
 import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
 import com.jme3.util.BufferUtils;
 import com.jme3.util.NativeObjectManager;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * <p>An implementation of {@link TrueTypeFont} that renders fonts with a {@code Texture2D}
@@ -60,24 +69,63 @@ public abstract class TrueTypeBMP<T extends GlyphBMP> extends TrueTypeFont<T, Tr
     protected int charHeight;
     protected int resizeWidth;
     
-    protected final List<AtlasLine> atlasLines = new ArrayList<>();
+    protected final AtlasPacker packer;
     protected Texture2D atlas;
     protected boolean atlasResized = false;
     protected int atlasWidth = 0;
     protected int atlasHeight = 0;
     protected int maxTexRes = 2048;
-    protected final List<AtlasListener> onAtlas = new LinkedList<>();
+    protected final List<AtlasListener> onAtlas = new CopyOnWriteArrayList<>();
     
     protected boolean fixedResolution = false;
+    protected final boolean compactAtlas;
+    
+    protected boolean incrementalAtlas = false;
+    protected final List<int[]> dirtyRegions = new ArrayList<>();
+    private ByteBuffer regionBuffer;
+    
+    protected final List<Texture2D> pages = new ArrayList<>();
+    protected int maxPages = 1;
+    
+    private static final byte[] ZEROS = new byte[4096];
+    
+    protected volatile boolean glyphEviction = false;
+    protected volatile int frame = 0;
+    protected volatile int evictionCount = 0;
+    protected boolean pageEvicted = false;
+    protected final List<int[]> freeRegions = new ArrayList<>();
+    protected long pageUsedArea = 0;
+    
+    protected int packX;
+    protected int packY;
 
     public TrueTypeBMP(AssetManager assetManager, Style style, int pointSize, int outline, int dpi,
             int maxAtlasResolution, boolean fixedResolution) {
+        this(assetManager, style, pointSize, outline, dpi, maxAtlasResolution, fixedResolution, false);
+    }
+    
+    public TrueTypeBMP(AssetManager assetManager, Style style, int pointSize, int outline, int dpi,
+            int maxAtlasResolution, boolean fixedResolution, boolean compactAtlas) {
+        this(assetManager, style, pointSize, outline, dpi, maxAtlasResolution, fixedResolution,
+                compactAtlas, null);
+    }
+    
+    /**
+     * 
+     * @param packer The {@link AtlasPacker} used to place characters in the
+     * texture atlas, if null a {@link RowPacker} will be used.
+     */
+    public TrueTypeBMP(AssetManager assetManager, Style style, int pointSize, int outline, int dpi,
+            int maxAtlasResolution, boolean fixedResolution, boolean compactAtlas,
+            AtlasPacker packer) {
         super(assetManager, style, pointSize, dpi);
         
         this.outline = outline;
         padding = 10 + (outline * 2);
         maxTexRes = maxAtlasResolution;
         this.fixedResolution = fixedResolution;
+        this.compactAtlas = compactAtlas;
+        this.packer = (packer != null) ? packer : new RowPacker();
     }
     
     /**
@@ -99,13 +147,516 @@ public abstract class TrueTypeBMP<T extends GlyphBMP> extends TrueTypeFont<T, Tr
         return maxTexRes;
     }
     
+    /**
+     * Sets the maximum number of texture atlas pages. When the current atlas
+     * reaches the maximum resolution in both dimensions and more characters
+     * are needed a new atlas page is started, until this limit is reached
+     * after which the default character is used instead. Text that uses
+     * characters from multiple pages is rendered with one {@code Geometry}
+     * per page. Default 1.
+     * 
+     * @param maxPages The maximum number of atlas pages, at least 1.
+     */
+    public void setMaxAtlasPages(int maxPages) {
+        this.maxPages = Math.max(maxPages, 1);
+    }
+    
+    /**
+     * 
+     * @return The maximum number of texture atlas pages.
+     * 
+     * @see #setMaxAtlasPages(int) 
+     */
+    public int getMaxAtlasPages() {
+        return maxPages;
+    }
+    
+    /**
+     * 
+     * @return The number of texture atlas pages currently in use.
+     */
+    public int getPageCount() {
+        return pages.size() + ((atlas != null) ? 1 : 0);
+    }
+    
+    /**
+     * 
+     * @return The index of the atlas page new characters are added to.
+     */
+    public int getCurrentPage() {
+        return pages.size();
+    }
+    
+    /**
+     * Gets a page of the texture atlas.
+     * 
+     * @param page The index of the page.
+     * @return The texture of the requested page.
+     * 
+     * @see GlyphBMP#page
+     */
+    public Texture2D getAtlas(int page) {
+        return (page < pages.size()) ? pages.get(page) : atlas;
+    }
+    
+    /**
+     * 
+     * @return The texture atlas page new characters are added to.
+     * 
+     * @see #getAtlas(int) 
+     */
     public Texture2D getAtlas() {
         return atlas;
     }
     
+    /**
+     * 
+     * @return The {@link AtlasPacker} used to place characters in the
+     * texture atlas.
+     */
+    public AtlasPacker getAtlasPacker() {
+        return packer;
+    }
+    
+    /**
+     * Gets the fraction of the current texture atlas page occupied by characters.
+     * 
+     * @return The occupied area of the atlas divided by its total area,
+     * between 0 and 1.
+     * 
+     * @see AtlasPacker#getUsedArea() 
+     */
+    public float getAtlasOccupancy() {
+        if (atlasWidth == 0 || atlasHeight == 0) {
+            return 0;
+        }
+        
+        long used = pageEvicted ? pageUsedArea : packer.getUsedArea();
+        return (float)((double)used / ((long)atlasWidth * atlasHeight));
+    }
+    
+    /**
+     * Tests whether the texture atlas is stored in a compact format. Compact
+     * atlases use {@code Luminance8} for plain fonts and
+     * {@code Luminance8Alpha8} for outlined fonts, which are uploaded as
+     * single and two channel textures, instead of {@code RGB8}.
+     * 
+     * @return True if the atlas uses a compact format.
+     * 
+     * @see com.atr.jme.font.asset.TrueTypeKeyBMP#setCompactAtlas(boolean) 
+     */
+    public boolean isCompactAtlas() {
+        return compactAtlas;
+    }
+    
+    /**
+     * For internal use only.
+     * 
+     * @return The {@code Image.Format} of the texture atlas.
+     */
+    protected Image.Format getAtlasFormat() {
+        if (!compactAtlas) {
+            return Image.Format.RGB8;
+        }
+        
+        return (outline > 0) ? Image.Format.Luminance8Alpha8 : Image.Format.Luminance8;
+    }
+    
+    /**
+     * For internal use only.
+     * 
+     * @return The {@code ColorSpace} of the texture atlas.
+     */
+    protected ColorSpace getAtlasColorSpace() {
+        return compactAtlas ? ColorSpace.Linear : ColorSpace.sRGB;
+    }
+    
+    /**
+     * For internal use only. Sets an area of a buffer to zero without
+     * modifying the buffer's position or limit.
+     * 
+     * @param buf The buffer to clear.
+     * @param position The index of the first byte to clear.
+     * @param length The number of bytes to clear.
+     */
+    protected static void clearBuffer(ByteBuffer buf, int position, int length) {
+        ByteBuffer dst = buf.duplicate();
+        dst.clear();
+        dst.position(position);
+        while (length > 0) {
+            int n = Math.min(length, ZEROS.length);
+            dst.put(ZEROS, 0, n);
+            length -= n;
+        }
+    }
+    
+    /**
+     * For internal use only.
+     * 
+     * @return The number of bytes used by a single pixel of the texture atlas.
+     */
+    protected int getAtlasBytesPerPixel() {
+        return getAtlasFormat().getBitsPerPixel() / 8;
+    }
+    
+    /**
+     * Sets whether new characters should be written into the existing texture
+     * atlas instead of re-drawing the entire atlas. When enabled only the
+     * newly added characters are rasterized and the atlas is only rebuilt
+     * when it grows. The modified areas are uploaded to the GPU when text
+     * created by this font is rendered, see {@link AtlasUploadControl}. Other
+     * {@code Spatial}s using the atlas need their own {@code AtlasUploadControl}
+     * or a call to {@link #uploadAtlasUpdates(com.jme3.renderer.Renderer)}
+     * from the render thread once per frame. Default false.
+     * 
+     * @param incremental True to update the atlas incrementally, false to
+     * re-draw the entire atlas whenever a character is added.
+     * 
+     * @see #uploadAtlasUpdates(com.jme3.renderer.Renderer) 
+     */
+    public void setIncrementalAtlas(boolean incremental) {
+        incrementalAtlas = incremental;
+    }
+    
+    /**
+     * Test whether new characters are written into the existing texture atlas.
+     * 
+     * @return True if the atlas is updated incrementally, otherwise false.
+     * 
+     * @see #setIncrementalAtlas(boolean) 
+     */
+    public boolean isIncrementalAtlas() {
+        return incrementalAtlas;
+    }
+    
+    /**
+     * Tests whether there are areas of the texture atlas that have been
+     * modified but not yet uploaded to the GPU.
+     * 
+     * @return True if there are pending atlas updates.
+     * 
+     * @see #uploadAtlasUpdates(com.jme3.renderer.Renderer) 
+     */
+    public boolean hasAtlasUpdates() {
+        synchronized (createLock) {
+            return !dirtyRegions.isEmpty();
+        }
+    }
+    
+    /**
+     * Uploads the areas of the texture atlas modified since the last call
+     * to this method as sub-image updates of the existing texture. Must be
+     * called from the render thread. If the atlas is awaiting a full upload
+     * the pending areas are discarded as they will be uploaded along with
+     * the rest of the atlas. Characters may be added to the atlas from other
+     * threads while this method is not executing.
+     * 
+     * @param renderer The {@code Renderer} used to upload the modified areas.
+     * 
+     * @see #setIncrementalAtlas(boolean) 
+     */
+    public void uploadAtlasUpdates(Renderer renderer) {
+        synchronized (createLock) {
+            if (dirtyRegions.isEmpty()) {
+                return;
+            }
+        
+            Image image = atlas.getImage();
+            if (image.isUpdateNeeded() || image.getId() == -1) {
+                dirtyRegions.clear();
+                return;
+            }
+        
+            int bpp = image.getFormat().getBitsPerPixel() / 8;
+            ByteBuffer data = image.getData(0).duplicate();
+            for (int[] region : dirtyRegions) {
+                int rowSize = region[2] * bpp;
+                int size = rowSize * region[3];
+                if (regionBuffer == null || regionBuffer.capacity() < size) {
+                    regionBuffer = BufferUtils.createByteBuffer(size);
+                }
+                regionBuffer.clear();
+                for (int y = 0; y < region[3]; y++) {
+                    int pos = (((region[1] + y) * image.getWidth()) + region[0]) * bpp;
+                    data.clear();
+                    data.position(pos);
+                    data.limit(pos + rowSize);
+                    regionBuffer.put(data);
+                }
+                regionBuffer.flip();
+            
+                renderer.modifyTexture(atlas, new Image(image.getFormat(), region[2], region[3],
+                        regionBuffer, image.getColorSpace()), region[0], region[1]);
+            }
+            dirtyRegions.clear();
+        }
+    }
+    
+    /**
+     * For internal use only. Records an area of the texture atlas that
+     * has been modified in place and needs to be uploaded to the GPU.
+     * 
+     * @param x The left edge of the modified area.
+     * @param y The top edge of the modified area.
+     * @param width The width of the modified area.
+     * @param height The height of the modified area.
+     */
+    protected void addDirtyRegion(int x, int y, int width, int height) {
+        width = Math.min(width, atlasWidth - x);
+        height = Math.min(height, atlasHeight - y);
+        if (width > 0 && height > 0) {
+            dirtyRegions.add(new int[]{x, y, width, height});
+        }
+    }
+    
+    /**
+     * Sets whether characters that have not been used recently may be removed
+     * from the texture atlas to make room for new characters once the atlas
+     * has reached its maximum resolution and page count. Evicted characters are
+     * removed from the current atlas page and their areas are reused for new
+     * characters, the remaining characters keep their location. Any text
+     * displaying evicted characters must be re-created.
+     * 
+     * <p>Character use is tracked per frame, call {@link #nextFrame()} once per
+     * frame. Only characters not requested during the current frame are evicted.
+     * Default false.</p>
+     * 
+     * <p>While eviction is enabled characters are looked up while holding
+     * the lock used to create characters, so a character cannot be evicted
+     * between being found and being marked as used.</p>
+     * 
+     * @param eviction True to enable eviction of unused characters.
+     * 
+     * @see #nextFrame() 
+     */
+    public void setGlyphEviction(boolean eviction) {
+        glyphEviction = eviction;
+    }
+    
+    /**
+     * 
+     * @return True if unused characters may be evicted from the texture atlas.
+     * 
+     * @see #setGlyphEviction(boolean) 
+     */
+    public boolean isGlyphEviction() {
+        return glyphEviction;
+    }
+    
+    /**
+     * Advances the frame counter used to track character use when glyph eviction
+     * is enabled. Characters requested before this call are considered unused
+     * until they are requested again.
+     * 
+     * @see #setGlyphEviction(boolean) 
+     */
+    public void nextFrame() {
+        frame++;
+    }
+    
+    /**
+     * 
+     * @return The number of times characters have been evicted from the
+     * texture atlas.
+     * 
+     * @see #setGlyphEviction(boolean) 
+     */
+    public int getEvictionCount() {
+        return evictionCount;
+    }
+    
+    /**
+     * The glyph version also changes whenever characters are evicted from
+     * the texture atlas.
+     * 
+     * @return The current glyph version.
+     * 
+     * @see #getEvictionCount() 
+     */
+    @Override
+    public int getGlyphVersion() {
+        return super.getGlyphVersion() + evictionCount;
+    }
+    
+    /**
+     * For internal use only. Removes characters that were not used during the
+     * current frame from the current atlas page. The remaining characters keep
+     * their location in the atlas, from then on new characters are placed in
+     * the unoccupied areas of the page instead of with the {@link AtlasPacker}.
+     * 
+     * @param added The characters added to the current page so far.
+     * @return True if any characters were evicted, otherwise false.
+     * 
+     * @see #setGlyphEviction(boolean) 
+     * @see #pack(int, int) 
+     */
+    protected boolean evictGlyphs(List<T> added) {
+        if (!glyphEviction) {
+            return false;
+        }
+        
+        int page = getCurrentPage();
+        Set<T> retained = new HashSet<>(added);
+        List<T> onPage = new ArrayList<>();
+        boolean evicted = false;
+        for (T glyph : cache.values()) {
+            if (glyph.page != page) {
+                continue;
+            }
+            if (glyph.codePoint == defaultCodePoint || glyph.codePoint == ' '
+                    || glyph.getLastUsed() == frame || retained.contains(glyph)) {
+                onPage.add(glyph);
+                continue;
+            }
+            
+            cache.remove(glyph.codePoint);
+            if (incrementalAtlas) {
+                clearRegion(glyph.x, glyph.y, glyph.atlasWidth, glyph.atlasHeight);
+            }
+            evicted = true;
+        }
+        if (!evicted) {
+            return false;
+        }
+        
+        freeRegions.clear();
+        freeRegions.add(new int[]{0, 0, atlasWidth, atlasHeight});
+        pageUsedArea = 0;
+        for (T glyph : onPage) {
+            occupyRegion(glyph.x, glyph.y, glyph.atlasWidth, glyph.atlasHeight);
+        }
+        pageEvicted = true;
+        evictionCount++;
+        
+        return true;
+    }
+    
+    /**
+     * For internal use only. Reserves an area of the current atlas page for a
+     * new character. The area is reserved with the {@link AtlasPacker} unless
+     * characters have been evicted from the page, in which case it is placed
+     * in the smallest unoccupied area the character fits in. If successful the
+     * location of the area is stored in {@link #packX} and {@link #packY}.
+     * 
+     * @param width The width of the area.
+     * @param height The height of the area.
+     * @return True if the area was reserved, false if there is no room in
+     * the current atlas page.
+     * 
+     * @see #evictGlyphs(java.util.List) 
+     */
+    protected boolean pack(int width, int height) {
+        if (!pageEvicted) {
+            if (!packer.pack(width, height)) {
+                return false;
+            }
+            packX = packer.getX();
+            packY = packer.getY();
+            
+            return true;
+        }
+        
+        int[] best = null;
+        int bestFit = Integer.MAX_VALUE;
+        for (int[] region : freeRegions) {
+            if (region[2] < width || region[3] < height) {
+                continue;
+            }
+            int fit = Math.min(region[2] - width, region[3] - height);
+            if (fit < bestFit) {
+                best = region;
+                bestFit = fit;
+            }
+        }
+        if (best == null) {
+            return false;
+        }
+        
+        packX = best[0];
+        packY = best[1];
+        occupyRegion(packX, packY, width, height);
+        
+        return true;
+    }
+    
+    /**
+     * Removes an area from the unoccupied areas of the current atlas page.
+     * The unoccupied space is kept as the list of the largest rectangles
+     * that fit in it, these may overlap each other.
+     * 
+     * @param x The left edge of the area.
+     * @param y The top edge of the area.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     */
+    private void occupyRegion(int x, int y, int width, int height) {
+        pageUsedArea += (long)width * height;
+        
+        List<int[]> split = new ArrayList<>();
+        for (Iterator<int[]> it = freeRegions.iterator(); it.hasNext();) {
+            int[] r = it.next();
+            if (x >= r[0] + r[2] || x + width <= r[0]
+                    || y >= r[1] + r[3] || y + height <= r[1]) {
+                continue;
+            }
+            
+            it.remove();
+            if (x > r[0]) {
+                split.add(new int[]{r[0], r[1], x - r[0], r[3]});
+            }
+            if (x + width < r[0] + r[2]) {
+                split.add(new int[]{x + width, r[1], r[0] + r[2] - (x + width), r[3]});
+            }
+            if (y > r[1]) {
+                split.add(new int[]{r[0], r[1], r[2], y - r[1]});
+            }
+            if (y + height < r[1] + r[3]) {
+                split.add(new int[]{r[0], y + height, r[2], r[1] + r[3] - (y + height)});
+            }
+        }
+        freeRegions.addAll(split);
+        
+        //discard areas contained within other areas
+        for (int i = freeRegions.size() - 1; i >= 0; i--) {
+            int[] a = freeRegions.get(i);
+            for (int j = 0; j < freeRegions.size(); j++) {
+                int[] b = freeRegions.get(j);
+                if (i != j && a[0] >= b[0] && a[1] >= b[1] && a[0] + a[2] <= b[0] + b[2]
+                        && a[1] + a[3] <= b[1] + b[3]) {
+                    freeRegions.remove(i);
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Clears an area of the current atlas page and records it as modified.
+     * 
+     * @param x The left edge of the area.
+     * @param y The top edge of the area.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     */
+    private void clearRegion(int x, int y, int width, int height) {
+        width = Math.min(width, atlasWidth - x);
+        height = Math.min(height, atlasHeight - y);
+        if (atlas == null || width <= 0 || height <= 0) {
+            return;
+        }
+        
+        int bpp = getAtlasBytesPerPixel();
+        ByteBuffer buf = atlas.getImage().getData(0);
+        for (int row = 0; row < height; row++) {
+            clearBuffer(buf, (((y + row) * atlasWidth) + x) * bpp, width * bpp);
+        }
+        addDirtyRegion(x, y, width, height);
+    }
+    
     /**
      * Add a {@link AtlasListener} which will be called after the texture atlas
-     * has been modified.
+     * has been modified. Listeners are called on the thread that caused the
+     * atlas to be modified.
      * 
      * @param listener The {@link AtlasListener} you wish to add to the list
      * of listeners that will be called after the texture atlas has been resized.
@@ -147,20 +698,38 @@ public abstract class TrueTypeBMP<T extends GlyphBMP> extends TrueTypeFont<T, Tr
     
     public TrueTypeText getText(T[][] glyphs, int kerning, ColorRGBA color, ColorRGBA outlineColor,
             Align hAlign, VAlign vAlign) {
+        Material mat = createMaterial(color, outlineColor);
+        
+        TrueTypeText ttt = new TrueTypeText(this, glyphs, kerning, hAlign, vAlign, mat);
+        mat.setTexture("Texture", atlas);
+        
+        return ttt;
+    }
+    
+    /**
+     * Creates a {@code Material} suitable for rendering text with this font's
+     * texture atlas.
+     * 
+     * @param color The color of the text.
+     * @param outlineColor The color of the text's outline, ignored if this
+     * font has no outline.
+     * @return A new {@code Material}.
+     */
+    protected Material createMaterial(ColorRGBA color, ColorRGBA outlineColor) {
         Material mat;
         if (outline > 0) {
             mat = new Material(assetManager, "Common/MatDefs/TTF/TTF_BitmapOutlined.j3md");
             mat.setColor("Color", color);
             mat.setColor("Outline", outlineColor);
+            if (compactAtlas) {
+                mat.setBoolean("CompactAtlas", true);
+            }
         } else {
             mat = new Material(assetManager, "Common/MatDefs/TTF/TTF_Bitmap.j3md");
             mat.setColor("Color", color);
         }
         
-        TrueTypeText ttt = new TrueTypeText(this, glyphs, kerning, hAlign, vAlign, mat);
-        mat.setTexture("Texture", atlas);
-        
-        return ttt;
+        return mat;
     }
     
     @Override
@@ -177,15 +746,7 @@ public abstract class TrueTypeBMP<T extends GlyphBMP> extends TrueTypeFont<T, Tr
     
     public TrueTypeContainer getFormattedText(StringContainer stringContainer,
             ColorRGBA color, ColorRGBA outlineColor) {
-        Material mat;
-        if (outline > 0) {
-            mat = new Material(assetManager, "Common/MatDefs/TTF/TTF_BitmapOutlined.j3md");
-            mat.setColor("Color", color);
-            mat.setColor("Outline", outlineColor);
-        } else {
-            mat = new Material(assetManager, "Common/MatDefs/TTF/TTF_Bitmap.j3md");
-            mat.setColor("Color", color);
-        }
+        Material mat = createMaterial(color, outlineColor);
         
         TrueTypeBMPContainer ttc = new TrueTypeBMPContainer(stringContainer, mat);
         mat.setTexture("Texture", atlas);
@@ -205,31 +766,67 @@ public abstract class TrueTypeBMP<T extends GlyphBMP> extends TrueTypeFont<T, Tr
         return ttc;
     }
     
-    @SuppressWarnings("unchecked")
     @Override
     public T[] getGlyphs(StringBuilder text) {
+        if (glyphEviction) {
+            synchronized (createLock) {
+                return findGlyphs(text);
+            }
+        }
+        
+        return findGlyphs(text);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T[] findGlyphs(StringBuilder text) {
         T[] glyphs = (T[])new GlyphBMP[text.length()];
-        LinkedList<CharToCreate> unCached = new LinkedList<>();
+        LinkedList<CharToCreate> unCached = null;
         
         for (int i = 0; i < text.length(); i++) {
             int codePoint = text.codePointAt(i);
-            if (!canDisplay(codePoint) || invalidCharacters.contains(codePoint)) {
+            if (isInvalidCharacter(codePoint)) {
                 codePoint = defaultCodePoint;
             }
             glyphs[i] = cache.get(codePoint);
+            if (glyphs[i] == null && !canDisplay(codePoint)) {
+                codePoint = defaultCodePoint;
+                glyphs[i] = cache.get(codePoint);
+            }
+            if (glyphs[i] != null && glyphEviction) {
+                glyphs[i].setLastUsed(frame);
+            }
             if (glyphs[i] == null) {
                 if (cacheLock) {
                     glyphs[i] = cache.get(defaultCodePoint);
                 } else {
+                    if (unCached == null) {
+                        unCached = new LinkedList<>();
+                    }
                     unCached.add(new CharToCreate(i, codePoint));
                 }
             }
         }
         
-        if (!unCached.isEmpty()) {
-            createGlyphs((LinkedList<CharToCreate>)unCached.clone());
-            for (CharToCreate ctc : unCached) {
-                glyphs[ctc.index] = cache.get(ctc.codePoint);
+        if (unCached != null) {
+            synchronized (createLock) {
+                createGlyphs((LinkedList<CharToCreate>)unCached.clone());
+                for (CharToCreate ctc : unCached) {
+                    T glyph = cache.get(ctc.codePoint);
+                    if (glyph == null) {
+                        //evicted by a request made from an AtlasListener
+                        LinkedList<CharToCreate> retry = new LinkedList<>();
+                        retry.add(ctc);
+                        createGlyphs(retry);
+                        glyph = cache.get(ctc.codePoint);
+                        if (glyph == null) {
+                            glyph = cache.get(defaultCodePoint);
+                        }
+                    }
+                    if (glyph != null && glyphEviction) {
+                        glyph.setLastUsed(frame);
+                    }
+                    glyphs[ctc.index] = glyph;
+                }
             }
         }
         
@@ -278,6 +875,8 @@ public abstract class TrueTypeBMP<T extends GlyphBMP> extends TrueTypeFont<T, Tr
      * @see TrueTypeSfntly#createGlyphs(java.util.List)
      */
     protected void resizeAtlas() {
+        int oldWidth = atlasWidth;
+        int oldHeight = atlasHeight;
         if (fixedResolution) {
             atlasWidth = this.maxTexRes;
             atlasHeight = this.maxTexRes;
@@ -286,12 +885,84 @@ public abstract class TrueTypeBMP<T extends GlyphBMP> extends TrueTypeFont<T, Tr
             atlasHeight += (atlasHeight + charHeight > maxTexRes) ? 0 : charHeight;
         }
         
-        int numNewLines = (int)FastMath.floor((float)atlasHeight / charHeight) - atlasLines.size();
-        for (int i = 0; i < numNewLines; i++) {
-            atlasLines.add(new AtlasLine());
+        packer.resize(atlasWidth, atlasHeight, charHeight);
+        if (pageEvicted) {
+            if (atlasWidth > oldWidth) {
+                freeRegions.add(new int[]{oldWidth, 0, atlasWidth - oldWidth, atlasHeight});
+            }
+            if (atlasHeight > oldHeight) {
+                freeRegions.add(new int[]{0, oldHeight, atlasWidth, atlasHeight - oldHeight});
+            }
+        }
+        
+        if (atlas == null || atlasWidth != oldWidth || atlasHeight != oldHeight) {
+            atlasResized = true;
+        }
+    }
+    
+    /**
+     * For internal use only. Tests whether the current atlas page is full and
+     * a new page can be started.
+     * 
+     * @return True if a new page should be started with {@link #newAtlasPage()}.
+     */
+    protected boolean canAddPage() {
+        return pages.size() + 1 < maxPages && packer.getUsedArea() > 0;
+    }
+    
+    /**
+     * For internal use only. Retires the current atlas page and starts a new,
+     * empty, page. The retired page is never modified again.
+     * 
+     * @see #canAddPage() 
+     */
+    protected void newAtlasPage() {
+        if (!dirtyRegions.isEmpty()) {
+            atlas.getImage().setUpdateNeeded();
+            dirtyRegions.clear();
         }
         
-        atlasResized = true;
+        pages.add(atlas);
+        atlas = null;
+        atlasWidth = 0;
+        atlasHeight = 0;
+        packer.reset();
+        pageEvicted = false;
+        freeRegions.clear();
+        resizeAtlas();
+    }
+    
+    /**
+     * For internal use only. Draws newly added characters into the current atlas
+     * page, re-drawing the whole page if it was resized or incremental updates
+     * are disabled, and notifies the {@link AtlasListener}s.
+     * 
+     * @param added The characters added to the current page.
+     */
+    protected void commitAtlas(List<T> added) {
+        if (atlasResized || (!added.isEmpty() && !incrementalAtlas)) {
+            int oldWidth = (atlas != null) ? atlas.getImage().getWidth() : 0;
+            int oldHeight = (atlas != null) ? atlas.getImage().getHeight() : 0;
+            
+            if (outline > 0) {
+                createAtlasOutlined();
+            } else {
+                createAtlas();
+            }
+            dirtyRegions.clear();
+            
+            for (AtlasListener listener : onAtlas) {
+                listener.mod(assetManager, oldWidth, oldHeight, atlasWidth,
+                        atlasHeight, this);
+            }
+        } else if (!added.isEmpty()) {
+            updateAtlas(added);
+            
+            for (AtlasListener listener : onAtlas) {
+                listener.mod(assetManager, atlasWidth, atlasHeight, atlasWidth,
+                        atlasHeight, this);
+            }
+        }
     }
     
     /**
@@ -310,57 +981,53 @@ public abstract class TrueTypeBMP<T extends GlyphBMP> extends TrueTypeFont<T, Tr
      */
     protected abstract void createAtlasOutlined();
     
+    /**
+     * For internal use only. This method is used to draw newly added characters
+     * into the existing texture atlas without re-drawing the characters
+     * already present.
+     * 
+     * @param newGlyphs The characters that were added to the atlas.
+     * 
+     * @see #setIncrementalAtlas(boolean) 
+     * @see TrueTypeSfntly#createGlyphs(java.util.List)
+     */
+    protected abstract void updateAtlas(List<T> newGlyphs);
+    
     /**
      * Recreates the texture atlas.
      */
     public void reloadTexture() {
-        int oldWidth = (atlas != null) ? atlas.getImage().getWidth() : 0;
-        int oldHeight = (atlas != null) ? atlas.getImage().getHeight() : 0;
+        synchronized (createLock) {
+            int oldWidth = (atlas != null) ? atlas.getImage().getWidth() : 0;
+            int oldHeight = (atlas != null) ? atlas.getImage().getHeight() : 0;
 
-        if (outline > 0) {
-            createAtlasOutlined();
-        } else {
-            createAtlas();
-        }
+            if (outline > 0) {
+                createAtlasOutlined();
+            } else {
+                createAtlas();
+            }
+            dirtyRegions.clear();
 
-        for (AtlasListener listener : onAtlas) {
-            listener.mod(assetManager, oldWidth, oldHeight, atlasWidth,
-                    atlasHeight, this);
-        }
-    }
-    
-    /**
-     * A helper class used in determining a new characters position in the texture
-     * atlas and if said character can fit on a particular line in that atlas.
-     * 
-     * @see TrueTypeSfntly#createGlyphs(java.util.List) 
-     * @see TrueTypeBMP#resizeAtlas() 
-     * 
-     * @author Adam T. Ryder http://1337atr.weebly.com
-     */
-    protected class AtlasLine {
-        private int currentX = 0;
-        
-        public boolean canFit(int cWidth) {
-            return (atlasWidth - currentX) - cWidth >= 0;
-        }
-        
-        public void addChar(int cWidth) {
-            currentX += cWidth;
-        }
-        
-        public int getX() {
-            return currentX;
+            for (AtlasListener listener : onAtlas) {
+                listener.mod(assetManager, oldWidth, oldHeight, atlasWidth,
+                        atlasHeight, this);
+            }
         }
     }
     
     @Override
     public void finalize() throws Throwable {
-        if (!(this instanceof TrueTypeSfntly) && atlas != null) {
-            atlas.getImage().dispose();
-            if (!NativeObjectManager.UNSAFE) {
-                for (ByteBuffer buf : atlas.getImage().getData()) {
-                    BufferUtils.destroyDirectBuffer(buf);
+        if (!(this instanceof TrueTypeSfntly)) {
+            List<Texture2D> textures = new ArrayList<>(pages);
+            if (atlas != null) {
+                textures.add(atlas);
+            }
+            for (Texture2D tex : textures) {
+                tex.getImage().dispose();
+                if (!NativeObjectManager.UNSAFE) {
+                    for (ByteBuffer buf : tex.getImage().getData()) {
+                        BufferUtils.destroyDirectBuffer(buf);
+                    }
                 }
             }
         }
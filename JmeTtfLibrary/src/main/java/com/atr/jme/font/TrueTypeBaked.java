@@ -0,0 +1,242 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font;
+
+import com.atr.jme.font.glyph.GlyphBMP;
+import com.atr.jme.font.glyph.GlyphBaked;
+import com.atr.jme.font.util.Style;
+import com.jme3.asset.AssetManager;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture2D;
+import com.jme3.util.BufferUtils;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>An implementation of {@link TrueTypeBMP} that displays a texture atlas
+ * and character metrics baked ahead of time by
+ * {@link com.atr.jme.font.util.AtlasBaker}. No font file is parsed and no
+ * characters are rasterized when a baked font is loaded, the atlas pages
+ * are uploaded as they are.</p>
+ * 
+ * <p>Only the characters that were baked can be displayed, any other
+ * character is replaced with the default character. The atlas is never
+ * modified so {@link com.atr.jme.font.util.AtlasListener}s are not
+ * called.</p>
+ * 
+ * @see com.atr.jme.font.asset.TrueTypeLoaderBaked
+ * @see TrueTypeBMP
+ */
+public class TrueTypeBaked extends TrueTypeBMP<GlyphBaked> {
+    private static final int MAGIC = 0x4A545442;
+    private static final int VERSION = 1;
+    
+    private TrueTypeBaked(AssetManager assetManager, Style style, int pointSize, int outline,
+            int dpi, int maxAtlasResolution, boolean compactAtlas) {
+        super(assetManager, style, pointSize, outline, dpi, maxAtlasResolution, true, compactAtlas);
+    }
+    
+    /**
+     * Reads a font written by {@link #write(com.atr.jme.font.TrueTypeBMP, java.io.OutputStream)}.
+     * The stream is not closed.
+     * 
+     * @param assetManager The {@code AssetManager} used to load materials.
+     * @param in The stream to read from.
+     * @return The baked font.
+     * @throws IOException If the stream could not be read or does not
+     * contain a baked font with its default character.
+     */
+    public static TrueTypeBaked read(AssetManager assetManager, InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a baked font.");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported baked font version: " + version);
+        }
+        
+        Style style = Style.valueOf(data.readUTF());
+        int pointSize = data.readInt();
+        int dpi = data.readInt();
+        int outline = data.readInt();
+        boolean compact = data.readBoolean();
+        int maxRes = data.readInt();
+        
+        TrueTypeBaked ttb = new TrueTypeBaked(assetManager, style, pointSize, outline, dpi,
+                maxRes, compact);
+        ttb.ascender = data.readInt();
+        ttb.descender = data.readInt();
+        ttb.lineGap = data.readInt();
+        ttb.lineHeight = data.readInt();
+        ttb.defaultCodePoint = data.readInt();
+        
+        int numGlyphs = data.readInt();
+        int[] metrics = new int[8];
+        for (int i = 0; i < numGlyphs; i++) {
+            int codePoint = data.readInt();
+            int page = data.readShort();
+            int x = data.readShort();
+            int y = data.readShort();
+            int width = data.readShort();
+            int height = data.readShort();
+            for (int n = 0; n < metrics.length; n++) {
+                metrics[n] = data.readShort();
+            }
+            ttb.cache.put(codePoint, new GlyphBaked(ttb, codePoint, page, x, y,
+                    width, height, metrics));
+        }
+        if (!ttb.cache.containsKey(ttb.defaultCodePoint)) {
+            throw new IOException("The baked font does not contain its default character.");
+        }
+        
+        int numPages = data.readInt();
+        Image.Format format = ttb.getAtlasFormat();
+        byte[] chunk = new byte[8192];
+        for (int p = 0; p < numPages; p++) {
+            int width = data.readInt();
+            int height = data.readInt();
+            ByteBuffer buf = BufferUtils.createByteBuffer(width * height * ttb.getAtlasBytesPerPixel());
+            while (buf.hasRemaining()) {
+                int len = Math.min(chunk.length, buf.remaining());
+                data.readFully(chunk, 0, len);
+                buf.put(chunk, 0, len);
+            }
+            buf.flip();
+            
+            Texture2D tex = new Texture2D(new Image(format, width, height, buf, null,
+                    ttb.getAtlasColorSpace()));
+            if (p < numPages - 1) {
+                ttb.pages.add(tex);
+            } else {
+                ttb.atlas = tex;
+                ttb.atlasWidth = width;
+                ttb.atlasHeight = height;
+            }
+        }
+        ttb.maxPages = Math.max(numPages, 1);
+        
+        return ttb;
+    }
+    
+    /**
+     * Writes the texture atlas and character metrics of a bitmap font so they
+     * can be loaded with {@link #read(com.jme3.asset.AssetManager, java.io.InputStream)}.
+     * Only the characters currently cached by the font are written. The stream
+     * is flushed but not closed.
+     * 
+     * @param font The font to write.
+     * @param out The stream to write to.
+     * @throws IOException If the font could not be written or its default
+     * character is not cached.
+     * 
+     * @see com.atr.jme.font.util.AtlasBaker
+     */
+    public static void write(TrueTypeBMP<?> font, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        byte[] chunk = new byte[8192];
+        synchronized (font.createLock) {
+            //characters that were not baked are replaced with the default
+            //character, so it must be present in the atlas
+            if (!font.cache.containsKey(font.defaultCodePoint)) {
+                throw new IOException("The default character is not in the font's atlas.");
+            }
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeUTF(font.style.name());
+            data.writeInt(font.pointSize);
+            data.writeInt(font.dpi);
+            data.writeInt(font.outline);
+            data.writeBoolean(font.isCompactAtlas());
+            data.writeInt(font.getMaxAtlasResolution());
+            data.writeInt(font.ascender);
+            data.writeInt(font.descender);
+            data.writeInt(font.lineGap);
+            data.writeInt(font.lineHeight);
+            data.writeInt(font.defaultCodePoint);
+            
+            List<? extends GlyphBMP> glyphs = font.cache.values();
+            data.writeInt(glyphs.size());
+            for (GlyphBMP glyph : glyphs) {
+                data.writeInt(glyph.codePoint);
+                data.writeShort(glyph.page);
+                data.writeShort(glyph.x);
+                data.writeShort(glyph.y);
+                data.writeShort(glyph.atlasWidth);
+                data.writeShort(glyph.atlasHeight);
+                data.writeShort(glyph.getXOffset());
+                data.writeShort(glyph.getYOffset());
+                data.writeShort(glyph.getAscender());
+                data.writeShort(glyph.getDescender());
+                data.writeShort(glyph.getLeft());
+                data.writeShort(glyph.getRight());
+                data.writeShort(glyph.getXAdvance());
+                data.writeShort(glyph.getYAdvance());
+            }
+            
+            int numPages = font.getPageCount();
+            data.writeInt(numPages);
+            for (int p = 0; p < numPages; p++) {
+                Image image = font.getAtlas(p).getImage();
+                data.writeInt(image.getWidth());
+                data.writeInt(image.getHeight());
+                ByteBuffer buf = image.getData(0).duplicate();
+                buf.clear();
+                buf.limit(image.getWidth() * image.getHeight()
+                        * (image.getFormat().getBitsPerPixel() / 8));
+                while (buf.hasRemaining()) {
+                    int len = Math.min(chunk.length, buf.remaining());
+                    buf.get(chunk, 0, len);
+                    data.write(chunk, 0, len);
+                }
+            }
+        }
+        
+        data.flush();
+    }
+    
+    @Override
+    public boolean canDisplay(int codePoint) {
+        return cache.containsKey(codePoint);
+    }
+    
+    @Override
+    protected void createGlyphs(List<CharToCreate> characters) {
+        for (Iterator<CharToCreate> it = characters.iterator(); it.hasNext();) {
+            it.next().codePoint = defaultCodePoint;
+            it.remove();
+        }
+    }
+    
+    @Override
+    protected void createAtlas() {
+    }
+    
+    @Override
+    protected void createAtlasOutlined() {
+    }
+    
+    @Override
+    protected void updateAtlas(List<GlyphBaked> newGlyphs) {
+    }
+}
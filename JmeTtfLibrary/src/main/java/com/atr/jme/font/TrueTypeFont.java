@@ -15,8 +15,10 @@
 package com.atr.jme.font;
 
 import com.atr.jme.font.glyph.Glyph;
+import com.atr.jme.font.glyph.GlyphMetrics;
 import com.atr.jme.font.shape.TrueTypeContainer;
 import com.atr.jme.font.shape.TrueTypeNode;
+import com.atr.jme.font.util.GlyphCache;
 import com.atr.jme.font.util.StringContainer;
 import com.atr.jme.font.util.StringContainer.Align;
 import com.atr.jme.font.util.StringContainer.VAlign;
@@ -24,15 +26,20 @@ import com.atr.jme.font.util.Style;
 import com.jme3.asset.AssetManager;
 import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>The {@code TrueTypeFont} class encapsulates variables and methods used to
  * create and display text created from a True Type Font(.ttf) file.</p>
  * 
+ * <p>Glyphs may be retrieved, and text measured, from multiple threads at once.
+ * Cached characters are looked up without locking while the creation of new
+ * characters is serialized, so layout work can be performed on worker threads.
+ * Creating {@code Spatial}s and uploading textures must still be done on the
+ * render thread.</p>
+ * 
  * @author Adam T. Ryder
  * <a href="http://1337atr.weebly.com">http://1337atr.weebly.com</a>
  * 
@@ -42,7 +49,7 @@ import java.util.Map;
 public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
     public static final int SPACE_CODEPOINT = ' ';
     
-    protected int defaultCodePoint = '\u0000';
+    protected volatile int defaultCodePoint = '\u0000';
     protected final AssetManager assetManager;
     
     public final int dpi;
@@ -56,12 +63,27 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
     protected int descender;
     protected int lineGap;
     
-    protected final Map<Integer, T> cache = new HashMap<>();
-    protected final List<Integer> invalidCharacters = new ArrayList<>();
+    protected final GlyphCache<T> cache = new GlyphCache<>();
+    private final GlyphCache<GlyphMetrics> metricsCache = new GlyphCache<>();
+    /*
+     * Replaced rather than modified so it can be read without locking.
+     */
+    private volatile BitSet invalidCharacters = new BitSet();
     
-    protected final StringBuilder sb = new StringBuilder();
+    /**
+     * Held while new characters are being created and added to the cache.
+     * 
+     * @see #createGlyphs(java.util.List) 
+     */
+    protected final Object createLock = new Object();
     
-    protected boolean cacheLock = false;
+    protected volatile boolean cacheLock = false;
+    
+    /*
+     * Incremented whenever the characters substituted for requested
+     * characters change.
+     */
+    private final AtomicInteger characterVersion = new AtomicInteger();
     
     protected TrueTypeFont(AssetManager assetManager, Style style, int pointSize, int dpi) {
         this.assetManager = assetManager;
@@ -81,6 +103,20 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
      */
     public void lock(boolean lock) {
         cacheLock = lock;
+        characterVersion.incrementAndGet();
+    }
+    
+    /**
+     * Gets a value that changes whenever {@link Glyph}s previously returned
+     * by {@link #getGlyphs(java.lang.String)} may no longer be the ones
+     * returned for the same text, for example after the default or invalid
+     * characters change. {@link StringContainer} uses this to decide whether
+     * the glyphs it has kept for unchanged paragraphs can be reused.
+     * 
+     * @return The current glyph version.
+     */
+    public int getGlyphVersion() {
+        return characterVersion.get();
     }
     
     /**
@@ -121,14 +157,13 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
             return false;
         }
         
-        sb.delete(0, sb.length());
-        sb.append(text);
-        int codePoint = sb.codePointAt(0);
+        int codePoint = text.codePointAt(0);
         if (cacheLock && cache.get(codePoint) == null) {
             return false;
         }
         if (canDisplay(codePoint)) {
             defaultCodePoint = codePoint;
+            characterVersion.incrementAndGet();
             return true;
         }
         
@@ -146,16 +181,28 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
      * @see #setDefaultCharacter(java.lang.String) 
      */
     public void setInvalidCharacters(String text) {
-        sb.delete(0, sb.length());
-        sb.append(text);
-        for (int i = 0; i < sb.length(); i++) {
-            int codePoint = sb.codePointAt(i);
-            if (!invalidCharacters.contains(codePoint)) {
-                invalidCharacters.add(codePoint);
+        synchronized (createLock) {
+            BitSet invalid = (BitSet)invalidCharacters.clone();
+            for (int i = 0; i < text.length(); i++) {
+                invalid.set(text.codePointAt(i));
             }
+            invalidCharacters = invalid;
+            characterVersion.incrementAndGet();
         }
     }
     
+    /**
+     * Tests whether a character has been invalidated.
+     * 
+     * @param codePoint The Unicode code point of the character to test.
+     * @return True if the character is in the list of invalid characters.
+     * 
+     * @see #setInvalidCharacters(java.lang.String) 
+     */
+    public boolean isInvalidCharacter(int codePoint) {
+        return codePoint >= 0 && invalidCharacters.get(codePoint);
+    }
+    
     /**
      * Bitmap texts tend not to look wonderful in smaller point sizes. To
      * remedy this use a larger point size, 26pt for example, and then use
@@ -182,6 +229,14 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
         return scale;
     }
     
+    /**
+     * 
+     * @return The {@link Style} of this {@code TrueTypeFont}.
+     */
+    public Style getStyle() {
+        return style;
+    }
+    
     /**
      * Creates a {@link TrueTypeNode} to display the supplied text.
      * Default horizontal alignment of left and vertical alignment
@@ -371,9 +426,7 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
      * @see #getGlyphs(java.lang.StringBuilder) 
      */
     public T[] getGlyphs(String text) {
-        sb.delete(0, sb.length());
-        sb.append(text);
-        return getGlyphs(sb);
+        return getGlyphs(new StringBuilder(text));
     }
     
     /**
@@ -407,12 +460,84 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
      * 
      * @param characters A {@code List} of {@link TrueTypeFont.CharToCreate}
      * containing the characters to be created and added to the cache. This
-     * list may contain doubles.
+     * list may contain doubles. Must be called while holding {@link #createLock}
+     * and must skip characters that are already cached.
      * 
      * @see #getGlyphs(java.lang.StringBuilder)
      */
     protected abstract void createGlyphs(List<CharToCreate> characters);
     
+    /**
+     * Gets the metrics of the characters in the supplied {@code String}
+     * without creating their {@link Glyph}s. Characters are never added
+     * to the texture atlas or triangulated so this may be used to measure
+     * text that will not be displayed. Advances are identical to those of
+     * the created glyphs. Bounds are taken from the bounding box stored in
+     * the font, slanted for italic styles, and may be a few pixels larger
+     * than those of the created glyphs. NO LINE BREAKS!!
+     * 
+     * @param text A {@code String} containing the characters to measure.
+     * @return An array of {@link GlyphMetrics} representing the characters
+     * in the supplied {@code String}.
+     * 
+     * @see #getGlyphMetrics(java.lang.StringBuilder) 
+     * @see #getGlyphs(java.lang.String) 
+     */
+    public GlyphMetrics[] getGlyphMetrics(String text) {
+        return getGlyphMetrics(new StringBuilder(text));
+    }
+    
+    /**
+     * Gets the metrics of the characters in the supplied {@code StringBuilder}
+     * without creating their {@link Glyph}s. NO LINE BREAKS!!
+     * 
+     * @param text A {@code StringBuilder} containing the characters to measure.
+     * @return An array of {@link GlyphMetrics} representing the characters
+     * in the supplied {@code StringBuilder}.
+     * 
+     * @see #getGlyphMetrics(java.lang.String) 
+     */
+    public GlyphMetrics[] getGlyphMetrics(StringBuilder text) {
+        GlyphMetrics[] metrics = new GlyphMetrics[text.length()];
+        
+        for (int i = 0; i < text.length(); i++) {
+            int codePoint = text.codePointAt(i);
+            if (isInvalidCharacter(codePoint) || !canDisplay(codePoint)
+                    || (cacheLock && !cache.containsKey(codePoint))) {
+                codePoint = defaultCodePoint;
+            }
+            metrics[i] = metricsCache.get(codePoint);
+            if (metrics[i] == null) {
+                metrics[i] = createGlyphMetrics(codePoint);
+                metricsCache.put(codePoint, metrics[i]);
+            }
+        }
+        
+        return metrics;
+    }
+    
+    /**
+     * For internal use only. Computes the metrics of a character without
+     * creating its {@link Glyph}. The default implementation copies the
+     * metrics of the cached glyph and is suitable for fonts whose glyphs
+     * are all created in advance.
+     * 
+     * @param codePoint The code point of the character, which the font
+     * can display.
+     * @return The metrics of the character.
+     * 
+     * @see #getGlyphMetrics(java.lang.StringBuilder) 
+     */
+    protected GlyphMetrics createGlyphMetrics(int codePoint) {
+        T glyph = cache.get(codePoint);
+        if (glyph == null) {
+            glyph = cache.get(defaultCodePoint);
+        }
+        
+        return (glyph == null) ? new GlyphMetrics(codePoint, 0, 0, 0, 0, 0)
+                : new GlyphMetrics(glyph);
+    }
+    
     /**
      * Get the width of one line of text in pixels. Characters supplied to
      * this method will be added to the texture atlas if not already present.
@@ -424,6 +549,7 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
      * @return The width of the supplied {@code String} in pixels.
      * 
      * @see #getLineWidth(java.lang.StringBuilder, int) 
+     * @see #measureLineWidth(java.lang.String, int) 
      */
     public float getLineWidth(String text, int kerning) {
         return getLineWidth(getGlyphs(text), kerning);
@@ -445,18 +571,32 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
         return getLineWidth(getGlyphs(text), kerning);
     }
     
+    /**
+     * Get the width of one line of text in pixels without creating glyphs
+     * for the characters. NO LINE BREAKS!!
+     * 
+     * @param text A {@code String} containing the text to calculate.
+     * @param kerning Additional spacing between characters in pixels.
+     * @return The width of the supplied {@code String} in pixels.
+     * 
+     * @see #getGlyphMetrics(java.lang.String) 
+     */
+    public float measureLineWidth(String text, int kerning) {
+        return getLineWidth(getGlyphMetrics(text), kerning);
+    }
+    
     /**
      * Get the width of one line of text in pixels.Use this method to obtain
      * the line width of text created with one of the bitmap text methods.
      * 
-     * @param glyphs An array of {@code TrueTypeBitmapGlyph}s.
+     * @param glyphs An array of {@code Glyph}s or {@code GlyphMetrics}.
      * @param kerning Additional spacing between characters in pixels.
-     * @return The width of the supplied {@code TrueTypeBitmapGlyph}s in pixels.
+     * @return The width of the supplied {@code Glyph}s in pixels.
      * 
      * @see #getLineWidth(java.lang.String, int) 
      * @see #getLineWidth(java.lang.StringBuilder, int) 
      */
-    public float getLineWidth(T[] glyphs, int kerning) {
+    public float getLineWidth(Glyph[] glyphs, int kerning) {
         if (glyphs.length == 0) {
             return 0;
         }
@@ -622,6 +762,20 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
         return getVisualLineHeight(getGlyphs(text));
     }
     
+    /**
+     * Get the height of the text from the bottom of the character that extends the
+     * deepest below the baseline to the top of the character that extends the highest
+     * above the baseline without creating glyphs for the characters. NO LINE BREAKS!!
+     * 
+     * @param text The text to calculate the height of.
+     * @return The height.
+     * 
+     * @see #getGlyphMetrics(java.lang.String) 
+     */
+    public float measureVisualLineHeight(String text) {
+        return getVisualLineHeight(getGlyphMetrics(text));
+    }
+    
     /**
      * Get the height of the text from the bottom of the character that extends the
      * deepest below the baseline to the top of the character that extends the highest
@@ -630,12 +784,12 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
      * @param glyphs The text to calculate the height of.
      * @return The height.
      */
-    public float getVisualLineHeight(T[] glyphs) {
+    public float getVisualLineHeight(Glyph[] glyphs) {
         if (glyphs.length == 0) {
             return 0;
         }
         int maxY = Integer.MIN_VALUE;
-        for (T glyph : glyphs) {
+        for (Glyph glyph : glyphs) {
             maxY = (glyph.getHeight() > maxY) ? glyph.getHeight() : maxY;
         }
         
@@ -664,6 +818,19 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
         return getVisualAscent(getGlyphs(text));
     }
     
+    /**
+     * Gets the amount above the baseline the tallest character in the
+     * text extends without creating glyphs for the characters.
+     * 
+     * @param text The text to calculate.
+     * @return The height above the baseline of the tallest character.
+     * 
+     * @see #getGlyphMetrics(java.lang.String) 
+     */
+    public float measureVisualAscent(String text) {
+        return getVisualAscent(getGlyphMetrics(text));
+    }
+    
     /**
      * Gets the amount above the baseline the tallest character in the
      * array extends.
@@ -671,12 +838,12 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
      * @param glyphs The text to calculate.
      * @return The height above the baseline of the tallest character.
      */
-    public float getVisualAscent(T[] glyphs) {
+    public float getVisualAscent(Glyph[] glyphs) {
         if (glyphs.length == 0) {
             return 0;
         }
         int maxY = Integer.MIN_VALUE;
-        for (T glyph : glyphs) {
+        for (Glyph glyph : glyphs) {
             maxY = (glyph.getAscender() > maxY) ? glyph.getAscender() : maxY;
         }
         
@@ -705,6 +872,20 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
         return getVisualDescent(getGlyphs(text));
     }
     
+    /**
+     * Gets the amount below the baseline the character that extends
+     * the lowest beyond the baseline extends without creating glyphs
+     * for the characters.
+     * 
+     * @param text The text to calculate.
+     * @return The depth below the baseline.
+     * 
+     * @see #getGlyphMetrics(java.lang.String) 
+     */
+    public float measureVisualDescent(String text) {
+        return getVisualDescent(getGlyphMetrics(text));
+    }
+    
     /**
      * Gets the amount below the baseline the character that extends
      * the lowest beyond the baseline extends.
@@ -712,12 +893,12 @@ public abstract class TrueTypeFont<T extends Glyph, S extends TrueTypeNode> {
      * @param glyphs The text to calculate.
      * @return The depth below the baseline.
      */
-    public float getVisualDescent(T[] glyphs) {
+    public float getVisualDescent(Glyph[] glyphs) {
         if (glyphs.length == 0) {
             return 0;
         }
         int minY = Integer.MAX_VALUE;
-        for (T glyph : glyphs) {
+        for (Glyph glyph : glyphs) {
             minY = (glyph.getDescender() < minY) ? glyph.getDescender() : minY;
         }
         
@@ -15,32 +15,33 @@
 package com.atr.jme.font;
 
 import com.atr.jme.font.glyph.GlyphMesh;
+import com.atr.jme.font.glyph.GlyphMetrics;
 import com.atr.jme.font.sfntly.AnchorTable;
-import com.atr.jme.font.sfntly.NullAnchorTable;
+import com.atr.jme.font.sfntly.FontTables;
 import com.atr.jme.font.shape.MeshGlyf;
+import com.atr.jme.font.shape.MeshGlyfCache;
 import com.atr.jme.font.shape.TrueTypeContainer;
 import com.atr.jme.font.shape.TrueTypeMeshContainer;
 import com.atr.jme.font.shape.TrueTypeMeshText;
+import com.atr.jme.font.util.GlyphCache;
 import com.atr.jme.font.util.StringContainer;
 import com.atr.jme.font.util.StringContainer.Align;
 import com.atr.jme.font.util.StringContainer.VAlign;
 import com.atr.jme.font.util.Style;
 import com.google.typography.font.sfntly.Font;
-import com.google.typography.font.sfntly.Tag;
-import com.google.typography.font.sfntly.table.Table;
-import com.google.typography.font.sfntly.table.core.CMap;
-import com.google.typography.font.sfntly.table.core.CMapTable;
 import com.google.typography.font.sfntly.table.core.FontHeaderTable;
 import com.google.typography.font.sfntly.table.core.HorizontalHeaderTable;
-import com.google.typography.font.sfntly.table.core.HorizontalMetricsTable;
 import com.google.typography.font.sfntly.table.truetype.Glyph;
-import com.google.typography.font.sfntly.table.truetype.GlyphTable;
-import com.google.typography.font.sfntly.table.truetype.LocaTable;
 import com.jme3.asset.AssetManager;
 import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * An implementation of {@link TrueTypeFont} that renders fonts by triangulating a
@@ -52,12 +53,29 @@ import java.util.List;
  * @see TrueTypeFont
  */
 public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
+    /**
+     * <ul>
+     * <li>
+     * {@code Triangulation.Delaunay} builds a constrained Delaunay
+     * triangulation of every glyph.
+     * </li>
+     * <li>
+     * {@code Triangulation.EarClipping} clips ears from the outline of each
+     * glyph, falling back to {@code Triangulation.Delaunay} for glyphs whose
+     * contours or curves overlap.
+     * </li>
+     * </ul>
+     * 
+     * @see TrueTypeMesh#setTriangulation(com.atr.jme.font.TrueTypeMesh.Triangulation) 
+     */
+    public enum Triangulation {
+        Delaunay,
+        EarClipping
+    }
+    
+    private final FontTables tables;
     private final Font font;
     
-    private final CMap characterMap;
-    private final LocaTable loca;
-    private final GlyphTable glyphs;
-    private final HorizontalMetricsTable hmtx;
     private final AnchorTable ankr;
     
     private final float pointScale;
@@ -72,26 +90,61 @@ public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
     
     private boolean aa = true;
     
+    private volatile Triangulation triangulation = Triangulation.Delaunay;
+    private volatile Executor executor;
+    private volatile MeshGlyfCache meshCache;
+    private final GlyphCache<GlyphMesh> placeholders = new GlyphCache<>();
+    private final AtomicInteger triangulated = new AtomicInteger();
+    
     public TrueTypeMesh(AssetManager assetManager, Font font, Style style, int pointSize,
             int screenDensity, String preload) {
+        this(assetManager, font, style, pointSize, screenDensity, preload, null);
+    }
+    
+    /**
+     * Creates a {@code TrueTypeMesh} that takes previously triangulated
+     * characters, including the preloaded characters, from a
+     * {@link MeshGlyfCache} and adds newly triangulated characters to it.
+     * 
+     * @param assetManager
+     * @param font
+     * @param style
+     * @param pointSize
+     * @param screenDensity
+     * @param preload
+     * @param meshCache The cache of triangulated characters or null.
+     * 
+     * @see #setMeshCache(com.atr.jme.font.shape.MeshGlyfCache) 
+     */
+    public TrueTypeMesh(AssetManager assetManager, Font font, Style style, int pointSize,
+            int screenDensity, String preload, MeshGlyfCache meshCache) {
+        this(assetManager, new FontTables(font), style, pointSize, screenDensity, preload,
+                meshCache);
+    }
+    
+    /**
+     * Creates a {@code TrueTypeMesh} from the parsed tables of a font file,
+     * which may be shared with other fonts.
+     * 
+     * @param assetManager
+     * @param tables The parsed tables of the font file.
+     * @param style
+     * @param pointSize
+     * @param screenDensity
+     * @param preload
+     * @param meshCache The cache of triangulated characters or null.
+     * 
+     * @see com.atr.jme.font.asset.FontRegistry
+     */
+    public TrueTypeMesh(AssetManager assetManager, FontTables tables, Style style, int pointSize,
+            int screenDensity, String preload, MeshGlyfCache meshCache) {
         super(assetManager, style, pointSize, screenDensity);
-        this.font = font;
-        
-        CMapTable cmapTable = font.getTable(Tag.cmap);
-        CMap cmap = cmapTable.cmap(Font.PlatformId.Windows.value(),
-                Font.WindowsEncodingId.UnicodeUCS4.value());
-        if (cmap == null) {
-            characterMap = cmapTable.cmap(Font.PlatformId.Windows.value(),
-                    Font.WindowsEncodingId.UnicodeUCS2.value());
-        } else {
-            characterMap = cmap;
-        }
-        
-        loca = font.getTable(Tag.loca);
-        glyphs = font.getTable(Tag.glyf);
-        hmtx = font.getTable(Tag.hmtx);
+        this.tables = tables;
+        font = tables.getFont();
+        ankr = tables.getAnchorTable();
+        this.meshCache = meshCache;
         
-        FontHeaderTable head = font.getTable(Tag.head);
+        FontHeaderTable head = tables.getHeader();
         int maxX = head.xMax();
         int minX = head.xMin();
         int maxY = head.yMax();
@@ -123,20 +176,13 @@ public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
         minCharX = (int)Math.floor((minX - (w * 0.1f)) * pointScale) - 10f;
         minCharY = (int)Math.floor((minY - (h * 0.1f)) * pointScale) - 10f;
         
-        HorizontalHeaderTable hhea = font.getTable(Tag.hhea);
+        HorizontalHeaderTable hhea = tables.getHorizontalHeader();
         ascender = Math.round(hhea.ascender() * pointScale);
         descender = Math.round(-hhea.descender() * pointScale);
         lineGap = Math.round(hhea.lineGap() * pointScale);
         
         lineHeight = ascender + descender + lineGap;
         
-        Table t = font.getTable(Tag.intValue(new byte[]{'a', 'n', 'k', 'r'}));
-        if (t != null) {
-            ankr = new AnchorTable(t);
-        } else {
-            ankr = new NullAnchorTable();
-        }
-        
         getGlyphs(new StringBuilder().appendCodePoint(defaultCodePoint).append(" ").append(preload));
     }
     
@@ -162,10 +208,138 @@ public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
         return aa;
     }
     
+    /**
+     * Sets the strategy used to triangulate characters. Ear clipping is
+     * faster than the default Delaunay triangulation and covers the same
+     * area. Note this only effects characters that have not been
+     * triangulated yet.
+     * 
+     * @param triangulation The triangulation strategy, default
+     * {@code Triangulation.Delaunay}.
+     * 
+     * @see Triangulation
+     */
+    public void setTriangulation(Triangulation triangulation) {
+        this.triangulation = triangulation;
+    }
+    
+    /**
+     * 
+     * @return The strategy used to triangulate characters.
+     * 
+     * @see #setTriangulation(com.atr.jme.font.TrueTypeMesh.Triangulation) 
+     */
+    public Triangulation getTriangulation() {
+        return triangulation;
+    }
+    
+    /**
+     * Sets an {@code Executor} used to triangulate new characters off of the
+     * calling thread. While a character is being triangulated a placeholder
+     * displaying the default character is returned in its place,
+     * {@link TrueTypeMeshText} replaces placeholders with the finished
+     * characters automatically. The default character and spaces are always
+     * created immediately, as are characters the {@code Executor} rejects.
+     * Default null, characters are triangulated on the calling thread.
+     * 
+     * @param executor The {@code Executor} to triangulate characters on or
+     * null to triangulate characters on the calling thread.
+     * 
+     * @see GlyphMesh#isPlaceholder() 
+     */
+    public void setTriangulationExecutor(Executor executor) {
+        this.executor = executor;
+    }
+    
+    /**
+     * 
+     * @return The {@code Executor} used to triangulate new characters or null
+     * if characters are triangulated on the calling thread.
+     * 
+     * @see #setTriangulationExecutor(java.util.concurrent.Executor) 
+     */
+    public Executor getTriangulationExecutor() {
+        return executor;
+    }
+    
+    /**
+     * Gets the number of characters that have finished triangulating on the
+     * triangulation {@code Executor}. This value changes whenever a placeholder
+     * can be replaced.
+     * 
+     * @return The number of asynchronously triangulated characters.
+     * 
+     * @see #setTriangulationExecutor(java.util.concurrent.Executor) 
+     */
+    public int getTriangulatedCount() {
+        return triangulated.get();
+    }
+    
+    /**
+     * The glyph version also changes whenever a character finishes
+     * triangulating and its placeholder can be replaced.
+     * 
+     * @return The current glyph version.
+     * 
+     * @see #getTriangulatedCount() 
+     */
+    @Override
+    public int getGlyphVersion() {
+        return super.getGlyphVersion() + triangulated.get();
+    }
+    
+    /**
+     * 
+     * @return The number of characters currently being triangulated.
+     * 
+     * @see #setTriangulationExecutor(java.util.concurrent.Executor) 
+     */
+    public int getPendingCount() {
+        return placeholders.size();
+    }
+    
+    /**
+     * Sets a {@link MeshGlyfCache} to take previously triangulated characters
+     * from instead of triangulating them again. Characters triangulated by
+     * this {@code TrueTypeMesh} are added to the cache so it can be saved and
+     * re-used the next time the application starts. Note this only effects
+     * characters that have not been created yet.
+     * 
+     * @param meshCache The cache of triangulated characters or null to
+     * always triangulate characters, default null.
+     * 
+     * @see MeshGlyfCache#save(java.io.File) 
+     */
+    public void setMeshCache(MeshGlyfCache meshCache) {
+        this.meshCache = meshCache;
+    }
+    
+    /**
+     * 
+     * @return The cache of triangulated characters or null if characters
+     * are always triangulated.
+     * 
+     * @see #setMeshCache(com.atr.jme.font.shape.MeshGlyfCache) 
+     */
+    public MeshGlyfCache getMeshCache() {
+        return meshCache;
+    }
+    
     public Font getFont() {
         return font;
     }
     
+    /**
+     * 
+     * @return The parsed tables of the font file, shared with other fonts
+     * loaded from the same file.
+     * 
+     * @see com.atr.jme.font.asset.FontRegistry
+     */
+    public FontTables getFontTables() {
+        return tables;
+    }
+    
     public float getMaxCharX() {
         return maxCharX;
     }
@@ -196,7 +370,7 @@ public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
     
     @Override
     public boolean canDisplay(int codePoint) {
-        return characterMap.glyphId(codePoint) != 0;
+        return tables.getGlyphID(codePoint) != 0;
     }
     
     /**
@@ -209,7 +383,7 @@ public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
      * @see #getGlyph(int)
      */
     public int getGlyphID(int codePoint) {
-        return characterMap.glyphId(codePoint);
+        return tables.getGlyphID(codePoint);
     }
     
     /**
@@ -222,7 +396,7 @@ public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
      * @see #getGlyphID(int)
      */
     public Glyph getGlyph(int glyphID) {
-        return glyphs.glyph(loca.glyphOffset(glyphID), loca.glyphLength(glyphID));
+        return tables.getGlyph(glyphID);
     }
     
     @Override
@@ -265,27 +439,42 @@ public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
     @Override
     public GlyphMesh[] getGlyphs(StringBuilder text) {
         GlyphMesh[] glyphs = new GlyphMesh[text.length()];
-        LinkedList<CharToCreate> unCached = new LinkedList<>();
+        LinkedList<CharToCreate> unCached = null;
         
         for (int i = 0; i < text.length(); i++) {
             int codePoint = text.codePointAt(i);
-            if (!canDisplay(codePoint) || invalidCharacters.contains(codePoint)) {
+            if (isInvalidCharacter(codePoint)) {
                 codePoint = defaultCodePoint;
             }
             glyphs[i] = cache.get(codePoint);
+            if (glyphs[i] == null) {
+                glyphs[i] = placeholders.get(codePoint);
+            }
+            if (glyphs[i] == null && !canDisplay(codePoint)) {
+                codePoint = defaultCodePoint;
+                glyphs[i] = cache.get(codePoint);
+            }
             if (glyphs[i] == null) {
                 if (cacheLock) {
                     glyphs[i] = cache.get(defaultCodePoint);
                 } else {
+                    if (unCached == null) {
+                        unCached = new LinkedList<>();
+                    }
                     unCached.add(new CharToCreate(i, codePoint));
                 }
             }
         }
         
-        if (!unCached.isEmpty()) {
-            createGlyphs((LinkedList<CharToCreate>)unCached.clone());
+        if (unCached != null) {
+            synchronized (createLock) {
+                createGlyphs((LinkedList<CharToCreate>)unCached.clone());
+            }
             for (CharToCreate ctc : unCached) {
                 glyphs[ctc.index] = cache.get(ctc.codePoint);
+                if (glyphs[ctc.index] == null) {
+                    glyphs[ctc.index] = placeholders.get(ctc.codePoint);
+                }
             }
         }
         
@@ -319,15 +508,91 @@ public class TrueTypeMesh extends TrueTypeFont<GlyphMesh, TrueTypeMeshText> {
     
     @Override
     protected void createGlyphs(List<CharToCreate> characters) {
+        Executor exec = executor;
         for (CharToCreate ctc : characters) {
-            if (cache.containsKey(ctc.codePoint)) {
+            if (cache.containsKey(ctc.codePoint) || placeholders.containsKey(ctc.codePoint)) {
+                continue;
+            }
+            
+            GlyphMesh defaultGlyph = cache.get(defaultCodePoint);
+            if (exec == null || defaultGlyph == null || ctc.codePoint == defaultCodePoint
+                    || ctc.codePoint == ' ') {
+                cache.put(ctc.codePoint, createGlyph(ctc.codePoint));
                 continue;
             }
-            int gid = getGlyphID(ctc.codePoint);
-            MeshGlyf mg = new MeshGlyf(this, ankr, getGlyph(gid));
-            GlyphMesh gm = new GlyphMesh(ctc.codePoint, mg, hmtx.advanceWidth(gid) * pointScale,
-                    0);
-            cache.put(ctc.codePoint, gm);
+            
+            final int codePoint = ctc.codePoint;
+            placeholders.put(codePoint, new GlyphMesh(codePoint, defaultGlyph));
+            try {
+                exec.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            cache.put(codePoint, createGlyph(codePoint));
+                        } catch (RuntimeException ex) {
+                            Logger.getLogger(TrueTypeMesh.class.getName()).log(Level.WARNING,
+                                    "Unable to triangulate character: " + codePoint, ex);
+                            setInvalidCharacters(new String(Character.toChars(codePoint)));
+                        }
+                        placeholders.remove(codePoint);
+                        triangulated.incrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                //the executor is shut down or saturated, triangulate on this thread
+                try {
+                    cache.put(codePoint, createGlyph(codePoint));
+                } finally {
+                    placeholders.remove(codePoint);
+                    triangulated.incrementAndGet();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Triangulates a character or takes it from the {@link MeshGlyfCache}
+     * if one is set.
+     * 
+     * @param codePoint The code point of the character.
+     * @return The triangulated character.
+     */
+    private GlyphMesh createGlyph(int codePoint) {
+        int gid = getGlyphID(codePoint);
+        MeshGlyfCache mc = meshCache;
+        MeshGlyf mg = (mc == null) ? null : mc.get(this, gid);
+        if (mg == null) {
+            mg = new MeshGlyf(this, ankr, getGlyph(gid));
+            if (mc != null) {
+                mc.put(this, gid, mg);
+            }
+        }
+        return new GlyphMesh(codePoint, mg, tables.getAdvanceWidth(gid) * pointScale, 0);
+    }
+    
+    /**
+     * Computes a character's metrics from the bounding box in the glyph's
+     * header rather than from its triangulated mesh.
+     * 
+     * @param codePoint The code point of the character.
+     * @return The metrics of the character.
+     */
+    @Override
+    protected GlyphMetrics createGlyphMetrics(int codePoint) {
+        int gid = getGlyphID(codePoint);
+        float minX = tables.getXMin(gid) * pointScale;
+        float minY = tables.getYMin(gid) * pointScale;
+        float maxX = tables.getXMax(gid) * pointScale;
+        float maxY = tables.getYMax(gid) * pointScale;
+        if (italic != 0) {
+            float bottom = (minY / italicRef) * italic;
+            float top = (maxY / italicRef) * italic;
+            minX += Math.min(bottom, top);
+            maxX += Math.max(bottom, top);
         }
+        
+        return new GlyphMetrics(codePoint, (int)Math.ceil(maxY), (int)Math.floor(minY),
+                (int)Math.floor(minX), (int)Math.ceil(maxX),
+                (int)Math.ceil(tables.getAdvanceWidth(gid) * pointScale));
     }
 }
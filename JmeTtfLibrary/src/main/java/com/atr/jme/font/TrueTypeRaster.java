@@ -0,0 +1,601 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font;
+
+import com.atr.jme.font.glyph.GlyphMetrics;
+import com.atr.jme.font.glyph.GlyphRaster;
+import com.atr.jme.font.sfntly.AnchorTable;
+import com.atr.jme.font.sfntly.FontTables;
+import com.atr.jme.font.util.AtlasPacker;
+import com.atr.jme.font.util.GlyphPath;
+import com.atr.jme.font.util.Rasterizer;
+import com.atr.jme.font.util.Style;
+import com.google.typography.font.sfntly.Font;
+import com.google.typography.font.sfntly.table.core.FontHeaderTable;
+import com.google.typography.font.sfntly.table.core.HorizontalHeaderTable;
+import com.google.typography.font.sfntly.table.truetype.CompositeGlyph;
+import com.google.typography.font.sfntly.table.truetype.Glyph;
+import com.google.typography.font.sfntly.table.truetype.SimpleGlyph;
+import com.jme3.asset.AssetManager;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture2D;
+import com.jme3.util.BufferUtils;
+import com.jme3.util.NativeObjectManager;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>An implementation of {@link TrueTypeBMP} that uses Google's Sfntly library
+ * to load fonts and a pure Java {@link Rasterizer} to draw the texture atlas.
+ * Unlike {@link TrueTypeSfntly} this does not require {@code android.graphics}
+ * and can be used on desktop and headless platforms.</p>
+ * 
+ * <p>Load with a {@link com.atr.jme.font.asset.TrueTypeKeyBMP} after calling
+ * {@link com.atr.jme.font.asset.TrueTypeKeyBMP#setJavaRasterizer(boolean)}.</p>
+ * 
+ * @see TrueTypeBMP
+ * @see TrueTypeFont
+ */
+public class TrueTypeRaster extends TrueTypeBMP<GlyphRaster> {
+    private static final float[] IDENTITY = new float[]{1, 0, 0, 1, 0, 0};
+    
+    private final FontTables tables;
+    private final Font font;
+    
+    private final AnchorTable ankr;
+    
+    private final float pointScale;
+    
+    private final float italic;
+    private float italicRef;
+    public final int bold;
+    
+    private final Rasterizer rasterizer = new Rasterizer();
+    
+    public TrueTypeRaster(AssetManager assetManager, Font font, Style style,
+            int pointSize, int outline, int screenDensity, int maxAtlasResolution,
+            String preload, boolean fixedResolution) {
+        this(assetManager, font, style, pointSize, outline, screenDensity, maxAtlasResolution,
+                preload, fixedResolution, false);
+    }
+    
+    public TrueTypeRaster(AssetManager assetManager, Font font, Style style,
+            int pointSize, int outline, int screenDensity, int maxAtlasResolution,
+            String preload, boolean fixedResolution, boolean compactAtlas) {
+        this(assetManager, font, style, pointSize, outline, screenDensity, maxAtlasResolution,
+                preload, fixedResolution, compactAtlas, null);
+    }
+    
+    public TrueTypeRaster(AssetManager assetManager, Font font, Style style,
+            int pointSize, int outline, int screenDensity, int maxAtlasResolution,
+            String preload, boolean fixedResolution, boolean compactAtlas, AtlasPacker packer) {
+        this(assetManager, new FontTables(font), style, pointSize, outline, screenDensity,
+                maxAtlasResolution, preload, fixedResolution, compactAtlas, packer);
+    }
+    
+    /**
+     * 
+     * @param tables The parsed tables of the font file, which may be shared
+     * with other fonts.
+     * 
+     * @see com.atr.jme.font.asset.FontRegistry
+     */
+    public TrueTypeRaster(AssetManager assetManager, FontTables tables, Style style,
+            int pointSize, int outline, int screenDensity, int maxAtlasResolution,
+            String preload, boolean fixedResolution, boolean compactAtlas, AtlasPacker packer) {
+        super(assetManager, style, pointSize, outline, screenDensity, maxAtlasResolution,
+                fixedResolution, compactAtlas, packer);
+        
+        this.tables = tables;
+        font = tables.getFont();
+        ankr = tables.getAnchorTable();
+        
+        FontHeaderTable head = tables.getHeader();
+        int maxX = head.xMax();
+        int minX = head.xMin();
+        int maxY = head.yMax();
+        int minY = head.yMin();
+        
+        pointScale = (pointSize * dpi) / (72f * head.unitsPerEm());
+        italicRef = maxY * pointScale;
+        
+        switch(style) {
+            case Italic:
+                italic = -(float)Math.sin(-0.25f) * italicRef;
+                italicRef = (float)Math.cos(-0.25f) * italicRef;
+                bold = 0;
+                break;
+            case Bold:
+                italic = 0;
+                bold = Math.round(((dpi / 72f) * 0.03f) * pointSize);
+                break;
+            case BoldItalic:
+                italic = -(float)Math.sin(-0.25f) * italicRef;
+                italicRef = (float)Math.cos(-0.25f) * italicRef;
+                bold = Math.round(((dpi / 72f) * 0.03f) * pointSize);
+                break;
+            default:
+                italic = 0;
+                bold = 0;
+        }
+        
+        resizeWidth = (int)Math.ceil((maxX - minX) * pointScale) + padding + bold;
+        charHeight = (int)Math.ceil((maxY - minY) * pointScale) + padding + bold;
+        
+        HorizontalHeaderTable hhea = tables.getHorizontalHeader();
+        ascender = Math.round(hhea.ascender() * pointScale) + outline + Math.round(bold / 2f);
+        descender = Math.round(-hhea.descender() * pointScale) + Math.round((outline / 2f) + (bold / 2f));
+        lineGap = Math.round(hhea.lineGap() * pointScale);
+        
+        lineHeight = ascender + descender + lineGap;
+        
+        getGlyphs(new StringBuilder().appendCodePoint(defaultCodePoint).append(" ").append(preload));
+    }
+    
+    public Font getFont() {
+        return font;
+    }
+    
+    /**
+     * 
+     * @return The parsed tables of the font file, shared with other fonts
+     * loaded from the same file.
+     * 
+     * @see com.atr.jme.font.asset.FontRegistry
+     */
+    public FontTables getFontTables() {
+        return tables;
+    }
+    
+    @Override
+    public boolean canDisplay(int codePoint) {
+        return tables.getGlyphID(codePoint) != 0;
+    }
+    
+    /**
+     * Gets the GlyphID of a glyph associated with a particular character.
+     * 
+     * @param codePoint The Unicode code point of the requested character.
+     * @return The ID which can be used to look up a glyph in the truetype
+     * font file.
+     * 
+     * @see #getGlyph(int)
+     */
+    public int getGlyphID(int codePoint) {
+        return tables.getGlyphID(codePoint);
+    }
+    
+    /**
+     * Gets a {@code com.google.typography.font.sfntly.table.truetype.Glyph} from
+     * the truetype font file.
+     * 
+     * @param glyphID The ID of the requested glyph.
+     * @return The requested glyph.
+     * 
+     * @see #getGlyphID(int)
+     */
+    public Glyph getGlyph(int glyphID) {
+        return tables.getGlyph(glyphID);
+    }
+    
+    @Override
+    protected void createGlyphs(List<CharToCreate> characters) {
+        if (atlas == null) {
+            resizeAtlas();
+        }
+        
+        List<GlyphRaster> added = new ArrayList<>();
+        Map<Integer, GlyphPath> backLog = new HashMap<>();
+        do {
+            for (Iterator<CharToCreate> it = characters.iterator(); it.hasNext();) {
+                CharToCreate ctc = it.next();
+                if (cache.containsKey(ctc.codePoint)) {
+                    it.remove();
+                    continue;
+                }
+                
+                int gid = getGlyphID(ctc.codePoint);
+                GlyphPath path = backLog.get(ctc.codePoint);
+                if (path == null) {
+                    path = getContours(getGlyph(gid));
+                }
+                int w = (int)Math.ceil(path.getWidth()) + padding + bold;
+                int h = (int)Math.ceil(path.getHeight()) + padding + bold;
+                if (pack(w, h)) {
+                    float xAdvance = (tables.getAdvanceWidth(gid) * pointScale) + outline + bold + Math.round(outline / 2f);
+                    GlyphRaster gr = new GlyphRaster(this, getCurrentPage(), packX, packY,
+                            ctc.codePoint, path, xAdvance, 0);
+                    gr.setLastUsed(frame);
+                    cache.put(ctc.codePoint, gr);
+                    
+                    added.add(gr);
+                    it.remove();
+                } else {
+                    backLog.put(ctc.codePoint, path);
+                }
+            }
+            
+            if (!characters.isEmpty()) {
+                if (atlasWidth + resizeWidth > maxTexRes
+                        && atlasHeight + charHeight > maxTexRes) {
+                    if (canAddPage()) {
+                        commitAtlas(added);
+                        added.clear();
+                        newAtlasPage();
+                        continue;
+                    }
+                    if (evictGlyphs(added)) {
+                        continue;
+                    }
+                    
+                    for (Iterator<CharToCreate> it = characters.iterator(); it.hasNext();) {
+                        it.next().codePoint = defaultCodePoint;
+                        it.remove();
+                    }
+                    break;
+                } else {
+                    resizeAtlas();
+                }
+            }
+        } while (!characters.isEmpty());
+        
+        commitAtlas(added);
+    }
+    
+    /**
+     * Computes a character's metrics from the bounding box in the glyph's
+     * header rather than from its outline.
+     * 
+     * @param codePoint The code point of the character.
+     * @return The metrics of the character.
+     */
+    @Override
+    protected GlyphMetrics createGlyphMetrics(int codePoint) {
+        int gid = getGlyphID(codePoint);
+        float minX = tables.getXMin(gid) * pointScale;
+        float minY = tables.getYMin(gid) * pointScale;
+        float maxX = tables.getXMax(gid) * pointScale;
+        float maxY = tables.getYMax(gid) * pointScale;
+        if (italic != 0) {
+            float bottom = (minY / italicRef) * italic;
+            float top = (maxY / italicRef) * italic;
+            minX += Math.min(bottom, top);
+            maxX += Math.max(bottom, top);
+        }
+        
+        int xAdvance = Math.round((tables.getAdvanceWidth(gid) * pointScale) + outline + bold
+                + Math.round(outline / 2f));
+        if (codePoint == ' ') {
+            return new GlyphMetrics(codePoint, 1, 0, 0, xAdvance, xAdvance);
+        }
+        
+        return new GlyphMetrics(codePoint, (int)Math.ceil(maxY + outline + (bold / 2f)),
+                (int)Math.floor(minY - ((outline + bold) / 2f)),
+                (int)Math.floor(minX - ((outline + bold) / 2f)),
+                (int)Math.ceil(maxX + outline + (bold / 2f)), xAdvance);
+    }
+    
+    /**
+     * Re-draws the current atlas page. The existing image buffer is cleared
+     * and re-used when the dimensions of the atlas have not changed.
+     */
+    @Override
+    protected void createAtlas() {
+        Image image = (atlas != null) ? atlas.getImage() : null;
+        boolean reuse = image != null && image.getWidth() == atlasWidth
+                && image.getHeight() == atlasHeight && image.getFormat() == getAtlasFormat();
+        ByteBuffer buf;
+        if (reuse) {
+            buf = image.getData(0);
+            clearBuffer(buf, 0, buf.capacity());
+        } else {
+            buf = BufferUtils.createByteBuffer(atlasWidth * atlasHeight * getAtlasBytesPerPixel());
+        }
+        int page = getCurrentPage();
+        for (GlyphRaster glyph : cache.values()) {
+            if (glyph.page == page) {
+                drawGlyph(glyph, buf);
+            }
+        }
+        
+        if (reuse) {
+            image.setUpdateNeeded();
+        } else if (atlas != null) {
+            atlas.getImage().dispose();
+            if (!NativeObjectManager.UNSAFE) {
+                for (ByteBuffer b : atlas.getImage().getData()) {
+                    BufferUtils.destroyDirectBuffer(b);
+                }
+            }
+            atlas.setImage(new Image(getAtlasFormat(), atlasWidth, atlasHeight, buf, null,
+                    getAtlasColorSpace()));
+        } else {
+            atlas = new Texture2D(new Image(getAtlasFormat(), atlasWidth, atlasHeight, buf, null,
+                    getAtlasColorSpace()));
+        }
+        
+        atlasResized = false;
+    }
+    
+    @Override
+    protected void createAtlasOutlined() {
+        createAtlas();
+    }
+    
+    @Override
+    protected void updateAtlas(List<GlyphRaster> newGlyphs) {
+        ByteBuffer buf = atlas.getImage().getData(0);
+        for (GlyphRaster glyph : newGlyphs) {
+            if (drawGlyph(glyph, buf)) {
+                addDirtyRegion(glyph.x, glyph.y, glyph.atlasWidth, glyph.atlasHeight);
+            }
+        }
+    }
+    
+    /**
+     * Rasterizes a character into its cell of the atlas buffer. Plain
+     * characters are drawn white on black, outlined characters store the
+     * outline in the red channel and the character's body in the blue
+     * channel matching the output of {@link TrueTypeSfntly}. Compact atlases
+     * store only the red channel, followed by the body for outlined fonts.
+     * 
+     * @param glyph The character to draw.
+     * @param buf The atlas buffer.
+     * @return True if anything was drawn.
+     */
+    private boolean drawGlyph(GlyphRaster glyph, ByteBuffer buf) {
+        if (glyph.codePoint == ' ') {
+            return false;
+        }
+        
+        int width = Math.min(glyph.atlasWidth, atlasWidth - glyph.x);
+        int height = Math.min(glyph.atlasHeight, atlasHeight - glyph.y);
+        GlyphPath contours = glyph.contours;
+        if (contours != null) {
+            glyph.contours = null;
+        } else {
+            contours = getContours(getGlyph(getGlyphID(glyph.codePoint)));
+        }
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        
+        float expand = bold / 2f;
+        float stroke = (outline + bold) / 2f;
+        rasterizer.rasterize(contours, (padding / 2) - glyph.getXOffset(),
+                (padding / 2) - glyph.getYOffset(), width, height,
+                Math.max(expand, outline > 0 ? stroke : 0) + 1);
+        
+        int bpp = getAtlasBytesPerPixel();
+        for (int y = 0; y < height; y++) {
+            int pos = (((glyph.y + y) * atlasWidth) + glyph.x) * bpp;
+            for (int x = 0; x < width; x++) {
+                float fill = rasterizer.getFill(x, y, expand);
+                if (outline > 0) {
+                    float line = rasterizer.getStroke(x, y, stroke);
+                    buf.put(pos++, (byte)Math.round((1 - ((1 - fill) * (1 - line))) * 255));
+                    if (bpp == 3) {
+                        buf.put(pos++, (byte)0);
+                    }
+                    buf.put(pos++, (byte)Math.round(fill * 255));
+                } else {
+                    byte c = (byte)Math.round(fill * 255);
+                    buf.put(pos++, c);
+                    if (bpp == 3) {
+                        buf.put(pos++, c);
+                        buf.put(pos++, c);
+                    }
+                }
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Converts a Q2.14 format two-byte byte array to floating point.
+     * 
+     * @param value 2-byte byte array.
+     * @return The value as a float.
+     */
+    private float f2dot14(byte[] value) {
+        return ByteBuffer.wrap(value).getShort() * (float)Math.pow(2, -14);
+    }
+    
+    /**
+     * Reads the transformation of a component of a composite glyph into
+     * the first four elements of the supplied matrix.
+     */
+    private void readTransform(CompositeGlyph g, int component, float[] matrix) {
+        int flags = g.flags(component);
+        if ((flags & CompositeGlyph.FLAG_WE_HAVE_A_SCALE)
+                == CompositeGlyph.FLAG_WE_HAVE_A_SCALE) {
+            matrix[0] = f2dot14(g.transformation(component));
+            matrix[3] = matrix[0];
+        } else if ((flags & CompositeGlyph.FLAG_WE_HAVE_AN_X_AND_Y_SCALE)
+                == CompositeGlyph.FLAG_WE_HAVE_AN_X_AND_Y_SCALE) {
+            byte[] transform = g.transformation(component);
+            matrix[0] = f2dot14(new byte[]{transform[0], transform[1]});
+            matrix[3] = f2dot14(new byte[]{transform[2], transform[3]});
+        } else if ((flags & CompositeGlyph.FLAG_WE_HAVE_A_TWO_BY_TWO)
+                == CompositeGlyph.FLAG_WE_HAVE_A_TWO_BY_TWO) {
+            byte[] transform = g.transformation(component);
+            matrix[0] = f2dot14(new byte[]{transform[0], transform[1]});
+            matrix[1] = f2dot14(new byte[]{transform[2], transform[3]});
+            matrix[2] = f2dot14(new byte[]{transform[4], transform[5]});
+            matrix[3] = f2dot14(new byte[]{transform[6], transform[7]});
+        }
+    }
+    
+    private GlyphPath getContours(Glyph glyf) {
+        GlyphPath path = new GlyphPath();
+        if (glyf == null) {
+            return path;
+        }
+        
+        if (glyf.glyphType() == Glyph.GlyphType.Composite) {
+            CompositeGlyph g = (CompositeGlyph)glyf;
+            float[] matrix = new float[6];
+            float[] lastMatrix = new float[6];
+            
+            for (int i = 0; i < g.numGlyphs(); i++) {
+                System.arraycopy(IDENTITY, 0, matrix, 0, 6);
+                readTransform(g, i, matrix);
+                
+                int flags = g.flags(i);
+                if ((flags & CompositeGlyph.FLAG_ARGS_ARE_XY_VALUES)
+                    == CompositeGlyph.FLAG_ARGS_ARE_XY_VALUES) {
+                    matrix[4] = (short)g.argument1(i);
+                    matrix[5] = (short)g.argument2(i);
+                } else if (i > 0 && (flags & CompositeGlyph.FLAG_ARG_1_AND_2_ARE_WORDS)
+                        == CompositeGlyph.FLAG_ARG_1_AND_2_ARE_WORDS) {
+                    int p1x = ankr.getAnchorX(g.glyphIndex(i - 1), g.argument1(i));
+                    int p1y = ankr.getAnchorY(g.glyphIndex(i - 1), g.argument1(i));
+                    int p2x = ankr.getAnchorX(g.glyphIndex(i), g.argument2(i));
+                    int p2y = ankr.getAnchorY(g.glyphIndex(i), g.argument2(i));
+                    
+                    float x = (p1x * lastMatrix[0]) + (p1y * lastMatrix[2]) + lastMatrix[4];
+                    float y = (p1x * lastMatrix[1]) + (p1y * lastMatrix[3]) + lastMatrix[5];
+                    
+                    float x2 = (p2x * matrix[0]) + (p2y * matrix[2]);
+                    float y2 = (p2x * matrix[1]) + (p2y * matrix[3]);
+                    
+                    matrix[4] = x - x2;
+                    matrix[5] = y - y2;
+                }
+                
+                getSimpleContours((SimpleGlyph)getGlyph(g.glyphIndex(i)), matrix, path);
+                System.arraycopy(matrix, 0, lastMatrix, 0, 6);
+            }
+            
+            return path;
+        }
+        
+        getSimpleContours((SimpleGlyph)glyf, IDENTITY, path);
+        
+        return path;
+    }
+    
+    private void getSimpleContours(SimpleGlyph glyf, float[] matrix, GlyphPath path) {
+        int numContours = glyf.numberOfContours();
+        for (int contour = 0; contour < numContours; contour++) {
+            int numPoints = glyf.numberOfPoints(contour);
+            
+            float ox = glyf.xCoordinate(contour, 0);
+            float last1Y = glyf.yCoordinate(contour, 0);
+            //Transform our points by the supplied matrix
+            float last1X = ((ox * matrix[0]) + (last1Y * matrix[2]) + matrix[4]) * pointScale;
+            last1Y = ((ox * matrix[1]) + (last1Y * matrix[3]) + matrix[5]) * pointScale;
+            
+            last1X += (last1Y / italicRef) * italic;
+            
+            float firstOnCurveX = last1X;
+            float firstOnCurveY = last1Y;
+            boolean last1OnCurve = glyf.onCurve(contour, 0);
+            if (last1OnCurve) {
+                path.moveTo(last1X, last1Y);
+            }
+
+            float firstX = last1X;
+            float firstY = last1Y;
+            boolean firstOnCurve = last1OnCurve;
+            
+            for (int point = 1; point < numPoints; point++) {
+                boolean onCurve = glyf.onCurve(contour, point);
+                ox = glyf.xCoordinate(contour, point);
+                float y = glyf.yCoordinate(contour, point);
+                //transform by the supplied matrix
+                float x = ((ox * matrix[0]) + (y * matrix[2]) + matrix[4]) * pointScale;
+                y = ((ox * matrix[1]) + (y * matrix[3]) + matrix[5]) * pointScale;
+                
+                x += (y / italicRef) * italic;
+                
+                if (!onCurve && !last1OnCurve) {
+                    if (point == 1) {
+                        last1X = x;
+                        last1Y = y;
+                        
+                        x = last1X + ((x - last1X) / 2f);
+                        y = last1Y + ((y - last1Y) / 2f);
+                        
+                        firstOnCurveX = x;
+                        firstOnCurveY = y;
+                        path.moveTo(x, y);
+                        
+                        last1OnCurve = false;
+                        
+                        continue;
+                    }
+                    x = last1X + ((x - last1X) / 2f);
+                    y = last1Y + ((y - last1Y) / 2f);
+                    
+                    onCurve = true;
+                    point--;
+                } else if (!last1OnCurve && point == 1) {
+                    firstOnCurveX = x;
+                    firstOnCurveY = y;
+                    path.moveTo(x, y);
+
+                    last1X = x;
+                    last1Y = y;
+                    last1OnCurve = true;
+                    
+                    continue;
+                }
+                
+                if (onCurve && !last1OnCurve) {
+                    path.quadTo(last1X, last1Y, x, y);
+                } else if (onCurve) {
+                    path.lineTo(x, y);
+                }
+
+                last1X = x;
+                last1Y = y;
+                last1OnCurve = onCurve;
+            }
+            
+            if (last1OnCurve) {
+                if (!firstOnCurve) {
+                    //The last point is on-curve, but the first point is not.
+                    //We create a Bézier curve between the last and second
+                    //points with the first point as the middle control.
+                    path.quadTo(firstX, firstY, firstOnCurveX, firstOnCurveY);
+                }
+            } else {
+                if (firstOnCurve) {
+                    //The first point is on-curve, but the last point
+                    //was not. We create a Bézier curve between the
+                    //second to last point and the first point with
+                    //the last point as the middle control.
+                    path.quadTo(last1X, last1Y, firstX, firstY);
+                } else {
+                    //The first and last contour points are both off-curve.
+                    //We add an on-curve point between them and create two
+                    //new quadratic Bézier curves.
+                    float x = last1X + ((firstX - last1X) / 2f);
+                    float y = last1Y + ((firstY - last1Y) / 2f);
+                    path.quadTo(last1X, last1Y, x, y);
+                    
+                    path.quadTo(firstX, firstY, firstOnCurveX, firstOnCurveY);
+                }
+            }
+            path.close();
+        }
+    }
+}
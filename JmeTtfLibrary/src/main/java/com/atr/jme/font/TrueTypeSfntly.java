@@ -19,24 +19,18 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.RectF;
+import com.atr.jme.font.glyph.GlyphMetrics;
 import com.atr.jme.font.glyph.GlyphSfntly;
 import com.atr.jme.font.sfntly.AnchorTable;
-import com.atr.jme.font.util.AtlasListener;
+import com.atr.jme.font.util.AtlasPacker;
 import com.atr.jme.font.util.Glyf;
-import com.atr.jme.font.sfntly.NullAnchorTable;
+import com.atr.jme.font.sfntly.FontTables;
 import com.atr.jme.font.util.Style;
 import com.google.typography.font.sfntly.Font;
-import com.google.typography.font.sfntly.Tag;
-import com.google.typography.font.sfntly.table.Table;
-import com.google.typography.font.sfntly.table.core.CMap;
-import com.google.typography.font.sfntly.table.core.CMapTable;
 import com.google.typography.font.sfntly.table.core.FontHeaderTable;
 import com.google.typography.font.sfntly.table.core.HorizontalHeaderTable;
-import com.google.typography.font.sfntly.table.core.HorizontalMetricsTable;
 import com.google.typography.font.sfntly.table.truetype.CompositeGlyph;
 import com.google.typography.font.sfntly.table.truetype.Glyph;
-import com.google.typography.font.sfntly.table.truetype.GlyphTable;
-import com.google.typography.font.sfntly.table.truetype.LocaTable;
 import com.google.typography.font.sfntly.table.truetype.SimpleGlyph;
 import com.jme3.asset.AssetManager;
 import com.jme3.texture.Image;
@@ -44,6 +38,7 @@ import com.jme3.texture.Texture2D;
 import com.jme3.util.BufferUtils;
 import com.jme3.util.NativeObjectManager;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -60,12 +55,9 @@ import java.util.Map;
  * @see TrueTypeFont
  */
 public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
+    private final FontTables tables;
     private final Font font;
     
-    private final CMap characterMap;
-    private final LocaTable loca;
-    private final GlyphTable glyphs;
-    private final HorizontalMetricsTable hmtx;
     private final AnchorTable ankr;
     
     private final float pointScale;
@@ -74,28 +66,48 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
     private float italicRef;
     public final int bold;
     
+    private int[] rowPixels = new int[0];
+    private byte[] rowBytes = new byte[0];
+    
     public TrueTypeSfntly(AssetManager assetManager, Font font, Style style,
             int pointSize, int outline, int screenDensity, int maxAtlasResolution,
             String preload, boolean fixedResolution) {
-        super(assetManager, style, pointSize, outline, screenDensity, maxAtlasResolution, fixedResolution);
-        
-        this.font = font;
-        
-        CMapTable cmapTable = font.getTable(Tag.cmap);
-        CMap cmap = cmapTable.cmap(Font.PlatformId.Windows.value(),
-                Font.WindowsEncodingId.UnicodeUCS4.value());
-        if (cmap == null) {
-            characterMap = cmapTable.cmap(Font.PlatformId.Windows.value(),
-                    Font.WindowsEncodingId.UnicodeUCS2.value());
-        } else {
-            characterMap = cmap;
-        }
+        this(assetManager, font, style, pointSize, outline, screenDensity, maxAtlasResolution,
+                preload, fixedResolution, false);
+    }
+    
+    public TrueTypeSfntly(AssetManager assetManager, Font font, Style style,
+            int pointSize, int outline, int screenDensity, int maxAtlasResolution,
+            String preload, boolean fixedResolution, boolean compactAtlas) {
+        this(assetManager, font, style, pointSize, outline, screenDensity, maxAtlasResolution,
+                preload, fixedResolution, compactAtlas, null);
+    }
+    
+    public TrueTypeSfntly(AssetManager assetManager, Font font, Style style,
+            int pointSize, int outline, int screenDensity, int maxAtlasResolution,
+            String preload, boolean fixedResolution, boolean compactAtlas, AtlasPacker packer) {
+        this(assetManager, new FontTables(font), style, pointSize, outline, screenDensity,
+                maxAtlasResolution, preload, fixedResolution, compactAtlas, packer);
+    }
+    
+    /**
+     * 
+     * @param tables The parsed tables of the font file, which may be shared
+     * with other fonts.
+     * 
+     * @see com.atr.jme.font.asset.FontRegistry
+     */
+    public TrueTypeSfntly(AssetManager assetManager, FontTables tables, Style style,
+            int pointSize, int outline, int screenDensity, int maxAtlasResolution,
+            String preload, boolean fixedResolution, boolean compactAtlas, AtlasPacker packer) {
+        super(assetManager, style, pointSize, outline, screenDensity, maxAtlasResolution,
+                fixedResolution, compactAtlas, packer);
         
-        loca = font.getTable(Tag.loca);
-        glyphs = font.getTable(Tag.glyf);
-        hmtx = font.getTable(Tag.hmtx);
+        this.tables = tables;
+        font = tables.getFont();
+        ankr = tables.getAnchorTable();
         
-        FontHeaderTable head = font.getTable(Tag.head);
+        FontHeaderTable head = tables.getHeader();
         int maxX = head.xMax();
         int minX = head.xMin();
         int maxY = head.yMax();
@@ -127,20 +139,13 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
         resizeWidth = (int)Math.ceil((maxX - minX) * pointScale) + padding + bold;
         charHeight = (int)Math.ceil((maxY - minY) * pointScale) + padding + bold;
         
-        HorizontalHeaderTable hhea = font.getTable(Tag.hhea);
+        HorizontalHeaderTable hhea = tables.getHorizontalHeader();
         ascender = Math.round(hhea.ascender() * pointScale) + outline + Math.round(bold / 2f);
         descender = Math.round(-hhea.descender() * pointScale) + Math.round((outline / 2f) + (bold / 2f));
         lineGap = Math.round(hhea.lineGap() * pointScale);
         
         lineHeight = ascender + descender + lineGap;
         
-        Table t = font.getTable(Tag.intValue(new byte[]{'a', 'n', 'k', 'r'}));
-        if (t != null) {
-            ankr = new AnchorTable(t);
-        } else {
-            ankr = new NullAnchorTable();
-        }
-        
         getGlyphs(new StringBuilder().appendCodePoint(defaultCodePoint).append(" ").append(preload));
     }
     
@@ -149,33 +154,97 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
     }
     
     /**
-     * Converts an Android Bitmap to a jME Image.
+     * 
+     * @return The parsed tables of the font file, shared with other fonts
+     * loaded from the same file.
+     * 
+     * @see com.atr.jme.font.asset.FontRegistry
+     */
+    public FontTables getFontTables() {
+        return tables;
+    }
+    
+    /**
+     * Converts an Android Bitmap to a jME Image and assigns it to the
+     * texture atlas. If the atlas already has an image of the same
+     * dimensions its buffer is re-used instead of allocating a new one.
      * 
      * @param bitmap The Android Bitmap to be converted, must be in
      * ARGB_8888 format.
-     * @return The converted Image.
      */
-    private Image droidBitmapToImage(Bitmap bitmap) {
-        ByteBuffer buf = BufferUtils.createByteBuffer(bitmap.getWidth() * bitmap.getHeight() * 3);
+    private void setAtlasImage(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
         
-        for (int y = 0; y < bitmap.getHeight(); y++){
-            for (int x = 0; x < bitmap.getWidth(); x++){
-
-                int rgb = bitmap.getPixel(x, y);
-                byte r = (byte) ((rgb & 0x00FF0000) >> 16);
-                byte g = (byte) ((rgb & 0x0000FF00) >> 8);
-                byte b = (byte) ((rgb & 0x000000FF));
-                buf.put(r).put(g).put(b);
+        if (atlas != null) {
+            Image image = atlas.getImage();
+            if (image.getWidth() == width && image.getHeight() == height) {
+                copyBitmapToBuffer(bitmap, image.getData(0), 0, 0, width);
+                image.setUpdateNeeded();
+                return;
             }
+            
+            image.dispose();
+            if (!NativeObjectManager.UNSAFE) {
+                for (ByteBuffer buf : image.getData()) {
+                    BufferUtils.destroyDirectBuffer(buf);
+                }
+            }
+        }
+        
+        ByteBuffer buf = BufferUtils.createByteBuffer(width * height * getAtlasBytesPerPixel());
+        copyBitmapToBuffer(bitmap, buf, 0, 0, width);
+        Image image = new Image(getAtlasFormat(), width, height, buf, null, getAtlasColorSpace());
+        if (atlas != null) {
+            atlas.setImage(image);
+        } else {
+            atlas = new Texture2D(image);
         }
-        buf.flip();
-        return new Image(Image.Format.RGB8, bitmap.getWidth(), bitmap.getHeight(), buf, null,
-                com.jme3.texture.image.ColorSpace.sRGB);
+    }
+    
+    /**
+     * Copies an Android Bitmap into a buffer in the format of the texture
+     * atlas one row at a time using {@code Bitmap.getPixels}, avoiding a call
+     * into native code for every pixel. Compact atlases only keep the red
+     * channel, and the blue channel for outlined fonts.
+     * 
+     * @param bitmap The Android Bitmap to copy, must be in ARGB_8888 format.
+     * @param buf The destination buffer.
+     * @param destX The x-axis location in the destination to copy to.
+     * @param destY The y-axis location in the destination to copy to.
+     * @param destWidth The width, in pixels, of the destination.
+     */
+    private void copyBitmapToBuffer(Bitmap bitmap, ByteBuffer buf, int destX, int destY,
+            int destWidth) {
+        int width = bitmap.getWidth();
+        int bpp = getAtlasBytesPerPixel();
+        if (rowPixels.length < width) {
+            rowPixels = new int[width];
+            rowBytes = new byte[width * 3];
+        }
+        
+        for (int y = 0; y < bitmap.getHeight(); y++) {
+            bitmap.getPixels(rowPixels, 0, width, 0, y, width, 1);
+            int i = 0;
+            for (int x = 0; x < width; x++) {
+                int rgb = rowPixels[x];
+                rowBytes[i++] = (byte) ((rgb & 0x00FF0000) >> 16);
+                if (bpp == 3) {
+                    rowBytes[i++] = (byte) ((rgb & 0x0000FF00) >> 8);
+                }
+                if (bpp > 1) {
+                    rowBytes[i++] = (byte) ((rgb & 0x000000FF));
+                }
+            }
+            buf.position((((destY + y) * destWidth) + destX) * bpp);
+            buf.put(rowBytes, 0, i);
+        }
+        buf.clear();
     }
     
     @Override
     public boolean canDisplay(int codePoint) {
-        return characterMap.glyphId(codePoint) != 0;
+        return tables.getGlyphID(codePoint) != 0;
     }
     
     /**
@@ -188,7 +257,7 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
      * @see #getGlyph(int)
      */
     public int getGlyphID(int codePoint) {
-        return characterMap.glyphId(codePoint);
+        return tables.getGlyphID(codePoint);
     }
     
     /**
@@ -201,7 +270,7 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
      * @see #getGlyphID(int)
      */
     public Glyph getGlyph(int glyphID) {
-        return glyphs.glyph(loca.glyphOffset(glyphID), loca.glyphLength(glyphID));
+        return tables.getGlyph(glyphID);
     }
     
     @Override
@@ -210,43 +279,50 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
             resizeAtlas();
         }
         
-        boolean added = false;
+        List<GlyphSfntly> added = new ArrayList<>();
         Map<Integer, Glyf> backLog = new HashMap<>();
         do {
-            int line = 0;
-            for (AtlasLine al : atlasLines) {
-                for (Iterator<CharToCreate> it = characters.iterator(); it.hasNext();) {
-                    CharToCreate ctc = it.next();
-                    if (cache.containsKey(ctc.codePoint)) {
-                        it.remove();
-                        continue;
-                    }
+            for (Iterator<CharToCreate> it = characters.iterator(); it.hasNext();) {
+                CharToCreate ctc = it.next();
+                if (cache.containsKey(ctc.codePoint)) {
+                    it.remove();
+                    continue;
+                }
+                
+                int gid = getGlyphID(ctc.codePoint);
+                Glyf glyf = backLog.get(ctc.codePoint);
+                if (glyf == null) {
+                    glyf = getContours(getGlyph(gid));
+                }
+                int w = (int)Math.ceil(glyf.maxX - glyf.minX) + padding + bold;
+                int h = (int)Math.ceil(glyf.getHeight()) + padding + bold;
+                if (pack(w, h)) {
+                    float xAdvance = (tables.getAdvanceWidth(gid) * pointScale) + outline + bold + Math.round(outline / 2f);
+                    GlyphSfntly gs = new GlyphSfntly(this, getCurrentPage(), packX, packY,
+                            ctc.codePoint, glyf, xAdvance, 0);
+                    gs.setLastUsed(frame);
+                    cache.put(ctc.codePoint, gs);
                     
-                    int gid = getGlyphID(ctc.codePoint);
-                    Glyf glyf = backLog.get(ctc.codePoint);
-                    if (glyf == null) {
-                        glyf = getContours(getGlyph(gid));
-                    }
-                    int w = (int)Math.ceil(glyf.maxX - glyf.minX) + padding + bold;
-                    if (al.canFit(w)) {
-                        float xAdvance = (hmtx.advanceWidth(gid) * pointScale) + outline + bold + Math.round(outline / 2f);
-                        GlyphSfntly gs = new GlyphSfntly(this, al.getX(), line * charHeight,
-                                ctc.codePoint, glyf, xAdvance, 0);
-                        cache.put(ctc.codePoint, gs);
-                        
-                        added = true;
-                        al.addChar(w);
-                        it.remove();
-                    } else {
-                        backLog.put(ctc.codePoint, glyf);
-                    }
+                    added.add(gs);
+                    it.remove();
+                } else {
+                    backLog.put(ctc.codePoint, glyf);
                 }
-                line++;
             }
             
             if (!characters.isEmpty()) {
                 if (atlasWidth + resizeWidth > maxTexRes
                         && atlasHeight + charHeight > maxTexRes) {
+                    if (canAddPage()) {
+                        commitAtlas(added);
+                        added.clear();
+                        newAtlasPage();
+                        continue;
+                    }
+                    if (evictGlyphs(added)) {
+                        continue;
+                    }
+                    
                     for (Iterator<CharToCreate> it = characters.iterator(); it.hasNext();) {
                         it.next().codePoint = defaultCodePoint;
                         it.remove();
@@ -258,21 +334,40 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
             }
         } while (!characters.isEmpty());
         
-        if (atlasResized || added) {
-            int oldWidth = (atlas != null) ? atlas.getImage().getWidth() : 0;
-            int oldHeight = (atlas != null) ? atlas.getImage().getHeight() : 0;
-            
-            if (outline > 0) {
-                createAtlasOutlined();
-            } else {
-                createAtlas();
-            }
-            
-            for (AtlasListener listener : onAtlas) {
-                listener.mod(assetManager, oldWidth, oldHeight, atlasWidth,
-                        atlasHeight, this);
-            }
+        commitAtlas(added);
+    }
+    
+    /**
+     * Computes a character's metrics from the bounding box in the glyph's
+     * header rather than from its outline.
+     * 
+     * @param codePoint The code point of the character.
+     * @return The metrics of the character.
+     */
+    @Override
+    protected GlyphMetrics createGlyphMetrics(int codePoint) {
+        int gid = getGlyphID(codePoint);
+        float minX = tables.getXMin(gid) * pointScale;
+        float minY = tables.getYMin(gid) * pointScale;
+        float maxX = tables.getXMax(gid) * pointScale;
+        float maxY = tables.getYMax(gid) * pointScale;
+        if (italic != 0) {
+            float bottom = (minY / italicRef) * italic;
+            float top = (maxY / italicRef) * italic;
+            minX += Math.min(bottom, top);
+            maxX += Math.max(bottom, top);
+        }
+        
+        int xAdvance = Math.round((tables.getAdvanceWidth(gid) * pointScale) + outline + bold
+                + Math.round(outline / 2f));
+        if (codePoint == ' ') {
+            return new GlyphMetrics(codePoint, 1, 0, 0, xAdvance, xAdvance);
         }
+        
+        return new GlyphMetrics(codePoint, (int)Math.ceil(maxY + outline + (bold / 2f)),
+                (int)Math.floor(minY - ((outline + bold) / 2f)),
+                (int)Math.floor(minX - ((outline + bold) / 2f)),
+                (int)Math.ceil(maxX + outline + (bold / 2f)), xAdvance);
     }
     
     @Override
@@ -291,8 +386,9 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
             paint.setStyle(Paint.Style.FILL);
         }
         
+        int page = getCurrentPage();
         for (GlyphSfntly glyph : cache.values()) {
-            if (glyph.codePoint == ' ') {
+            if (glyph.codePoint == ' ' || glyph.page != page) {
                 continue;
             }
             
@@ -308,17 +404,7 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
             canvas.translate(-x, -y);
         }
         
-        if (atlas != null) {
-            atlas.getImage().dispose();
-            if (!NativeObjectManager.UNSAFE) {
-                for (ByteBuffer buf : atlas.getImage().getData()) {
-                    BufferUtils.destroyDirectBuffer(buf);
-                }
-            }
-            atlas.setImage(droidBitmapToImage(bitmap));
-        } else {
-            atlas = new Texture2D(droidBitmapToImage(bitmap));
-        }
+        setAtlasImage(bitmap);
 
         bitmap.recycle();
         
@@ -334,8 +420,9 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
         paint.setStrokeCap(Paint.Cap.BUTT);
         paint.setStrokeJoin(Paint.Join.ROUND);
         
+        int page = getCurrentPage();
         for (GlyphSfntly glyph : cache.values()) {
-            if (glyph.codePoint == ' ') {
+            if (glyph.codePoint == ' ' || glyph.page != page) {
                 continue;
             }
             paint.setARGB(255, 255, 0, 0);
@@ -367,23 +454,69 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
             canvas.translate(-x, -y);
         }
 
-        if (atlas != null) {
-            atlas.getImage().dispose();
-            if (!NativeObjectManager.UNSAFE) {
-                for (ByteBuffer buf : atlas.getImage().getData()) {
-                    BufferUtils.destroyDirectBuffer(buf);
-                }
-            }
-            atlas.setImage(droidBitmapToImage(bitmap));
-        } else {
-            atlas = new Texture2D(droidBitmapToImage(bitmap));
-        }
+        setAtlasImage(bitmap);
 
         bitmap.recycle();
         
         atlasResized = false;
     }
     
+    @Override
+    protected void updateAtlas(List<GlyphSfntly> newGlyphs) {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStrokeCap(Paint.Cap.BUTT);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        
+        ByteBuffer buf = atlas.getImage().getData(0);
+        for (GlyphSfntly glyph : newGlyphs) {
+            if (glyph.codePoint == ' ') {
+                continue;
+            }
+            
+            int width = Math.min(glyph.atlasWidth, atlasWidth - glyph.x);
+            int height = Math.min(glyph.atlasHeight, atlasHeight - glyph.y);
+            if (width <= 0 || height <= 0) {
+                glyph.contours = null;
+                continue;
+            }
+            
+            Path contours = glyph.contours;
+            if (contours != null) {
+                glyph.contours = null;
+            } else {
+                contours = getContours(getGlyph(getGlyphID(glyph.codePoint))).contours;
+            }
+            
+            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            canvas.drawRGB(0, 0, 0);
+            canvas.translate((padding / 2) - glyph.getXOffset(), (padding / 2) - glyph.getYOffset());
+            
+            if (outline > 0) {
+                paint.setARGB(255, 255, 0, 0);
+                paint.setStyle(Paint.Style.STROKE);
+                paint.setStrokeWidth(outline + bold);
+                canvas.drawPath(contours, paint);
+                paint.setARGB(255, 255, 0, 255);
+            } else {
+                paint.setARGB(255, 255, 255, 255);
+            }
+            
+            if (bold > 0) {
+                paint.setStyle(Paint.Style.FILL_AND_STROKE);
+                paint.setStrokeWidth(bold);
+            } else {
+                paint.setStyle(Paint.Style.FILL);
+            }
+            canvas.drawPath(contours, paint);
+            
+            copyBitmapToBuffer(bitmap, buf, glyph.x, glyph.y, atlasWidth);
+            bitmap.recycle();
+            
+            addDirtyRegion(glyph.x, glyph.y, width, height);
+        }
+    }
+    
     /**
      * Converts a Q2.14 format two-byte byte array to floating point.
      * 
@@ -472,14 +605,16 @@ public class TrueTypeSfntly extends TrueTypeBMP<GlyphSfntly> {
                     matrix[5] = (short)g.argument2(i);
                 } else if ((flags & CompositeGlyph.FLAG_ARG_1_AND_2_ARE_WORDS)
                         == CompositeGlyph.FLAG_ARG_1_AND_2_ARE_WORDS) {
-                    int[] p1 = ankr.getAnchor(g.glyphIndex(i - 1), g.argument1(i));
-                    int[] p2 = ankr.getAnchor(g.glyphIndex(i), g.argument2(i));
+                    int p1x = ankr.getAnchorX(g.glyphIndex(i - 1), g.argument1(i));
+                    int p1y = ankr.getAnchorY(g.glyphIndex(i - 1), g.argument1(i));
+                    int p2x = ankr.getAnchorX(g.glyphIndex(i), g.argument2(i));
+                    int p2y = ankr.getAnchorY(g.glyphIndex(i), g.argument2(i));
                     
-                    float x = (p1[0] * lastMatrix[0]) + (p1[1] * lastMatrix[2]) + lastMatrix[4];
-                    float y = (p1[0] * lastMatrix[1]) + (p1[1] * lastMatrix[3]) + lastMatrix[5];
+                    float x = (p1x * lastMatrix[0]) + (p1y * lastMatrix[2]) + lastMatrix[4];
+                    float y = (p1x * lastMatrix[1]) + (p1y * lastMatrix[3]) + lastMatrix[5];
                     
-                    float x2 = (p2[0] * matrix[0]) + (p2[1] * matrix[2]);
-                    float y2 = (p2[0] * matrix[1]) + (p2[1] * matrix[3]);
+                    float x2 = (p2x * matrix[0]) + (p2y * matrix[2]);
+                    float y2 = (p2x * matrix[1]) + (p2y * matrix[3]);
                     
                     matrix[4] = x - x2;
                     matrix[5] = y - y2;
@@ -0,0 +1,143 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.asset;
+
+import com.atr.jme.font.sfntly.FontTables;
+import com.google.typography.font.sfntly.Font;
+import com.google.typography.font.sfntly.FontFactory;
+import com.jme3.asset.AssetInfo;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * <p>Shares the parsed tables of TrueType font files between the fonts
+ * loaded from them. Loading the same .ttf asset at several sizes or styles
+ * parses the file once and every {@link com.atr.jme.font.TrueTypeFont}
+ * created from it uses the same {@link FontTables}.</p>
+ * 
+ * <p>Tables are held with weak references, they are released once no font
+ * using them is reachable and the file is parsed again the next time it is
+ * loaded.</p>
+ */
+public class FontRegistry {
+    private static final Map<String, WeakReference<FontTables>> fonts = new HashMap<>();
+    
+    private FontRegistry() {
+    }
+    
+    /**
+     * Gets the tables of the font file being loaded, parsing the file only if
+     * it isn't already in use.
+     * 
+     * @param assetInfo The font file being loaded.
+     * @return The font file's tables.
+     * @throws IOException If the file could not be read or contains no fonts.
+     */
+    public static FontTables get(AssetInfo assetInfo) throws IOException {
+        String name = assetInfo.getKey().getName();
+        synchronized (fonts) {
+            WeakReference<FontTables> ref = fonts.get(name);
+            FontTables tables = (ref != null) ? ref.get() : null;
+            if (tables != null) {
+                return tables;
+            }
+        }
+        
+        Font[] loaded;
+        try (InputStream in = assetInfo.openStream()) {
+            loaded = load(in);
+        }
+        if (loaded.length == 0) {
+            throw new IOException("No fonts found in: " + name);
+        }
+        FontTables tables = new FontTables(loaded[0]);
+        
+        synchronized (fonts) {
+            //another thread may have loaded the same file meanwhile
+            WeakReference<FontTables> ref = fonts.get(name);
+            FontTables existing = (ref != null) ? ref.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+            
+            for (Iterator<WeakReference<FontTables>> it = fonts.values().iterator(); it.hasNext();) {
+                if (it.next().get() == null) {
+                    it.remove();
+                }
+            }
+            fonts.put(name, new WeakReference<>(tables));
+        }
+        
+        return tables;
+    }
+    
+    /**
+     * Reads the fonts in a stream. Assets stored as local files are read
+     * into a single array of the file's size that sfntly slices its tables
+     * from, other streams are copied into sfntly table by table.
+     * 
+     * @param in The stream to read from.
+     * @return The fonts in the stream.
+     * @throws IOException If the stream could not be read.
+     */
+    private static Font[] load(InputStream in) throws IOException {
+        if (in instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream)in).getChannel();
+            long size = channel.size() - channel.position();
+            if (size <= Integer.MAX_VALUE) {
+                byte[] data = new byte[(int)size];
+                ByteBuffer buf = ByteBuffer.wrap(data);
+                while (buf.hasRemaining()) {
+                    if (channel.read(buf) < 0) {
+                        throw new EOFException();
+                    }
+                }
+                
+                return FontFactory.getInstance().loadFonts(data);
+            }
+        }
+        
+        return FontFactory.getInstance().loadFonts(in);
+    }
+    
+    /**
+     * Removes a font file from the registry. Fonts already using its tables
+     * keep them, the next font loaded from the file parses it again.
+     * 
+     * @param name The asset name of the font file.
+     */
+    public static void remove(String name) {
+        synchronized (fonts) {
+            fonts.remove(name);
+        }
+    }
+    
+    /**
+     * Removes all font files from the registry.
+     */
+    public static void clear() {
+        synchronized (fonts) {
+            fonts.clear();
+        }
+    }
+}
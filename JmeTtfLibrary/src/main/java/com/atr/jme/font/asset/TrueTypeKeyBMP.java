@@ -31,6 +31,10 @@ public class TrueTypeKeyBMP extends TrueTypeKey {
     private int outline;
     private int maxAtlasResolution = 2048;
     private boolean fixedResolution = false;
+    private boolean javaRasterizer = false;
+    private boolean compactAtlas = false;
+    private boolean skylinePacking = false;
+    private int maxAtlasPages = 1;
     /**
      * Instantiates a new {@code TrueTypeKeyBMP} with a default style
      * of Plain, no outline, a default screen density of 72 and default
@@ -253,6 +257,86 @@ public class TrueTypeKeyBMP extends TrueTypeKey {
     public boolean isFixedResolution() {
         return fixedResolution;
     }
+    
+    /**
+     * Sets whether the font should be rendered with the pure Java
+     * {@link com.atr.jme.font.TrueTypeRaster} instead of the
+     * {@code android.graphics} based {@link com.atr.jme.font.TrueTypeSfntly}.
+     * Use this on desktop or headless platforms. Default false.
+     * 
+     * @param javaRasterizer True to use the pure Java rasterizer.
+     */
+    public void setJavaRasterizer(boolean javaRasterizer) {
+        this.javaRasterizer = javaRasterizer;
+    }
+    
+    /**
+     * 
+     * @return true if the font is rendered with the pure Java rasterizer.
+     */
+    public boolean isJavaRasterizer() {
+        return javaRasterizer;
+    }
+    
+    /**
+     * Sets whether the texture atlas should be stored in a compact format.
+     * Plain fonts use one byte per pixel and outlined fonts two bytes per
+     * pixel instead of three. The atlas is stored as {@code Luminance8} or
+     * {@code Luminance8Alpha8} which are uploaded as single and two channel
+     * textures where supported. Default false.
+     * 
+     * @param compactAtlas True to use a compact atlas format.
+     */
+    public void setCompactAtlas(boolean compactAtlas) {
+        this.compactAtlas = compactAtlas;
+    }
+    
+    /**
+     * 
+     * @return true if the texture atlas is stored in a compact format.
+     */
+    public boolean isCompactAtlas() {
+        return compactAtlas;
+    }
+    
+    /**
+     * Sets whether characters should be packed into the texture atlas by
+     * their actual bounds using a {@link com.atr.jme.font.util.SkylinePacker}
+     * instead of in rows of uniform height. Default false.
+     * 
+     * @param skylinePacking True to use skyline packing.
+     */
+    public void setSkylinePacking(boolean skylinePacking) {
+        this.skylinePacking = skylinePacking;
+    }
+    
+    /**
+     * 
+     * @return true if characters are packed into the atlas using skyline packing.
+     */
+    public boolean isSkylinePacking() {
+        return skylinePacking;
+    }
+    
+    /**
+     * Sets the maximum number of texture atlas pages the font may use
+     * before falling back to the default character. Default 1.
+     * 
+     * @param maxAtlasPages The maximum number of atlas pages, at least 1.
+     * 
+     * @see com.atr.jme.font.TrueTypeBMP#setMaxAtlasPages(int) 
+     */
+    public void setMaxAtlasPages(int maxAtlasPages) {
+        this.maxAtlasPages = Math.max(maxAtlasPages, 1);
+    }
+    
+    /**
+     * 
+     * @return The maximum number of texture atlas pages.
+     */
+    public int getMaxAtlasPages() {
+        return maxAtlasPages;
+    }
 
     @Override
     public boolean equals(Object other) {
@@ -262,14 +346,22 @@ public class TrueTypeKeyBMP extends TrueTypeKey {
         }
         
         TrueTypeKeyBMP key = (TrueTypeKeyBMP)other;
-        return outline == key.getOutline();
+        return outline == key.getOutline()
+                && javaRasterizer == key.isJavaRasterizer()
+                && compactAtlas == key.isCompactAtlas()
+                && skylinePacking == key.isSkylinePacking()
+                && maxAtlasPages == key.getMaxAtlasPages();
     }
     
     @Override
     public String toString() {
         return super.toString() + "_Outline:" + Integer.toString(outline)
                 + "_MaxRes:" + Integer.toString(maxAtlasResolution)
-                + "_FixedRes:" + Boolean.toString(fixedResolution);
+                + "_FixedRes:" + Boolean.toString(fixedResolution)
+                + (javaRasterizer ? "_JavaRasterizer" : "")
+                + (compactAtlas ? "_CompactAtlas" : "")
+                + (skylinePacking ? "_Skyline" : "")
+                + (maxAtlasPages > 1 ? "_Pages:" + Integer.toString(maxAtlasPages) : "");
     }
     
     @Override
@@ -279,6 +371,10 @@ public class TrueTypeKeyBMP extends TrueTypeKey {
         oc.write(outline, "outline", 0);
         oc.write(maxAtlasResolution, "maxres", 2048);
         oc.write(fixedResolution, "fixedResolution", false);
+        oc.write(javaRasterizer, "javaRasterizer", false);
+        oc.write(compactAtlas, "compactAtlas", false);
+        oc.write(skylinePacking, "skylinePacking", false);
+        oc.write(maxAtlasPages, "maxAtlasPages", 1);
     }
     
     @Override
@@ -288,5 +384,9 @@ public class TrueTypeKeyBMP extends TrueTypeKey {
         outline = ic.readInt("outline", 0);
         maxAtlasResolution = ic.readInt("maxres", 2048);
         fixedResolution = ic.readBoolean("fixedResolution", false);
+        javaRasterizer = ic.readBoolean("javaRasterizer", false);
+        compactAtlas = ic.readBoolean("compactAtlas", false);
+        skylinePacking = ic.readBoolean("skylinePacking", false);
+        maxAtlasPages = ic.readInt("maxAtlasPages", 1);
     }
 }
@@ -15,6 +15,11 @@
 package com.atr.jme.font.asset;
 
 import com.atr.jme.font.util.Style;
+import com.jme3.export.InputCapsule;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.export.OutputCapsule;
+import java.io.IOException;
 
 /**
  * Used to load {@link com.atr.jme.font.TrueTypeMesh} fonts.
@@ -23,6 +28,7 @@ import com.atr.jme.font.util.Style;
  * <a href="http://1337atr.weebly.com">http://1337atr.weebly.com</a>
  */
 public class TrueTypeKeyMesh extends TrueTypeKey {
+    private String meshCache;
     
     /**
      * Instantiates a new {@code TrueTypeKeyMesh} with a default
@@ -107,6 +113,71 @@ public class TrueTypeKeyMesh extends TrueTypeKey {
      */
     public TrueTypeKeyMesh(String name, Style style, int pointSize, int dpi,
             boolean useWeakCache, String preload) {
+        this(name, style, pointSize, dpi, useWeakCache, preload, null);
+    }
+    
+    /**
+     * Instantiates a new {@code TrueTypeKeyMesh} that loads previously
+     * triangulated characters from a {@link com.atr.jme.font.shape.MeshGlyfCache}.
+     * 
+     * @param name The path to the true type font asset.
+     * @param style The {@link Style} of the font.
+     * @param pointSize The desired point size.
+     * @param dpi The density of the screen in dots per inch.
+     * @param useWeakCache Set to true to use weak references in
+     * the cache, this will cause the loaded font to be cleaned up
+     * by the garbage collector if memory becomes scarce, the font
+     * will be re-loaded when needed in this case. Set to false
+     * to use strong references in the cache preventing the
+     * garbage collector from reclaiming this font.
+     * @param preload A set of characters to initialize the font with.
+     * @param meshCache The path to the mesh cache asset or null. If the
+     * asset does not exist an empty cache is used.
+     * 
+     * @see TrueTypeLoaderMeshCache
+     */
+    public TrueTypeKeyMesh(String name, Style style, int pointSize, int dpi,
+            boolean useWeakCache, String preload, String meshCache) {
         super(name, style, pointSize, dpi, useWeakCache, preload);
+        this.meshCache = meshCache;
+    }
+    
+    /**
+     * 
+     * @return The path to the mesh cache asset or null if characters are
+     * always triangulated.
+     */
+    public String getMeshCache() {
+        return meshCache;
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TrueTypeKeyMesh) ||
+                !super.equals(other)) {
+            return false;
+        }
+        
+        String otherCache = ((TrueTypeKeyMesh)other).getMeshCache();
+        return (meshCache == null) ? otherCache == null : meshCache.equals(otherCache);
+    }
+    
+    @Override
+    public String toString() {
+        return super.toString() + (meshCache != null ? "_MeshCache:" + meshCache : "");
+    }
+    
+    @Override
+    public void write(JmeExporter ex) throws IOException {
+        super.write(ex);
+        OutputCapsule oc = ex.getCapsule(this);
+        oc.write(meshCache, "meshCache", null);
+    }
+    
+    @Override
+    public void read(JmeImporter im) throws IOException {
+        super.read(im);
+        InputCapsule ic = im.getCapsule(this);
+        meshCache = ic.readString("meshCache", null);
     }
 }
@@ -22,7 +22,9 @@ import java.io.IOException;
 /**
  * Loads a {@link TrueTypeFont} from a .ttf file stored on disk. If this was
  * accessed with a {@link TrueTypeKeyBMP} a {@link com.atr.jme.font.TrueTypeSfntly} will be
- * returned. If this was accessed with {@link TrueTypeKeyMesh} then
+ * returned, or a {@link com.atr.jme.font.TrueTypeRaster} if
+ * {@link TrueTypeKeyBMP#isJavaRasterizer()} is true. If this was accessed with
+ * {@link TrueTypeKeyMesh} then
  * {@link com.atr.jme.font.TrueTypeMesh} will be returned.
  * 
  * @see TrueTypeKey
@@ -39,6 +41,10 @@ public class TrueTypeLoader implements AssetLoader {
             return new TrueTypeLoaderMesh().load(assetInfo);
         }
         
+        if (((TrueTypeKeyBMP)assetInfo.getKey()).isJavaRasterizer()) {
+            return new TrueTypeLoaderRaster().load(assetInfo);
+        }
+        
         return new TrueTypeLoaderSfntly().load(assetInfo);
     }
 }
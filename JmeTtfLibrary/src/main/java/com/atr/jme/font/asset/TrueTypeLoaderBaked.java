@@ -0,0 +1,39 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.asset;
+
+import com.atr.jme.font.TrueTypeBaked;
+import com.jme3.asset.AssetInfo;
+import com.jme3.asset.AssetLoader;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads a {@link TrueTypeBaked} font written by
+ * {@link com.atr.jme.font.util.AtlasBaker}. Register this loader with the
+ * extension used for baked fonts, for example
+ * {@code assetManager.registerLoader(TrueTypeLoaderBaked.class, "ttfb")},
+ * and load the font with a plain {@code AssetKey}.
+ * 
+ * @see TrueTypeBaked
+ */
+public class TrueTypeLoaderBaked implements AssetLoader {
+    @Override
+    public TrueTypeBaked load(AssetInfo assetInfo) throws IOException {
+        try (InputStream in = assetInfo.openStream()) {
+            return TrueTypeBaked.read(assetInfo.getManager(), in);
+        }
+    }
+}
@@ -15,10 +15,13 @@
 package com.atr.jme.font.asset;
 
 import com.atr.jme.font.TrueTypeMesh;
-import com.google.typography.font.sfntly.Font;
-import com.google.typography.font.sfntly.FontFactory;
+import com.atr.jme.font.sfntly.FontTables;
+import com.atr.jme.font.shape.MeshGlyfCache;
 import com.jme3.asset.AssetInfo;
+import com.jme3.asset.AssetKey;
 import com.jme3.asset.AssetLoader;
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.AssetNotFoundException;
 import java.io.IOException;
 
 /**
@@ -35,14 +38,31 @@ public class TrueTypeLoaderMesh implements AssetLoader {
     public TrueTypeMesh load(AssetInfo assetInfo) throws IOException {
         TrueTypeKeyMesh key = (TrueTypeKeyMesh)assetInfo.getKey();
         
-        FontFactory fontFactory = FontFactory.getInstance();
-        Font[] fonts = fontFactory.loadFonts(assetInfo.openStream());
+        FontTables tables = FontRegistry.get(assetInfo);
         
-        if (fonts.length > 0) {
-            return new TrueTypeMesh(assetInfo.getManager(), fonts[0], key.getStyle(),
-                    key.getPointSize(), key.getScreenDensity(), key.getPreloadCharacters());
-        } else {
-            throw new IOException("No fonts found in: " + assetInfo.getKey().getName());
+        return new TrueTypeMesh(assetInfo.getManager(), tables, key.getStyle(),
+                key.getPointSize(), key.getScreenDensity(), key.getPreloadCharacters(),
+                loadMeshCache(assetInfo.getManager(), key.getMeshCache()));
+    }
+    
+    /**
+     * Loads the {@link MeshGlyfCache} named by a {@link TrueTypeKeyMesh}. If
+     * the cache has not been built yet an empty cache is returned, which can
+     * be saved once the application has created its characters.
+     * 
+     * @param assetManager
+     * @param name The asset path of the cache or null.
+     * @return The loaded cache, an empty cache or null if name is null.
+     */
+    private MeshGlyfCache loadMeshCache(AssetManager assetManager, String name) {
+        if (name == null) {
+            return null;
+        }
+        
+        try {
+            return assetManager.loadAsset(new AssetKey<MeshGlyfCache>(name));
+        } catch (AssetNotFoundException ex) {
+            return new MeshGlyfCache();
         }
     }
 }
@@ -0,0 +1,39 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.asset;
+
+import com.atr.jme.font.shape.MeshGlyfCache;
+import com.jme3.asset.AssetInfo;
+import com.jme3.asset.AssetLoader;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads a {@link MeshGlyfCache} written by
+ * {@link MeshGlyfCache#save(java.io.File)}. Register this loader with the
+ * extension used for cache files, for example
+ * {@code assetManager.registerLoader(TrueTypeLoaderMeshCache.class, "ttfmesh")},
+ * and supply the cache's asset path to a {@link TrueTypeKeyMesh}.
+ * 
+ * @see TrueTypeKeyMesh#getMeshCache() 
+ */
+public class TrueTypeLoaderMeshCache implements AssetLoader {
+    @Override
+    public MeshGlyfCache load(AssetInfo assetInfo) throws IOException {
+        try (InputStream in = assetInfo.openStream()) {
+            return MeshGlyfCache.load(in);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.asset;
+
+import com.atr.jme.font.TrueTypeRaster;
+import com.atr.jme.font.sfntly.FontTables;
+import com.atr.jme.font.util.SkylinePacker;
+import com.jme3.asset.AssetInfo;
+import com.jme3.asset.AssetLoader;
+import java.io.IOException;
+
+/**
+ * Loads a {@link TrueTypeRaster} from a .ttf file stored on disk.
+ * 
+ * @see TrueTypeKey
+ * @see com.atr.jme.font.TrueTypeFont
+ * 
+ * @author Adam T. Ryder
+ * <a href="http://1337atr.weebly.com">http://1337atr.weebly.com</a>
+ */
+public class TrueTypeLoaderRaster implements AssetLoader {
+    @Override
+    public TrueTypeRaster load(AssetInfo assetInfo) throws IOException {
+        TrueTypeKeyBMP key = (TrueTypeKeyBMP)assetInfo.getKey();
+        
+        FontTables tables = FontRegistry.get(assetInfo);
+        
+        //the page limit must be set before the preload characters are added
+        TrueTypeRaster ttf = new TrueTypeRaster(assetInfo.getManager(), tables, key.getStyle(),
+                key.getPointSize(), key.getOutline(), key.getScreenDensity(),
+                key.getMaxAtlasRes(), "", key.isFixedResolution(),
+                key.isCompactAtlas(), key.isSkylinePacking() ? new SkylinePacker() : null);
+        ttf.setMaxAtlasPages(key.getMaxAtlasPages());
+        if (key.getPreloadCharacters() != null && !key.getPreloadCharacters().isEmpty()) {
+            ttf.getGlyphs(key.getPreloadCharacters());
+        }
+        
+        return ttf;
+    }
+}
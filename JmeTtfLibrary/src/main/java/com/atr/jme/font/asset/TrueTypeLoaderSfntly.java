@@ -15,8 +15,8 @@
 package com.atr.jme.font.asset;
 
 import com.atr.jme.font.TrueTypeSfntly;
-import com.google.typography.font.sfntly.Font;
-import com.google.typography.font.sfntly.FontFactory;
+import com.atr.jme.font.sfntly.FontTables;
+import com.atr.jme.font.util.SkylinePacker;
 import com.jme3.asset.AssetInfo;
 import com.jme3.asset.AssetLoader;
 import java.io.IOException;
@@ -35,15 +35,18 @@ public class TrueTypeLoaderSfntly implements AssetLoader {
     public TrueTypeSfntly load(AssetInfo assetInfo) throws IOException {
         TrueTypeKeyBMP key = (TrueTypeKeyBMP)assetInfo.getKey();
         
-        FontFactory fontFactory = FontFactory.getInstance();
-        Font[] fonts = fontFactory.loadFonts(assetInfo.openStream());
+        FontTables tables = FontRegistry.get(assetInfo);
         
-        if (fonts.length > 0) {
-            return new TrueTypeSfntly(assetInfo.getManager(), fonts[0], key.getStyle(),
-                    key.getPointSize(), key.getOutline(), key.getScreenDensity(),
-                    key.getMaxAtlasRes(), key.getPreloadCharacters(), key.isFixedResolution());
-        } else {
-            throw new IOException("No fonts found in: " + assetInfo.getKey().getName());
+        //the page limit must be set before the preload characters are added
+        TrueTypeSfntly ttf = new TrueTypeSfntly(assetInfo.getManager(), tables, key.getStyle(),
+                key.getPointSize(), key.getOutline(), key.getScreenDensity(),
+                key.getMaxAtlasRes(), "", key.isFixedResolution(),
+                key.isCompactAtlas(), key.isSkylinePacking() ? new SkylinePacker() : null);
+        ttf.setMaxAtlasPages(key.getMaxAtlasPages());
+        if (key.getPreloadCharacters() != null && !key.getPreloadCharacters().isEmpty()) {
+            ttf.getGlyphs(key.getPreloadCharacters());
         }
+        
+        return ttf;
     }
 }
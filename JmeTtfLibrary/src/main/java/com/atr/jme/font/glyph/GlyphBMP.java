@@ -26,6 +26,12 @@ public abstract class GlyphBMP extends Glyph {
     @SuppressWarnings("rawtypes")
     public final TrueTypeBMP ttb;
     
+    /**
+     * The index of the texture atlas page this character is stored in.
+     * 
+     * @see TrueTypeBMP#getAtlas(int)
+     */
+    public final int page;
     public final int x;
     public final int y;
     public final int atlasWidth;
@@ -34,11 +40,19 @@ public abstract class GlyphBMP extends Glyph {
     protected int hMod;
     protected int xMod;
     
+    private volatile int lastUsed;
+    
     public GlyphBMP(TrueTypeBMP ttb,
             int codePoint, int x, int y, int atlasWidth, int atlasHeight) {
+        this(ttb, codePoint, 0, x, y, atlasWidth, atlasHeight);
+    }
+    
+    public GlyphBMP(TrueTypeBMP ttb, int codePoint, int page,
+            int x, int y, int atlasWidth, int atlasHeight) {
         super(codePoint);
         
         this.ttb = ttb;
+        this.page = page;
         this.x = x;
         this.y = y;
         if (codePoint == ' ') {
@@ -50,6 +64,28 @@ public abstract class GlyphBMP extends Glyph {
         }
     }
     
+    /**
+     * For internal use only. Records the frame in which this character
+     * was last requested.
+     * 
+     * @param frame The current frame.
+     * 
+     * @see TrueTypeBMP#setGlyphEviction(boolean) 
+     */
+    public void setLastUsed(int frame) {
+        lastUsed = frame;
+    }
+    
+    /**
+     * 
+     * @return The frame in which this character was last requested.
+     * 
+     * @see TrueTypeBMP#setGlyphEviction(boolean) 
+     */
+    public int getLastUsed() {
+        return lastUsed;
+    }
+    
     /**
      * 
      * @return The Y offset of the character in the atlas from its intended
@@ -75,7 +111,7 @@ public abstract class GlyphBMP extends Glyph {
      * @return The left x UV coordinate of this character in the texture atlas.
      */
     public float getLeftU() {
-        return (float)x / ttb.getAtlas().getImage().getWidth();
+        return (float)x / ttb.getAtlas(page).getImage().getWidth();
     }
     
     /**
@@ -83,7 +119,7 @@ public abstract class GlyphBMP extends Glyph {
      * @return The right x UV coordinate of this character in the texture atlas.
      */
     public float getRightU() {
-        return (float)(x + atlasWidth) / ttb.getAtlas().getImage().getWidth();
+        return (float)(x + atlasWidth) / ttb.getAtlas(page).getImage().getWidth();
     }
     
     /**
@@ -91,7 +127,7 @@ public abstract class GlyphBMP extends Glyph {
      * @return The bottom y UV coordinate of this character in the texture atlas.
      */
     public float getBottomV() {
-        return (float)y / ttb.getAtlas().getImage().getHeight();
+        return (float)y / ttb.getAtlas(page).getImage().getHeight();
     }
     
     /**
@@ -99,6 +135,6 @@ public abstract class GlyphBMP extends Glyph {
      * @return The top y UV coordinate of this character in the texture atlas.
      */
     public float getTopV() {
-        return (float)(y + atlasHeight) / ttb.getAtlas().getImage().getHeight();
+        return (float)(y + atlasHeight) / ttb.getAtlas(page).getImage().getHeight();
     }
 }
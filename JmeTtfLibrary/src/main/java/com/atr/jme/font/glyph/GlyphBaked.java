@@ -0,0 +1,55 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.glyph;
+
+import com.atr.jme.font.TrueTypeBaked;
+
+/**
+ * Represents a character glyph stored in a pre-baked texture atlas. All
+ * metrics are read from the baked file, no font data is needed.
+ * 
+ * @see TrueTypeBaked
+ */
+public class GlyphBaked extends GlyphBMP {
+    
+    /**
+     * 
+     * @param ttb The font this character belongs to.
+     * @param codePoint The Unicode code point of the character.
+     * @param page The atlas page the character is stored in.
+     * @param x The left edge of the character in the atlas.
+     * @param y The bottom edge of the character in the atlas.
+     * @param atlasWidth The width of the character in the atlas.
+     * @param atlasHeight The height of the character in the atlas.
+     * @param metrics The x offset, y offset, ascender, descender, left,
+     * right, x advance and y advance of the character.
+     * 
+     * @see GlyphBMP#getXOffset() 
+     * @see GlyphBMP#getYOffset() 
+     */
+    public GlyphBaked(TrueTypeBaked ttb, int codePoint, int page, int x, int y,
+            int atlasWidth, int atlasHeight, int[] metrics) {
+        super(ttb, codePoint, page, x, y, atlasWidth, atlasHeight);
+        
+        xMod = metrics[0];
+        hMod = metrics[1];
+        ascender = metrics[2];
+        descender = metrics[3];
+        left = metrics[4];
+        right = metrics[5];
+        xAdvance = metrics[6];
+        yAdvance = metrics[7];
+    }
+}
@@ -24,12 +24,32 @@ import com.atr.jme.font.shape.MeshGlyf;
  */
 public class GlyphMesh extends Glyph {
     private final MeshGlyf mesh;
+    private final boolean placeholder;
     
     public GlyphMesh(int codePoint, MeshGlyf mesh, float xAdvance,
             float yAdvance) {
+        this(codePoint, mesh, xAdvance, yAdvance, false);
+    }
+    
+    /**
+     * Creates a placeholder for a character that is still being triangulated.
+     * The placeholder is displayed using the supplied glyph's mesh and metrics.
+     * 
+     * @param codePoint The code point of the character being triangulated.
+     * @param glyph The glyph to display in place of the character.
+     * 
+     * @see com.atr.jme.font.TrueTypeMesh#setTriangulationExecutor(java.util.concurrent.Executor) 
+     */
+    public GlyphMesh(int codePoint, GlyphMesh glyph) {
+        this(codePoint, glyph.getMesh(), glyph.getXAdvance(), glyph.getYAdvance(), true);
+    }
+    
+    private GlyphMesh(int codePoint, MeshGlyf mesh, float xAdvance,
+            float yAdvance, boolean placeholder) {
         super(codePoint);
         
         this.mesh = mesh;
+        this.placeholder = placeholder;
         ascender = (int)Math.ceil(mesh.getMaxY());
         descender = (int)Math.floor(mesh.getMinY());
         left = (int)Math.floor(mesh.getMinX());
@@ -41,4 +61,13 @@ public class GlyphMesh extends Glyph {
     public MeshGlyf getMesh() {
         return mesh;
     }
+    
+    /**
+     * 
+     * @return True if this glyph is a placeholder for a character that is
+     * still being triangulated.
+     */
+    public boolean isPlaceholder() {
+        return placeholder;
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.glyph;
+
+/**
+ * The metrics of a character glyph computed from the font's tables without
+ * creating the glyph's mesh or adding it to a texture atlas. These are used
+ * to measure text that may never be displayed.
+ * 
+ * @see com.atr.jme.font.TrueTypeFont#getGlyphMetrics(java.lang.String) 
+ */
+public class GlyphMetrics extends Glyph {
+    public GlyphMetrics(int codePoint, int ascender, int descender, int left,
+            int right, int xAdvance) {
+        super(codePoint);
+        
+        this.ascender = ascender;
+        this.descender = descender;
+        this.left = left;
+        this.right = right;
+        this.xAdvance = xAdvance;
+    }
+    
+    /**
+     * Copies the metrics of an existing glyph.
+     * 
+     * @param glyph The glyph whose metrics will be copied.
+     */
+    public GlyphMetrics(Glyph glyph) {
+        this(glyph.codePoint, glyph.getAscender(), glyph.getDescender(), glyph.getLeft(),
+                glyph.getRight(), glyph.getXAdvance());
+        yAdvance = glyph.getYAdvance();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.glyph;
+
+import com.atr.jme.font.TrueTypeRaster;
+import com.atr.jme.font.util.GlyphPath;
+
+/**
+ * Represents a character glyph rendered using a bitmap created by the
+ * pure Java {@link com.atr.jme.font.util.Rasterizer}. Can be used on any
+ * platform.
+ * 
+ * @see TrueTypeRaster
+ */
+public class GlyphRaster extends GlyphBMP {
+    public GlyphPath contours;
+    
+    public GlyphRaster(TrueTypeRaster ttb, int page, int x, int y, int codePoint, GlyphPath path,
+            float xAdvance, float yAdvance) {
+        super(ttb, codePoint, page, x, y,
+                (int)Math.ceil(path.getWidth()) + ttb.padding + ttb.bold,
+                (int)Math.ceil(path.getHeight()) + ttb.padding + ttb.bold);
+        
+        this.xAdvance = Math.round(xAdvance);
+        this.yAdvance = Math.round(yAdvance);
+        
+        if (codePoint == ' ') {
+            hMod = 0;
+            xMod = 0;
+            ascender = 1;
+            descender = 0;
+            left = 0;
+            right = this.xAdvance;
+            contours = null;
+        } else {
+            hMod = (int)Math.ceil(path.getMinY() - (ttb.bold / 2f));
+            xMod = (int)Math.ceil(path.getMinX() - (ttb.bold / 2f));
+
+            ascender = (int)Math.ceil(path.getMaxY() + ttb.outline + (ttb.bold / 2f));
+            descender = (int)Math.floor(path.getMinY() - ((ttb.outline + ttb.bold) / 2f));
+            left = (int)Math.floor(path.getMinX() - ((ttb.outline + ttb.bold) / 2f));
+            right = (int)Math.ceil(path.getMaxX() + ttb.outline + (ttb.bold / 2f));
+
+            contours = path;
+        }
+    }
+    
+    /**
+     * For internal use only. Should return null.
+     * 
+     * @return The glyph's outline.
+     */
+    public GlyphPath getOutline() {
+        return contours;
+    }
+}
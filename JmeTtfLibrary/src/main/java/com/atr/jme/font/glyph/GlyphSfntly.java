@@ -30,7 +30,12 @@ public class GlyphSfntly extends GlyphBMP {
     
     public GlyphSfntly(TrueTypeSfntly ttb, int x, int y, int codePoint, Glyf glyf,
             float xAdvance, float yAdvance) {
-        super(ttb, codePoint, x, y,
+        this(ttb, 0, x, y, codePoint, glyf, xAdvance, yAdvance);
+    }
+    
+    public GlyphSfntly(TrueTypeSfntly ttb, int page, int x, int y, int codePoint, Glyf glyf,
+            float xAdvance, float yAdvance) {
+        super(ttb, codePoint, page, x, y,
                 (int)Math.ceil(glyf.maxX - glyf.minX) + ttb.padding + ttb.bold,
                 (int)Math.ceil(glyf.getHeight()) + ttb.padding + ttb.bold);
         
@@ -23,6 +23,13 @@ public class AnchorTable extends Table {
     public final int lookupOffset;
     public final int glyphDataOffset;
     
+    /*
+     * The anchors of glyph n are stored as x/y-axis pairs in anchorPoints
+     * starting at anchorStart[n] * 2 and ending at anchorStart[n + 1] * 2.
+     */
+    private final int[] anchorStart;
+    private final int[] anchorPoints;
+    
     public AnchorTable(Table table) {
         this(table.header(), table.readFontData());
     }
@@ -41,6 +48,66 @@ public class AnchorTable extends Table {
             lookupOffset = 0;
             glyphDataOffset = 0;
         }
+        
+        if (header != null && data != null && glyphDataOffset >= lookupOffset) {
+            int numGlyphs = (glyphDataOffset - lookupOffset) / 2;
+            anchorStart = new int[numGlyphs + 1];
+            for (int i = 0; i < numGlyphs; i++) {
+                anchorStart[i + 1] = anchorStart[i] + getNumAnchors(i);
+            }
+            
+            anchorPoints = new int[anchorStart[numGlyphs] * 2];
+            for (int i = 0; i < numGlyphs; i++) {
+                if (anchorStart[i + 1] > anchorStart[i]) {
+                    int[] points = getAnchors(i);
+                    System.arraycopy(points, 0, anchorPoints, anchorStart[i] * 2, points.length);
+                }
+            }
+        } else {
+            anchorStart = new int[1];
+            anchorPoints = new int[0];
+        }
+    }
+    
+    /**
+     * Gets the x-axis value of an anchor point without reading the table
+     * or allocating an array.
+     * 
+     * @param glyphId The glyph id to lookup.
+     * @param pointNumber The anchor point number for the glyph.
+     * @return The x-axis value of the point or 0 if the glyph does not
+     * contain the requested point.
+     * 
+     * @see #getAnchor(int, int) 
+     */
+    public int getAnchorX(int glyphId, int pointNumber) {
+        int index = anchorIndex(glyphId, pointNumber);
+        return (index < 0) ? 0 : anchorPoints[index];
+    }
+    
+    /**
+     * Gets the y-axis value of an anchor point without reading the table
+     * or allocating an array.
+     * 
+     * @param glyphId The glyph id to lookup.
+     * @param pointNumber The anchor point number for the glyph.
+     * @return The y-axis value of the point or 0 if the glyph does not
+     * contain the requested point.
+     * 
+     * @see #getAnchor(int, int) 
+     */
+    public int getAnchorY(int glyphId, int pointNumber) {
+        int index = anchorIndex(glyphId, pointNumber);
+        return (index < 0) ? 0 : anchorPoints[index + 1];
+    }
+    
+    private int anchorIndex(int glyphId, int pointNumber) {
+        if (glyphId < 0 || pointNumber < 0 || glyphId >= anchorStart.length - 1) {
+            return -1;
+        }
+        
+        int point = anchorStart[glyphId] + pointNumber;
+        return (point < anchorStart[glyphId + 1]) ? point * 2 : -1;
     }
     
     /**
@@ -0,0 +1,281 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.sfntly;
+
+import com.google.typography.font.sfntly.Font;
+import com.google.typography.font.sfntly.Tag;
+import com.google.typography.font.sfntly.data.ReadableFontData;
+import com.google.typography.font.sfntly.table.Table;
+import com.google.typography.font.sfntly.table.core.CMap;
+import com.google.typography.font.sfntly.table.core.CMapTable;
+import com.google.typography.font.sfntly.table.core.FontHeaderTable;
+import com.google.typography.font.sfntly.table.core.HorizontalHeaderTable;
+import com.google.typography.font.sfntly.table.core.HorizontalMetricsTable;
+import com.google.typography.font.sfntly.table.truetype.Glyph;
+import com.google.typography.font.sfntly.table.truetype.GlyphTable;
+import com.google.typography.font.sfntly.table.truetype.LocaTable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The tables of a TrueType font file used to create characters. The tables
+ * are only read from so a single {@code FontTables} can be shared by any
+ * number of {@link com.atr.jme.font.TrueTypeFont}s of different sizes and
+ * styles.
+ * 
+ * <p>The tables looked up for every character, 'cmap', 'hmtx' and 'loca',
+ * are also decoded into primitive arrays so that the hot paths avoid
+ * walking sfntly's table structures. Advances, glyph locations and the
+ * bounding boxes from the glyph headers are decoded once when the
+ * {@code FontTables} is created. The character map
+ * is decoded lazily into pages of 256 code points as each page is first
+ * used.</p>
+ * 
+ * @see com.atr.jme.font.asset.FontRegistry
+ */
+public class FontTables {
+    private final Font font;
+    
+    private final CMap characterMap;
+    private final LocaTable loca;
+    private final GlyphTable glyphs;
+    private final HorizontalMetricsTable hmtx;
+    private final FontHeaderTable head;
+    private final HorizontalHeaderTable hhea;
+    private final AnchorTable ankr;
+    
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int MAX_CODEPOINT = 0x10FFFF;
+    
+    private final AtomicReferenceArray<int[]> cmapPages
+            = new AtomicReferenceArray<int[]>((MAX_CODEPOINT >> PAGE_SHIFT) + 1);
+    private final int[] advances;
+    private final int[] locations;
+    private final short[] bounds;
+    
+    public FontTables(Font font) {
+        this.font = font;
+        
+        CMapTable cmapTable = font.getTable(Tag.cmap);
+        CMap cmap = cmapTable.cmap(Font.PlatformId.Windows.value(),
+                Font.WindowsEncodingId.UnicodeUCS4.value());
+        if (cmap == null) {
+            characterMap = cmapTable.cmap(Font.PlatformId.Windows.value(),
+                    Font.WindowsEncodingId.UnicodeUCS2.value());
+        } else {
+            characterMap = cmap;
+        }
+        
+        loca = font.getTable(Tag.loca);
+        glyphs = font.getTable(Tag.glyf);
+        hmtx = font.getTable(Tag.hmtx);
+        head = font.getTable(Tag.head);
+        hhea = font.getTable(Tag.hhea);
+        
+        Table t = font.getTable(Tag.intValue(new byte[]{'a', 'n', 'k', 'r'}));
+        if (t != null) {
+            ankr = new AnchorTable(t);
+        } else {
+            ankr = new NullAnchorTable();
+        }
+        
+        int numGlyphs = loca.numGlyphs();
+        advances = new int[numGlyphs];
+        locations = new int[numGlyphs + 1];
+        for (int i = 0; i < numGlyphs; i++) {
+            advances[i] = hmtx.advanceWidth(i);
+            locations[i] = loca.loca(i);
+        }
+        locations[numGlyphs] = loca.loca(numGlyphs);
+        
+        /*
+         * Each glyph begins with a header of numberOfContours, xMin, yMin,
+         * xMax and yMax as signed shorts. Empty glyphs have no header.
+         */
+        bounds = new short[numGlyphs * 4];
+        ReadableFontData data = glyphs.readFontData();
+        for (int i = 0; i < numGlyphs; i++) {
+            if (locations[i + 1] > locations[i]) {
+                for (int b = 0; b < 4; b++) {
+                    bounds[(i * 4) + b] = (short)data.readShort(locations[i] + ((b + 1) * 2));
+                }
+            }
+        }
+    }
+    
+    public Font getFont() {
+        return font;
+    }
+    
+    public CMap getCharacterMap() {
+        return characterMap;
+    }
+    
+    public LocaTable getLocaTable() {
+        return loca;
+    }
+    
+    public GlyphTable getGlyphTable() {
+        return glyphs;
+    }
+    
+    public HorizontalMetricsTable getHorizontalMetrics() {
+        return hmtx;
+    }
+    
+    public FontHeaderTable getHeader() {
+        return head;
+    }
+    
+    public HorizontalHeaderTable getHorizontalHeader() {
+        return hhea;
+    }
+    
+    /**
+     * 
+     * @return The font's 'ankr' table or a {@link NullAnchorTable} if the
+     * font doesn't have one.
+     */
+    public AnchorTable getAnchorTable() {
+        return ankr;
+    }
+    
+    /**
+     * Gets the number of glyphs in the font.
+     * 
+     * @return The number of glyphs in the font.
+     */
+    public int getNumGlyphs() {
+        return advances.length;
+    }
+    
+    /**
+     * Gets the ID of the glyph mapped to a unicode code point. The page of
+     * the character map containing the code point is decoded the first
+     * time it is requested.
+     * 
+     * @param codePoint The unicode code point to lookup.
+     * @return The ID of the glyph or 0, the missing glyph, if the font
+     * has no glyph for the code point.
+     */
+    public int getGlyphID(int codePoint) {
+        if (codePoint < 0 || codePoint > MAX_CODEPOINT) {
+            return characterMap.glyphId(codePoint);
+        }
+        
+        int[] page = cmapPages.get(codePoint >> PAGE_SHIFT);
+        if (page == null) {
+            page = decodePage(codePoint >> PAGE_SHIFT);
+        }
+        
+        return page[codePoint & (PAGE_SIZE - 1)];
+    }
+    
+    private int[] decodePage(int pageIndex) {
+        int[] page = new int[PAGE_SIZE];
+        int first = pageIndex << PAGE_SHIFT;
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page[i] = characterMap.glyphId(first + i);
+        }
+        
+        if (cmapPages.compareAndSet(pageIndex, null, page)) {
+            return page;
+        }
+        
+        return cmapPages.get(pageIndex);
+    }
+    
+    /**
+     * Gets the advance width of a glyph in font units.
+     * 
+     * @param glyphID The ID of the glyph.
+     * @return The advance width of the glyph in font units.
+     */
+    public int getAdvanceWidth(int glyphID) {
+        if (glyphID < 0 || glyphID >= advances.length) {
+            return hmtx.advanceWidth(glyphID);
+        }
+        
+        return advances[glyphID];
+    }
+    
+    /**
+     * Gets the minimum x-axis value of a glyph's bounding box in font units
+     * as stored in the glyph's header.
+     * 
+     * @param glyphID The ID of the glyph.
+     * @return The minimum x-axis value or 0 if the glyph has no outline.
+     */
+    public int getXMin(int glyphID) {
+        return getBound(glyphID, 0);
+    }
+    
+    /**
+     * Gets the minimum y-axis value of a glyph's bounding box in font units
+     * as stored in the glyph's header.
+     * 
+     * @param glyphID The ID of the glyph.
+     * @return The minimum y-axis value or 0 if the glyph has no outline.
+     */
+    public int getYMin(int glyphID) {
+        return getBound(glyphID, 1);
+    }
+    
+    /**
+     * Gets the maximum x-axis value of a glyph's bounding box in font units
+     * as stored in the glyph's header.
+     * 
+     * @param glyphID The ID of the glyph.
+     * @return The maximum x-axis value or 0 if the glyph has no outline.
+     */
+    public int getXMax(int glyphID) {
+        return getBound(glyphID, 2);
+    }
+    
+    /**
+     * Gets the maximum y-axis value of a glyph's bounding box in font units
+     * as stored in the glyph's header.
+     * 
+     * @param glyphID The ID of the glyph.
+     * @return The maximum y-axis value or 0 if the glyph has no outline.
+     */
+    public int getYMax(int glyphID) {
+        return getBound(glyphID, 3);
+    }
+    
+    private int getBound(int glyphID, int bound) {
+        if (glyphID < 0 || glyphID >= advances.length) {
+            return 0;
+        }
+        
+        return bounds[(glyphID * 4) + bound];
+    }
+    
+    /**
+     * Gets a {@code com.google.typography.font.sfntly.table.truetype.Glyph} from
+     * the truetype font file.
+     * 
+     * @param glyphID The ID of the requested glyph.
+     * @return The requested glyph.
+     */
+    public Glyph getGlyph(int glyphID) {
+        if (glyphID < 0 || glyphID >= advances.length) {
+            return glyphs.glyph(loca.glyphOffset(glyphID), loca.glyphLength(glyphID));
+        }
+        
+        int offset = locations[glyphID];
+        return glyphs.glyph(offset, locations[glyphID + 1] - offset);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.shape;
+
+import com.atr.jme.font.glyph.Glyph;
+import com.atr.jme.font.util.StringContainer.Align;
+import com.atr.jme.font.util.StringContainer.VAlign;
+import com.jme3.math.Vector2f;
+import java.util.Arrays;
+
+/**
+ * Remembers the layout a text mesh was last built from so that an update can
+ * rewrite only the characters that changed.
+ * 
+ * Glyphs are compared by identity, line by line. A character has to be
+ * rewritten if it, or any character before it, differs from the previous
+ * layout or if the width or height of its line changed. A change to the
+ * alignment, kerning or the supplied key invalidates every character.
+ * 
+ * A change to the size of the whole text does not invalidate the unchanged
+ * characters. Only their block coordinates, and their position when the
+ * alignment depends on the size, have to be rewritten. The previous size is
+ * available from {@link #getWidth()} and {@link #getHeight()} until the next
+ * update.
+ */
+final class LayoutSnapshot {
+    private Glyph[][] lines;
+    private float[] widths;
+    private Vector2f[] lineHeights;
+    private float width;
+    private float height;
+    private int kerning;
+    private Align hAlign;
+    private VAlign vAlign;
+    private long key;
+    
+    /**
+     * Compares a layout with the previous one and remembers it for the next
+     * call.
+     * 
+     * @param glyphs the glyphs to be displayed, one array per line
+     * @param widths the width of each line
+     * @param lineHeights the ascender and descender of each line, may contain
+     * null elements for empty lines
+     * @param width the width of the text
+     * @param height the height of the text
+     * @param kerning the additional spacing between characters
+     * @param hAlign the horizontal alignment
+     * @param vAlign the vertical alignment
+     * @param key any additional state the mesh depends on, such as the
+     * dimensions of the texture atlas
+     * @return The index, counting every glyph of every line, of the first
+     * glyph that has to be rewritten. 0 if everything has to be rewritten.
+     */
+    int update(Glyph[][] glyphs, float[] widths, Vector2f[] lineHeights,
+            float width, float height, int kerning, Align hAlign, VAlign vAlign,
+            long key) {
+        int dirty = 0;
+        if (lines != null && this.width > 0 && this.height > 0
+                && kerning == this.kerning && hAlign == this.hAlign
+                && vAlign == this.vAlign && key == this.key) {
+            int numLines = Math.min(glyphs.length, lines.length);
+            for (int i = 0; i < numLines; i++) {
+                if (widths[i] != this.widths[i]
+                        || !equals(lineHeights[i], this.lineHeights[i])) {
+                    break;
+                }
+                
+                Glyph[] line = glyphs[i];
+                Glyph[] old = lines[i];
+                int len = Math.min(line.length, old.length);
+                int n = 0;
+                while (n < len && line[n] == old[n]) {
+                    n++;
+                }
+                dirty += n;
+                if (n < line.length || n < old.length) {
+                    break;
+                }
+            }
+        }
+        
+        lines = new Glyph[glyphs.length][];
+        for (int i = 0; i < glyphs.length; i++) {
+            lines[i] = glyphs[i].clone();
+        }
+        this.widths = Arrays.copyOf(widths, widths.length);
+        this.lineHeights = new Vector2f[lineHeights.length];
+        for (int i = 0; i < lineHeights.length; i++) {
+            this.lineHeights[i] = lineHeights[i] == null ? null : lineHeights[i].clone();
+        }
+        this.width = width;
+        this.height = height;
+        this.kerning = kerning;
+        this.hAlign = hAlign;
+        this.vAlign = vAlign;
+        this.key = key;
+        
+        return dirty;
+    }
+    
+    /**
+     * 
+     * @return The width of the text the last time it was updated.
+     */
+    float getWidth() {
+        return width;
+    }
+    
+    /**
+     * 
+     * @return The height of the text the last time it was updated.
+     */
+    float getHeight() {
+        return height;
+    }
+    
+    /**
+     * Forgets the previous layout so the next update rewrites every
+     * character.
+     */
+    void invalidate() {
+        lines = null;
+    }
+    
+    private static boolean equals(Vector2f a, Vector2f b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -29,10 +29,16 @@ import edu.berkeley.jmescher.Point;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,6 +60,39 @@ public class MeshGlyf extends Mesh {
         processContours(ttm, ankr, glyf);
     }
     
+    /**
+     * Builds a mesh from previously triangulated data.
+     * 
+     * @param positions The x and y coordinates of each vertex.
+     * @param texCoords The bezier texture coordinates of each vertex.
+     * @param texCoords2 The triangle type and curve side of each vertex.
+     * @param indices The vertex indices of each triangle.
+     * @param scale The scale to apply to vertex positions and bounds.
+     * @param bounds The minimum x, minimum y, maximum x and maximum y of the
+     * unscaled glyph.
+     * 
+     * @see MeshGlyfCache
+     */
+    MeshGlyf(float[] positions, float[] texCoords, float[] texCoords2,
+            short[] indices, float scale, float[] bounds) {
+        minX = bounds[0] * scale;
+        minY = bounds[1] * scale;
+        maxX = bounds[2] * scale;
+        maxY = bounds[3] * scale;
+        
+        FloatBuffer pos = BufferUtils.createFloatBuffer((positions.length / 2) * 3);
+        for (int i = 0; i < positions.length; i += 2) {
+            pos.put(positions[i] * scale).put(positions[i + 1] * scale).put(0);
+        }
+        
+        setBuffer(VertexBuffer.Type.Position, 3, pos);
+        setBuffer(VertexBuffer.Type.TexCoord, 2, BufferUtils.createFloatBuffer(texCoords));
+        setBuffer(VertexBuffer.Type.TexCoord2, 2, BufferUtils.createFloatBuffer(texCoords2));
+        setBuffer(VertexBuffer.Type.Index, 3, BufferUtils.createShortBuffer(indices));
+        
+        updateBound();
+    }
+    
     public float getMaxX() {
         return maxX;
     }
@@ -172,14 +211,16 @@ public class MeshGlyf extends Mesh {
                 } else if ((flags & CompositeGlyph.FLAG_ARG_1_AND_2_ARE_WORDS)
                         == CompositeGlyph.FLAG_ARG_1_AND_2_ARE_WORDS) {
                     //The glyph is placed relative to an anchor point
-                    int[] p1 = ankr.getAnchor(g.glyphIndex(i - 1), g.argument1(i));
-                    int[] p2 = ankr.getAnchor(g.glyphIndex(i), g.argument2(i));
+                    int p1x = ankr.getAnchorX(g.glyphIndex(i - 1), g.argument1(i));
+                    int p1y = ankr.getAnchorY(g.glyphIndex(i - 1), g.argument1(i));
+                    int p2x = ankr.getAnchorX(g.glyphIndex(i), g.argument2(i));
+                    int p2y = ankr.getAnchorY(g.glyphIndex(i), g.argument2(i));
                     
-                    float x = (p1[0] * lastMatrix[0]) + (p1[1] * lastMatrix[2]) + lastMatrix[4];
-                    float y = (p1[0] * lastMatrix[1]) + (p1[1] * lastMatrix[3]) + lastMatrix[5];
+                    float x = (p1x * lastMatrix[0]) + (p1y * lastMatrix[2]) + lastMatrix[4];
+                    float y = (p1x * lastMatrix[1]) + (p1y * lastMatrix[3]) + lastMatrix[5];
                     
-                    float x2 = (p2[0] * matrix[0]) + (p2[1] * matrix[2]);
-                    float y2 = (p2[0] * matrix[1]) + (p2[1] * matrix[3]);
+                    float x2 = (p2x * matrix[0]) + (p2y * matrix[2]);
+                    float y2 = (p2x * matrix[1]) + (p2y * matrix[3]);
                     
                     matrix[4] = x - x2;
                     matrix[5] = y - y2;
@@ -219,7 +260,35 @@ public class MeshGlyf extends Mesh {
      */
     private void triangulate(TrueTypeMesh ttm, SimpleGlyph glyf,
             List<Tri> innerTriangles, List<Tri> bTriangles, float[] matrix) {
+        if (ttm.getTriangulation() != TrueTypeMesh.Triangulation.EarClipping
+                || !clipEars(ttm, glyf, innerTriangles, bTriangles, matrix)) {
+            triangulateDelaunay(ttm, glyf, innerTriangles, bTriangles, matrix);
+        }
+        
+        if (maxX == Float.MIN_VALUE) {
+            maxX = 0;
+            minX = 0;
+        }
+        if (maxY == Float.MIN_VALUE) {
+            maxY = 0;
+            minY = 0;
+        }
+    }
+    
+    /**
+     * Triangulates a glyph contour by inserting its points and segments into
+     * a constrained Delaunay triangulation of the font's bounding box.
+     * 
+     * @param ttm
+     * @param glyf
+     * @param innerTriangles
+     * @param bTriangles
+     * @param matrix 
+     */
+    private void triangulateDelaunay(TrueTypeMesh ttm, SimpleGlyph glyf,
+            List<Tri> innerTriangles, List<Tri> bTriangles, float[] matrix) {
         edu.berkeley.jmescher.Mesh mesh = new edu.berkeley.jmescher.Mesh(EPSILON);
+        MeshPoints points = new MeshPoints(mesh);
         BPoint[] boundary = new BPoint[4];
         boundary[0] = new BPoint(ttm.getMinCharX(), ttm.getMinCharY());
         boundary[1] = new BPoint(ttm.getMinCharX()
@@ -236,11 +305,11 @@ public class MeshGlyf extends Mesh {
         int numContours = glyf.numberOfContours();
         if (matrix == null) {
             for (int contour = 0; contour < numContours; contour++) {
-                getSimpleContours(glyf, contour, ttm, segs, bTris, mesh);
+                getSimpleContours(glyf, contour, ttm, segs, bTris, points);
             }
         } else {
             for (int contour = 0; contour < numContours; contour++) {
-                getSimpleContours(glyf, matrix, contour, ttm, segs, bTris, mesh);
+                getSimpleContours(glyf, matrix, contour, ttm, segs, bTris, points);
             }
         }
         
@@ -569,17 +638,71 @@ public class MeshGlyf extends Mesh {
         innerTris.addAll(newTris);
         newTris.clear();
         
-        if (maxX == Float.MIN_VALUE) {
-            maxX = 0;
-            minX = 0;
+        innerTriangles.addAll(innerTris);
+        bTriangles.addAll(bTris);
+    }
+    
+    /**
+     * Triangulates a glyph contour by clipping ears from its outline. The
+     * outline runs along the base of bezier curves bulging out of the shape
+     * and around the control point of curves bulging into it, so the
+     * triangles cover the same area as a Delaunay triangulation.
+     * 
+     * @param ttm
+     * @param glyf
+     * @param innerTriangles
+     * @param bTriangles
+     * @param matrix
+     * @return false if the contours or bezier curves of the glyph overlap, in
+     * which case nothing is added to the lists.
+     */
+    private boolean clipEars(TrueTypeMesh ttm, SimpleGlyph glyf,
+            List<Tri> innerTriangles, List<Tri> bTriangles, float[] matrix) {
+        PointList points = new PointList();
+        List<Seg> segs = new ArrayList<>();
+        List<Tri> bTris = new ArrayList<>();
+        
+        int numContours = glyf.numberOfContours();
+        if (matrix == null) {
+            for (int contour = 0; contour < numContours; contour++) {
+                getSimpleContours(glyf, contour, ttm, segs, bTris, points);
+            }
+        } else {
+            for (int contour = 0; contour < numContours; contour++) {
+                getSimpleContours(glyf, matrix, contour, ttm, segs, bTris, points);
+            }
         }
-        if (maxY == Float.MIN_VALUE) {
-            maxY = 0;
-            minY = 0;
+        
+        EarClipper clipper = new EarClipper(points.size());
+        for (Seg s : segs) {
+            if (!clipper.addEdge(s.p1, s.p2, Vert.CONTOUR)) {
+                return false;
+            }
+        }
+        for (Tri t : bTris) {
+            if (t.ac.onRight(t.bc.p1)) {
+                if (!clipper.addEdge(t.ab.p1, t.ab.p2, Vert.BEZIER)
+                        || !clipper.addEdge(t.bc.p1, t.bc.p2, Vert.BEZIER)) {
+                    return false;
+                }
+                clipper.addSide(t.ac);
+            } else {
+                if (!clipper.addEdge(t.ac.p1, t.ac.p2, Vert.BEZIER)) {
+                    return false;
+                }
+                clipper.addSide(t.ab);
+                clipper.addSide(t.bc);
+            }
         }
         
-        innerTriangles.addAll(innerTris);
+        if (!clipper.triangulate()) {
+            return false;
+        }
+        
+        innerTriangles.addAll(clipper.tris);
         bTriangles.addAll(bTris);
+        
+        return true;
     }
     
     /**
@@ -625,12 +748,11 @@ public class MeshGlyf extends Mesh {
      * @param ttm
      * @param segments
      * @param triangles
-     * @param mesh
-     * @return 
+     * @param points 
      */
-    private edu.berkeley.jmescher.Mesh getSimpleContours(SimpleGlyph glyf,
+    private void getSimpleContours(SimpleGlyph glyf,
             int contour, TrueTypeMesh ttm, List<Seg> segments, List<Tri> triangles,
-            edu.berkeley.jmescher.Mesh mesh) {
+            PointSet points) {
         Point a = new Point();
         int numPoints = glyf.numberOfPoints(contour);
 
@@ -643,7 +765,7 @@ public class MeshGlyf extends Mesh {
         float firstOnCurveY = last1Y;
         boolean last1OnCurve = glyf.onCurve(contour, 0);
         if (last1OnCurve) {
-            a = mesh.addInteriorPoint(new Point(last1X, last1Y));
+            a = points.add(new Point(last1X, last1Y));
         }
 
         if (last1X > maxX) {
@@ -693,7 +815,7 @@ public class MeshGlyf extends Mesh {
 
                     firstOnCurveX = x;
                     firstOnCurveY = y;
-                    a = mesh.addInteriorPoint(new Point(x, y));
+                    a = points.add(new Point(x, y));
 
                     last1OnCurve = false;
 
@@ -707,7 +829,7 @@ public class MeshGlyf extends Mesh {
             } else if (!last1OnCurve && point == 1) {
                 firstOnCurveX = x;
                 firstOnCurveY = y;
-                a = mesh.addInteriorPoint(new Point(x, y));
+                a = points.add(new Point(x, y));
 
                 last1X = x;
                 last1Y = y;
@@ -719,7 +841,7 @@ public class MeshGlyf extends Mesh {
             if (onCurve && !last1OnCurve) {
                 Point b = new Point(last1X, last1Y);
                 //Point b = mesh.addInteriorPoint(new Point(last1X, last1Y));
-                Point c = mesh.addInteriorPoint(new Point(x, y));
+                Point c = points.add(new Point(x, y));
                 //Seg ab = new Seg(a, b);
                 //Seg bc = new Seg(b, c);
                 Seg ac = new Seg(a, c);
@@ -727,14 +849,14 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
                 }
                 a = c;
             } else if (onCurve) {
-                Point b = mesh.addInteriorPoint(new Point(x, y));
+                Point b = points.add(new Point(x, y));
                 segments.add(new Seg(a, b));
                 a = b;
             }
@@ -748,14 +870,14 @@ public class MeshGlyf extends Mesh {
             if (firstOnCurve) {
                 //Both the first and last points are on-curve. We
                 //create an edge between the two.
-                Point b = mesh.addInteriorPoint(new Point(firstX, firstY));
+                Point b = points.add(new Point(firstX, firstY));
                 segments.add(new Seg(a, b));
             } else {
                 //The last point is on-curve, but the first point is not.
                 //We create a Bézier curve between the last and second
                 //points with the first point as the middle control.
                 Point b = new Point(firstX, firstY);
-                Point c = mesh.addInteriorPoint(new Point(firstOnCurveX, firstOnCurveY));
+                Point c = points.add(new Point(firstOnCurveX, firstOnCurveY));
                 //Seg ab = new Seg(a, b);
                 //Seg bc = new Seg(b, c);
                 Seg ac = new Seg(a, c);
@@ -763,7 +885,7 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
@@ -776,7 +898,7 @@ public class MeshGlyf extends Mesh {
                 //second to last point and the first point with
                 //the last point as the middle control.
                 Point b = new Point(last1X, last1Y);
-                Point c = mesh.addInteriorPoint(new Point(firstX, firstY));
+                Point c = points.add(new Point(firstX, firstY));
                 //Seg ab = new Seg(a, b);
                 //Seg bc = new Seg(b, c);
                 Seg ac = new Seg(a, c);
@@ -784,7 +906,7 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
@@ -800,7 +922,7 @@ public class MeshGlyf extends Mesh {
                 float x = last1X + ((firstX - last1X) / 2f);
                 float y = last1Y + ((firstY - last1Y) / 2f);
                 Point b = new Point(last1X, last1Y);
-                Point c = mesh.addInteriorPoint(new Point(x, y));
+                Point c = points.add(new Point(x, y));
                 //Seg ab = new Seg(a, b);
                 //Seg bc = new Seg(b, c);
                 Seg ac = new Seg(a, c);
@@ -808,7 +930,7 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
@@ -816,7 +938,7 @@ public class MeshGlyf extends Mesh {
                 a = c;
                 
                 b = new Point(firstX, firstY);
-                c = mesh.addInteriorPoint(new Point(firstOnCurveX, firstOnCurveY));
+                c = points.add(new Point(firstOnCurveX, firstOnCurveY));
                 //ab = new Seg(a, b);
                 //bc = new Seg(b, c);
                 ac = new Seg(a, c);
@@ -824,15 +946,13 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
                 }
             }
         }
-        
-        return mesh;
     }
     
     /**
@@ -845,11 +965,11 @@ public class MeshGlyf extends Mesh {
      * @param ttm
      * @param segments
      * @param triangles
-     * @param mesh 
+     * @param points 
      */
     private void getSimpleContours(SimpleGlyph glyf, float[] matrix, 
             int contour, TrueTypeMesh ttm, List<Seg> segments, List<Tri> triangles,
-            edu.berkeley.jmescher.Mesh mesh) {
+            PointSet points) {
         Point a = new Point();
         int numPoints = glyf.numberOfPoints(contour);
 
@@ -865,7 +985,7 @@ public class MeshGlyf extends Mesh {
         float firstOnCurveY = last1Y;
         boolean last1OnCurve = glyf.onCurve(contour, 0);
         if (last1OnCurve) {
-            a = mesh.addInteriorPoint(new Point(last1X, last1Y));
+            a = points.add(new Point(last1X, last1Y));
         }
 
         if (last1X > maxX) {
@@ -918,7 +1038,7 @@ public class MeshGlyf extends Mesh {
 
                     firstOnCurveX = x;
                     firstOnCurveY = y;
-                    a = mesh.addInteriorPoint(new Point(x, y));
+                    a = points.add(new Point(x, y));
 
                     last1OnCurve = false;
 
@@ -932,7 +1052,7 @@ public class MeshGlyf extends Mesh {
             } else if (!last1OnCurve && point == 1) {
                 firstOnCurveX = x;
                 firstOnCurveY = y;
-                a = mesh.addInteriorPoint(new Point(x, y));
+                a = points.add(new Point(x, y));
 
                 last1X = x;
                 last1Y = y;
@@ -943,7 +1063,7 @@ public class MeshGlyf extends Mesh {
 
             if (onCurve && !last1OnCurve) {
                 Point b = new Point(last1X, last1Y);
-                Point c = mesh.addInteriorPoint(new Point(x, y));
+                Point c = points.add(new Point(x, y));
                 //Seg ab = new Seg(a, b);
                 //Seg bc = new Seg(b, c);
                 Seg ac = new Seg(a, c);
@@ -951,14 +1071,14 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
                 }
                 a = c;
             } else if (onCurve) {
-                Point b = mesh.addInteriorPoint(new Point(x, y));
+                Point b = points.add(new Point(x, y));
                 segments.add(new Seg(a, b));
                 a = b;
             }
@@ -972,14 +1092,14 @@ public class MeshGlyf extends Mesh {
             if (firstOnCurve) {
                 //Both the first and last points are on-curve. We
                 //create an edge between the two.
-                Point b = mesh.addInteriorPoint(new Point(firstX, firstY));
+                Point b = points.add(new Point(firstX, firstY));
                 segments.add(new Seg(a, b));
             } else {
                 //The last point is on-curve, but the first point is not.
                 //We create a Bézier curve between the last and second
                 //points with the first point as the middle control.
                 Point b = new Point(firstX, firstY);
-                Point c = mesh.addInteriorPoint(new Point(firstOnCurveX, firstOnCurveY));
+                Point c = points.add(new Point(firstOnCurveX, firstOnCurveY));
                 //Seg ab = new Seg(a, b);
                 //Seg bc = new Seg(b, c);
                 Seg ac = new Seg(a, c);
@@ -987,7 +1107,7 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
@@ -1000,7 +1120,7 @@ public class MeshGlyf extends Mesh {
                 //second to last point and the first point with
                 //the last point as the middle control.
                 Point b = new Point(last1X, last1Y);
-                Point c = mesh.addInteriorPoint(new Point(firstX, firstY));
+                Point c = points.add(new Point(firstX, firstY));
                 //Seg ab = new Seg(a, b);
                 //Seg bc = new Seg(b, c);
                 Seg ac = new Seg(a, c);
@@ -1008,7 +1128,7 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
@@ -1024,7 +1144,7 @@ public class MeshGlyf extends Mesh {
                 float x = last1X + ((firstX - last1X) / 2f);
                 float y = last1Y + ((firstY - last1Y) / 2f);
                 Point b = new Point(last1X, last1Y);
-                Point c = mesh.addInteriorPoint(new Point(x, y));
+                Point c = points.add(new Point(x, y));
                 //Seg ab = new Seg(a, b);
                 //Seg bc = new Seg(b, c);
                 Seg ac = new Seg(a, c);
@@ -1032,7 +1152,7 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
@@ -1040,7 +1160,7 @@ public class MeshGlyf extends Mesh {
                 a = c;
                 
                 b = new Point(firstX, firstY);
-                c = mesh.addInteriorPoint(new Point(firstOnCurveX, firstOnCurveY));
+                c = points.add(new Point(firstOnCurveX, firstOnCurveY));
                 //ab = new Seg(a, b);
                 //bc = new Seg(b, c);
                 ac = new Seg(a, c);
@@ -1048,7 +1168,7 @@ public class MeshGlyf extends Mesh {
                     segments.add(ac);
                     //mesh.removeInteriorPoint(b);
                 } else {
-                    b = mesh.addInteriorPoint(b);
+                    b = points.add(b);
                     Seg ab = new Seg(a, b);
                     Seg bc = new Seg(b, c);
                     triangles.add(new Tri(ab, bc, ac));
@@ -1058,57 +1178,27 @@ public class MeshGlyf extends Mesh {
     }
     
     /**
-     * Finally we take our triangles and build a mesh for rendering.
+     * Finally we take our triangles and build a mesh for rendering. Triangles
+     * sharing a point with identical texture coordinates share a vertex.
      * 
      * @param innerTris
      * @param bTris 
      */
     private void createMesh(List<Tri> innerTris, List<Tri> bTris) {
-        FloatBuffer verts = BufferUtils.createFloatBuffer(((innerTris.size() + bTris.size()) * 3) * 3);
-        FloatBuffer tex1 = BufferUtils.createFloatBuffer((verts.capacity() / 3) * 2);
-        FloatBuffer tex2 = BufferUtils.createFloatBuffer(tex1.capacity());
-        ShortBuffer indices = BufferUtils.createShortBuffer(verts.capacity() / 3);
-        
         float[] angles = new float[3];
         Point[] points = new Point[3];
         Point[] result = new Point[3];
         Point tmp = new Point();
         
-        short count = 0;
+        VertexList vertices = new VertexList((innerTris.size() + bTris.size()) * 3);
         for (Tri t : innerTris) {
             points[0] = t.ab.p1;
             points[1] = t.ab.p2;
             points[2] = t.ac.p2;
             orderVerts(points, angles, tmp, result);
-            verts.put(result[0].x);
-            verts.put(result[0].y);
-            verts.put(0);
-            tex1.put(result[0].getUV().x);
-            tex1.put(result[0].getUV().y);
-            tex2.put(2);
-            tex2.put(0);
-            
-            verts.put(result[1].x);
-            verts.put(result[1].y);
-            verts.put(0);
-            tex1.put(result[1].getUV().x);
-            tex1.put(result[1].getUV().y);
-            tex2.put(2);
-            tex2.put(0);
-            
-            verts.put(result[2].x);
-            verts.put(result[2].y);
-            verts.put(0);
-            tex1.put(result[2].getUV().x);
-            tex1.put(result[2].getUV().y);
-            tex2.put(2);
-            tex2.put(0);
-            
-            indices.put(count);
-            indices.put((short)(count + 1));
-            indices.put((short)(count + 2));
-            
-            count += 3;
+            vertices.add(result[0], 2, 0);
+            vertices.add(result[1], 2, 0);
+            vertices.add(result[2], 2, 0);
         }
         
         for (Tri t : bTris) {
@@ -1121,55 +1211,123 @@ public class MeshGlyf extends Mesh {
             points[2] = t.ac.p2.clone();
             points[2].setUV(1, 1);
             orderVerts(points, angles, tmp, result);
-            verts.put(result[0].x);
-            verts.put(result[0].y);
-            verts.put(0);
-            tex1.put(result[0].getUV().x);
-            tex1.put(result[0].getUV().y);
-            
-            verts.put(result[1].x);
-            verts.put(result[1].y);
-            verts.put(0);
-            tex1.put(result[1].getUV().x);
-            tex1.put(result[1].getUV().y);
-            
-            verts.put(result[2].x);
-            verts.put(result[2].y);
-            verts.put(0);
-            tex1.put(result[2].getUV().x);
-            tex1.put(result[2].getUV().y);
             
-            if (t.pointingRight()) {
-                tex2.put(1);
-                tex2.put(1);
-                tex2.put(1);
-                tex2.put(1);
-                tex2.put(1);
-                tex2.put(1);
-            } else {
-                tex2.put(1);
-                tex2.put(-1);
-                tex2.put(1);
-                tex2.put(-1);
-                tex2.put(1);
-                tex2.put(-1);
-            }
-            
-            indices.put(count);
-            indices.put((short)(count + 1));
-            indices.put((short)(count + 2));
-            
-            count += 3;
+            float side = t.pointingRight() ? 1 : -1;
+            vertices.add(result[0], 1, side);
+            vertices.add(result[1], 1, side);
+            vertices.add(result[2], 1, side);
         }
         
-        setBuffer(VertexBuffer.Type.Position, 3, verts);
-        setBuffer(VertexBuffer.Type.TexCoord, 2, tex1);
-        setBuffer(VertexBuffer.Type.TexCoord2, 2, tex2);
-        setBuffer(VertexBuffer.Type.Index, 3, indices);
+        setBuffer(VertexBuffer.Type.Position, 3, vertices.getPositions());
+        setBuffer(VertexBuffer.Type.TexCoord, 2, vertices.getTexCoords());
+        setBuffer(VertexBuffer.Type.TexCoord2, 2, vertices.getTexCoords2());
+        setBuffer(VertexBuffer.Type.Index, 3, vertices.getIndices());
         
         updateBound();
     }
     
+    /**
+     * Collects the vertices of a glyph's triangles, re-using an existing vertex
+     * when a triangle corner matches it exactly.
+     */
+    private static class VertexList {
+        private final Map<Vertex, Integer> lookup = new HashMap<>();
+        private final List<Vertex> vertices = new ArrayList<>();
+        private final short[] indices;
+        private int numIndices = 0;
+        
+        private VertexList(int maxIndices) {
+            indices = new short[maxIndices];
+        }
+        
+        private void add(Point p, float type, float side) {
+            Vertex v = new Vertex(p.x, p.y, p.getUV().x, p.getUV().y, type, side);
+            Integer index = lookup.get(v);
+            if (index == null) {
+                index = vertices.size();
+                lookup.put(v, index);
+                vertices.add(v);
+            }
+            indices[numIndices++] = (short)(int)index;
+        }
+        
+        private FloatBuffer getPositions() {
+            FloatBuffer buf = BufferUtils.createFloatBuffer(vertices.size() * 3);
+            for (Vertex v : vertices) {
+                buf.put(v.x).put(v.y).put(0);
+            }
+            return buf;
+        }
+        
+        private FloatBuffer getTexCoords() {
+            FloatBuffer buf = BufferUtils.createFloatBuffer(vertices.size() * 2);
+            for (Vertex v : vertices) {
+                buf.put(v.u).put(v.v);
+            }
+            return buf;
+        }
+        
+        private FloatBuffer getTexCoords2() {
+            FloatBuffer buf = BufferUtils.createFloatBuffer(vertices.size() * 2);
+            for (Vertex v : vertices) {
+                buf.put(v.type).put(v.side);
+            }
+            return buf;
+        }
+        
+        private ShortBuffer getIndices() {
+            ShortBuffer buf = BufferUtils.createShortBuffer(numIndices);
+            buf.put(indices, 0, numIndices);
+            return buf;
+        }
+    }
+    
+    /**
+     * The attributes of a single vertex.
+     */
+    private static class Vertex {
+        private final float x;
+        private final float y;
+        private final float u;
+        private final float v;
+        private final float type;
+        private final float side;
+        
+        private Vertex(float x, float y, float u, float v, float type, float side) {
+            this.x = x;
+            this.y = y;
+            this.u = u;
+            this.v = v;
+            this.type = type;
+            this.side = side;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Vertex)) {
+                return false;
+            }
+            
+            Vertex o = (Vertex)other;
+            return Float.floatToIntBits(x) == Float.floatToIntBits(o.x)
+                    && Float.floatToIntBits(y) == Float.floatToIntBits(o.y)
+                    && Float.floatToIntBits(u) == Float.floatToIntBits(o.u)
+                    && Float.floatToIntBits(v) == Float.floatToIntBits(o.v)
+                    && Float.floatToIntBits(type) == Float.floatToIntBits(o.type)
+                    && Float.floatToIntBits(side) == Float.floatToIntBits(o.side);
+        }
+        
+        @Override
+        public int hashCode() {
+            int hash = Float.floatToIntBits(x);
+            hash = (31 * hash) + Float.floatToIntBits(y);
+            hash = (31 * hash) + Float.floatToIntBits(u);
+            hash = (31 * hash) + Float.floatToIntBits(v);
+            hash = (31 * hash) + Float.floatToIntBits(type);
+            return (31 * hash) + Float.floatToIntBits(side);
+        }
+    }
+    
     /**
      * For internal use only. This method takes in a list of 3 points from a triangle
      * and returns an array of the same points ordered counter-clockwise.
@@ -1312,4 +1470,704 @@ public class MeshGlyf extends Mesh {
             return ac.onRight(ab.p2);
         }
     }
+    
+    /**
+     * Supplies the points of a glyph's contours, merging points that lie
+     * within {@link #EPSILON} of each other.
+     */
+    private interface PointSet {
+        Point add(Point p);
+    }
+    
+    /**
+     * Adds the points of a glyph's contours to a Delaunay triangulation.
+     */
+    private static class MeshPoints implements PointSet {
+        private final edu.berkeley.jmescher.Mesh mesh;
+        
+        private MeshPoints(edu.berkeley.jmescher.Mesh mesh) {
+            this.mesh = mesh;
+        }
+        
+        @Override
+        public Point add(Point p) {
+            return mesh.addInteriorPoint(p);
+        }
+    }
+    
+    /**
+     * Collects the points of a glyph's contours for an {@code EarClipper},
+     * numbering them in the order they were added.
+     */
+    private static class PointList implements PointSet {
+        private final List<Point> points = new ArrayList<>();
+        
+        @Override
+        public Point add(Point p) {
+            for (Point q : points) {
+                if (p.distanceSquared(q) < EPSILON) {
+                    return q;
+                }
+            }
+            Point q = new ContourPoint(p.x, p.y, points.size());
+            points.add(q);
+            return q;
+        }
+        
+        private int size() {
+            return points.size();
+        }
+    }
+    
+    /**
+     * A point numbered by the {@code PointList} it was added to.
+     */
+    private static class ContourPoint extends Point {
+        private final int index;
+        
+        private ContourPoint(float x, float y, int index) {
+            super(x, y);
+            this.index = index;
+        }
+    }
+    
+    /**
+     * A vertex of the outline being triangulated by an {@code EarClipper},
+     * along with the edge leading to the next vertex.
+     */
+    private static class Vert {
+        /* kinds of edges, merging two edges keeps the lesser kind */
+        private static final int DIAGONAL = 0;
+        private static final int BEZIER = 1;
+        private static final int CONTOUR = 2;
+        
+        private final Point p;
+        private final Point to;
+        private int edge;
+        private Vert prev;
+        private Vert next;
+        
+        /* set once the vertex is reached walking a contour */
+        private boolean walked = false;
+        /* set for both ends of a bridge to a hole and their copies */
+        private boolean bridged = false;
+        /* set once the vertex is clipped or removed */
+        private boolean removed = false;
+        
+        private Vert(Point p, Point to, int edge) {
+            this.p = p;
+            this.to = to;
+            this.edge = edge;
+        }
+        
+        private Vert(Vert v) {
+            this(v.p, v.to, v.edge);
+        }
+    }
+    
+    /**
+     * Triangulates the outline of a glyph by clipping ears. Holes are
+     * joined to the contour surrounding them with a bridge to the closest
+     * visible vertex, see David Eberly's "Triangulation by Ear Clipping".
+     * Outlines that cross or touch themselves, or bezier curves that overlap
+     * the outline, are rejected so they can be handed to the Delaunay
+     * triangulation instead.
+     */
+    private class EarClipper {
+        private final Vert[] verts;
+        private int numVerts = 0;
+        private final List<Seg> sides = new ArrayList<>();
+        private final List<Tri> tris = new ArrayList<>();
+        
+        /* vertices that may lie inside an ear, see clip(Vert) */
+        private final List<Vert> blockers = new ArrayList<>();
+        
+        /**
+         * 
+         * @param numPoints The number of points in the {@code PointList}
+         * holding the outline's points.
+         */
+        private EarClipper(int numPoints) {
+            verts = new Vert[numPoints];
+        }
+        
+        /**
+         * Adds an edge of the outline.
+         * 
+         * @param p1
+         * @param p2
+         * @param edge The kind of edge, {@code Vert.CONTOUR} or
+         * {@code Vert.BEZIER}.
+         * @return false if another edge already starts at p1.
+         */
+        private boolean addEdge(Point p1, Point p2, int edge) {
+            if (p1 == p2) {
+                return true;
+            }
+            if (!(p1 instanceof ContourPoint) || !(p2 instanceof ContourPoint)) {
+                return false;
+            }
+            int index = ((ContourPoint)p1).index;
+            if (verts[index] != null) {
+                return false;
+            }
+            verts[index] = new Vert(p1, p2, edge);
+            numVerts++;
+            return true;
+        }
+        
+        /**
+         * Adds a side of a bezier triangle that isn't part of the outline, but
+         * mustn't cross it either.
+         * 
+         * @param side 
+         */
+        private void addSide(Seg side) {
+            sides.add(side);
+        }
+        
+        private boolean triangulate() {
+            if (numVerts < 3 || crosses()) {
+                return false;
+            }
+            
+            for (Vert v : verts) {
+                if (v == null) {
+                    continue;
+                }
+                Vert n = verts[((ContourPoint)v.to).index];
+                if (n == null || n.prev != null) {
+                    return false;
+                }
+                v.next = n;
+                n.prev = v;
+            }
+            
+            //Split the outline into contours. In a true type font file the
+            //interior of the shape is to the right of travel, we reverse each
+            //contour so the interior is to the left and outer contours run
+            //counter-clockwise.
+            List<Vert> outer = new ArrayList<>();
+            List<Vert> holes = new ArrayList<>();
+            double[] outerArea = new double[numVerts / 3];
+            for (Vert v : verts) {
+                if (v == null || v.walked) {
+                    continue;
+                }
+                double area = 0;
+                int size = 0;
+                Vert u = v;
+                int edge = v.prev.edge;
+                do {
+                    u.walked = true;
+                    area += ((double)u.p.x * u.next.p.y) - ((double)u.next.p.x * u.p.y);
+                    size++;
+                    
+                    Vert n = u.next;
+                    int e = u.edge;
+                    u.edge = edge;
+                    edge = e;
+                    u.next = u.prev;
+                    u.prev = n;
+                    u = n;
+                } while (u != v);
+                
+                if (size < 3 || area == 0) {
+                    return false;
+                }
+                if (area < 0) {
+                    outerArea[outer.size()] = -area;
+                    outer.add(v);
+                } else {
+                    holes.add(rightmost(v));
+                }
+            }
+            
+            //Each hole belongs to the smallest contour surrounding it.
+            List<List<Vert>> outerHoles = new ArrayList<>(outer.size());
+            for (int i = 0; i < outer.size(); i++) {
+                outerHoles.add(null);
+            }
+            for (Vert h : holes) {
+                int index = -1;
+                for (int i = 0; i < outer.size(); i++) {
+                    if ((index < 0 || outerArea[i] < outerArea[index])
+                            && contains(outer.get(i), h.p)) {
+                        index = i;
+                    }
+                }
+                if (index < 0) {
+                    return false;
+                }
+                if (outerHoles.get(index) == null) {
+                    outerHoles.set(index, new ArrayList<Vert>(2));
+                }
+                outerHoles.get(index).add(h);
+            }
+            
+            for (int i = 0; i < outer.size(); i++) {
+                List<Vert> h = outerHoles.get(i);
+                if (h != null) {
+                    Collections.sort(h, new Comparator<Vert>() {
+                        @Override
+                        public int compare(Vert a, Vert b) {
+                            return Float.compare(b.p.x, a.p.x);
+                        }
+                    });
+                    for (Vert v : h) {
+                        if (!bridge(outer.get(i), v)) {
+                            return false;
+                        }
+                    }
+                }
+                if (!clip(outer.get(i))) {
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Checks whether any two edges of the outline, or the sides of
+         * bezier triangles, cross or touch each other. Edges are swept from
+         * left to right so only edges whose x ranges overlap are compared.
+         * 
+         * @return true if the outline isn't simple.
+         */
+        private boolean crosses() {
+            int size = numVerts + sides.size();
+            Point[] p1 = new Point[size];
+            Point[] p2 = new Point[size];
+            float[] maxX = new float[size];
+            long[] order = new long[size];
+            
+            int i = 0;
+            for (Vert v : verts) {
+                if (v != null) {
+                    p1[i] = v.p;
+                    p2[i++] = v.to;
+                }
+            }
+            for (Seg s : sides) {
+                p1[i] = s.p1;
+                p2[i++] = s.p2;
+            }
+            for (i = 0; i < size; i++) {
+                float minX = Math.min(p1[i].x, p2[i].x);
+                maxX[i] = Math.max(p1[i].x, p2[i].x);
+                //sort on the bits of minX, flipped so negative values
+                //order correctly, with the index in the low bits
+                int bits = Float.floatToIntBits(minX);
+                bits ^= (bits >> 31) & 0x7fffffff;
+                order[i] = ((long)bits << 32) | i;
+            }
+            Arrays.sort(order);
+            
+            for (int s = 0; s < size; s++) {
+                int a = (int)order[s];
+                for (int t = s + 1; t < size; t++) {
+                    int b = (int)order[t];
+                    if (Math.min(p1[b].x, p2[b].x) > maxX[a]) {
+                        break;
+                    }
+                    if (p1[a] == p1[b] || p1[a] == p2[b]) {
+                        if (overlaps(p1[a], p2[a], p1[b] == p1[a] ? p2[b] : p1[b])) {
+                            return true;
+                        }
+                    } else if (p2[a] == p1[b] || p2[a] == p2[b]) {
+                        if (overlaps(p2[a], p1[a], p1[b] == p2[a] ? p2[b] : p1[b])) {
+                            return true;
+                        }
+                    } else if (intersect(p1[a], p2[a], p1[b], p2[b])) {
+                        return true;
+                    }
+                }
+            }
+            
+            return false;
+        }
+        
+        /**
+         * Joins a hole to the contour surrounding it with a bridge from the
+         * hole's rightmost vertex to the closest visible vertex of the contour.
+         * 
+         * @param outer A vertex of the surrounding contour.
+         * @param hole The rightmost vertex of the hole.
+         * @return false if no bridge was found.
+         */
+        private boolean bridge(Vert outer, Vert hole) {
+            Point m = hole.p;
+            
+            //cast a ray to the right of the hole and find the closest edge
+            //it hits, the endpoint of that edge furthest to the right is
+            //visible unless another vertex lies in front of it
+            double qx = Double.MAX_VALUE;
+            Vert best = null;
+            Vert v = outer;
+            do {
+                Point a = v.p;
+                Point b = v.next.p;
+                if (a.y == m.y) {
+                    if (a.x > m.x && a.x < qx) {
+                        qx = a.x;
+                        best = v;
+                    }
+                } else if (b.y != m.y && (a.y < m.y) != (b.y < m.y)) {
+                    double x = a.x + ((m.y - a.y) * ((double)b.x - a.x) / ((double)b.y - a.y));
+                    if (x >= m.x && x < qx) {
+                        qx = x;
+                        best = a.x > b.x ? v : v.next;
+                    }
+                }
+                v = v.next;
+            } while (v != outer);
+            if (best == null || qx == m.x) {
+                return false;
+            }
+            
+            //pick the vertex inside the triangle formed by the hole, the hit
+            //and the chosen endpoint with the smallest angle to the ray
+            Point p = best.p;
+            if (p.y != m.y) {
+                double tanMin = Double.MAX_VALUE;
+                Vert found = best;
+                v = outer;
+                do {
+                    Point c = v.p;
+                    if (c.x > m.x && c.x <= p.x && c != p
+                            && inTriangle(m.x, m.y, qx, m.y, p.x, p.y, c.x, c.y)
+                            && locallyInside(v, m)) {
+                        double tan = Math.abs(m.y - c.y) / (c.x - m.x);
+                        if (tan < tanMin || (tan == tanMin && c.x < found.p.x)) {
+                            tanMin = tan;
+                            found = v;
+                        }
+                    }
+                    v = v.next;
+                } while (v != outer);
+                best = found;
+            }
+            if (!locallyInside(best, m) || !locallyInside(hole, best.p)) {
+                return false;
+            }
+            
+            Vert best2 = new Vert(best);
+            Vert hole2 = new Vert(hole);
+            Vert next = best.next;
+            Vert prev = hole.prev;
+            
+            best.next = hole;
+            hole.prev = best;
+            best.edge = Vert.DIAGONAL;
+            
+            best2.next = next;
+            next.prev = best2;
+            
+            hole2.next = best2;
+            best2.prev = hole2;
+            hole2.edge = Vert.DIAGONAL;
+            
+            prev.next = hole2;
+            hole2.prev = prev;
+            
+            best.bridged = true;
+            best2.bridged = true;
+            hole.bridged = true;
+            hole2.bridged = true;
+            
+            return true;
+        }
+        
+        /**
+         * Clips ears from a contour until only triangles remain. A vertex
+         * lying inside a triangle implies a reflex vertex lying inside it, so
+         * only reflex vertices and the ends of bridges, which may coincide
+         * with a corner, are checked.
+         * 
+         * @param ear A vertex of the contour.
+         * @return false if the contour has no ears left to clip.
+         */
+        private boolean clip(Vert ear) {
+            blockers.clear();
+            Vert v = ear;
+            do {
+                if (v.bridged || orient(v.prev.p, v.p, v.next.p) <= 0) {
+                    blockers.add(v);
+                }
+                v = v.next;
+            } while (v != ear);
+            
+            Vert stop = ear;
+            while (ear.prev != ear.next) {
+                Vert prev = ear.prev;
+                Vert next = ear.next;
+                if (isEar(ear)) {
+                    addTri(prev.p, ear.p, next.p, prev.edge, ear.edge,
+                            next.next == prev ? next.edge : Vert.DIAGONAL);
+                    prev.next = next;
+                    next.prev = prev;
+                    prev.edge = Vert.DIAGONAL;
+                    ear.removed = true;
+                    
+                    ear = next.next;
+                    stop = ear;
+                    continue;
+                }
+                
+                ear = next;
+                if (ear == stop) {
+                    ear = removeStraight(ear);
+                    if (ear == null) {
+                        return false;
+                    }
+                    stop = ear;
+                }
+            }
+            
+            return true;
+        }
+        
+        private boolean isEar(Vert ear) {
+            Point a = ear.prev.p;
+            Point b = ear.p;
+            Point c = ear.next.p;
+            if (orient(a, b, c) <= 0) {
+                return false;
+            }
+            
+            for (int i = 0; i < blockers.size(); i++) {
+                Vert v = blockers.get(i);
+                if (v.removed || v == ear || v == ear.prev || v == ear.next) {
+                    continue;
+                }
+                Point p = v.p;
+                if (p == a) {
+                    if (enters(v, a, b, c)) {
+                        return false;
+                    }
+                } else if (p == b) {
+                    if (enters(v, b, c, a)) {
+                        return false;
+                    }
+                } else if (p == c) {
+                    if (enters(v, c, a, b)) {
+                        return false;
+                    }
+                } else if (orient(a, b, p) >= 0 && orient(b, c, p) >= 0
+                        && orient(c, a, p) >= 0
+                        && (v.bridged || orient(v.prev.p, p, v.next.p) <= 0)) {
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Checks whether an edge of a vertex bridged onto a corner of a
+         * triangle runs into the triangle.
+         * 
+         * @param v The bridged vertex.
+         * @param p The corner shared with v.
+         * @param next The next corner of the triangle.
+         * @param prev The previous corner of the triangle.
+         * @return true if either edge of v starts into the triangle.
+         */
+        private boolean enters(Vert v, Point p, Point next, Point prev) {
+            return (orient(p, next, v.next.p) > 0 && orient(p, v.next.p, prev) > 0)
+                    || (orient(p, next, v.prev.p) > 0 && orient(p, v.prev.p, prev) > 0);
+        }
+        
+        /**
+         * Removes vertices that lie on a straight line between their
+         * neighbours, these can never be clipped as ears.
+         * 
+         * @param start A vertex of the contour.
+         * @return A remaining vertex of the contour, or null if no vertices
+         * were removed.
+         */
+        private Vert removeStraight(Vert start) {
+            int size = 0;
+            Vert v = start;
+            do {
+                size++;
+                v = v.next;
+            } while (v != start);
+            
+            boolean removed = false;
+            for (int i = 0; i < size && v.prev != v.next; i++) {
+                Vert next = v.next;
+                if (orient(v.prev.p, v.p, next.p) == 0) {
+                    v.prev.edge = Math.min(v.prev.edge, v.edge);
+                    v.prev.next = next;
+                    next.prev = v.prev;
+                    v.removed = true;
+                    removed = true;
+                }
+                v = next;
+            }
+            
+            return removed ? v : null;
+        }
+        
+        /**
+         * Adds an interior triangle. Corners on an edge of the glyph's contour
+         * get a texture coordinate of 0 and the opposite corner 1, used by the
+         * shader to anti-alias the edge. Triangles with two contour edges are
+         * split in half so each edge is anti-aliased.
+         * 
+         * @param a
+         * @param b
+         * @param c
+         * @param ab The kind of edge between a and b.
+         * @param bc The kind of edge between b and c.
+         * @param ca The kind of edge between c and a.
+         */
+        private void addTri(Point a, Point b, Point c, int ab, int bc, int ca) {
+            if (ab == Vert.CONTOUR && bc == Vert.CONTOUR) {
+                addSplitTri(a, b, c);
+            } else if (bc == Vert.CONTOUR && ca == Vert.CONTOUR) {
+                addSplitTri(b, c, a);
+            } else if (ca == Vert.CONTOUR && ab == Vert.CONTOUR) {
+                addSplitTri(c, a, b);
+            } else if (bc == Vert.CONTOUR) {
+                addTri(b, c, a, 0);
+            } else if (ca == Vert.CONTOUR) {
+                addTri(c, a, b, 0);
+            } else {
+                addTri(a, b, c, ab == Vert.CONTOUR ? 0 : 1);
+            }
+        }
+        
+        private void addSplitTri(Point a, Point b, Point c) {
+            Point mid = new Point(a.x + ((c.x - a.x) / 2), a.y + ((c.y - a.y) / 2));
+            addTri(a, b, mid, 0);
+            addTri(b, c, mid, 0);
+        }
+        
+        private void addTri(Point a, Point b, Point c, float uv) {
+            Point p1 = new Point(a.x, a.y);
+            Point p2 = new Point(b.x, b.y);
+            Point p3 = new Point(c.x, c.y);
+            p1.setUV(uv, uv);
+            p2.setUV(uv, uv);
+            p3.setUV(1, 1);
+            tris.add(new Tri(new Seg(p1, p2), new Seg(p2, p3), new Seg(p1, p3)));
+        }
+    }
+    
+    private static Vert rightmost(Vert start) {
+        Vert right = start;
+        for (Vert v = start.next; v != start; v = v.next) {
+            if (v.p.x > right.p.x) {
+                right = v;
+            }
+        }
+        return right;
+    }
+    
+    /**
+     * Checks whether a point lies inside a contour using the even-odd rule.
+     * 
+     * @param start A vertex of the contour.
+     * @param p
+     * @return true if p lies inside the contour.
+     */
+    private static boolean contains(Vert start, Point p) {
+        boolean inside = false;
+        Vert v = start;
+        do {
+            Point a = v.p;
+            Point b = v.next.p;
+            if ((a.y > p.y) != (b.y > p.y)
+                    && p.x < a.x + ((p.y - a.y) * ((double)b.x - a.x) / ((double)b.y - a.y))) {
+                inside = !inside;
+            }
+            v = v.next;
+        } while (v != start);
+        return inside;
+    }
+    
+    /**
+     * Checks whether the segment from a vertex to a point starts inside the
+     * contour, whose interior is to the left of travel.
+     * 
+     * @param a
+     * @param b
+     * @return true if the segment starts inside the contour.
+     */
+    private static boolean locallyInside(Vert a, Point b) {
+        if (orient(a.prev.p, a.p, a.next.p) > 0) {
+            return orient(a.p, a.next.p, b) >= 0 && orient(a.p, b, a.prev.p) >= 0;
+        }
+        return orient(a.p, a.next.p, b) > 0 || orient(a.p, b, a.prev.p) > 0;
+    }
+    
+    /**
+     * Twice the signed area of a triangle, positive if the points run
+     * counter-clockwise. Exact for float coordinates.
+     * 
+     * @param a
+     * @param b
+     * @param c
+     * @return 
+     */
+    private static double orient(Point a, Point b, Point c) {
+        return (((double)b.x - a.x) * ((double)c.y - a.y))
+                - (((double)b.y - a.y) * ((double)c.x - a.x));
+    }
+    
+    private static boolean inTriangle(double ax, double ay, double bx, double by,
+            double cx, double cy, double px, double py) {
+        double d1 = ((bx - ax) * (py - ay)) - ((by - ay) * (px - ax));
+        double d2 = ((cx - bx) * (py - by)) - ((cy - by) * (px - bx));
+        double d3 = ((ax - cx) * (py - cy)) - ((ay - cy) * (px - cx));
+        return (d1 >= 0 && d2 >= 0 && d3 >= 0) || (d1 <= 0 && d2 <= 0 && d3 <= 0);
+    }
+    
+    /**
+     * Checks whether the segments a1-a2 and b1-b2 cross or touch.
+     * 
+     * @param a1
+     * @param a2
+     * @param b1
+     * @param b2
+     * @return 
+     */
+    private static boolean intersect(Point a1, Point a2, Point b1, Point b2) {
+        if (Math.max(a1.y, a2.y) < Math.min(b1.y, b2.y)
+                || Math.max(b1.y, b2.y) < Math.min(a1.y, a2.y)) {
+            return false;
+        }
+        double d1 = orient(b1, b2, a1);
+        double d2 = orient(b1, b2, a2);
+        double d3 = orient(a1, a2, b1);
+        double d4 = orient(a1, a2, b2);
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0))
+                && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+            return true;
+        }
+        return (d1 == 0 && between(b1, b2, a1)) || (d2 == 0 && between(b1, b2, a2))
+                || (d3 == 0 && between(a1, a2, b1)) || (d4 == 0 && between(a1, a2, b2));
+    }
+    
+    /**
+     * Checks whether two segments sharing the endpoint p run along each other.
+     * 
+     * @param p
+     * @param a
+     * @param b
+     * @return 
+     */
+    private static boolean overlaps(Point p, Point a, Point b) {
+        return orient(p, a, b) == 0
+                && (((double)a.x - p.x) * ((double)b.x - p.x))
+                + (((double)a.y - p.y) * ((double)b.y - p.y)) > 0;
+    }
+    
+    private static boolean between(Point a, Point b, Point p) {
+        return p.x >= Math.min(a.x, b.x) && p.x <= Math.max(a.x, b.x)
+                && p.y >= Math.min(a.y, b.y) && p.y <= Math.max(a.y, b.y);
+    }
 }
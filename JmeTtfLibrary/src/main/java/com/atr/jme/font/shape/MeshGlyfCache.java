@@ -0,0 +1,358 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.shape;
+
+import com.atr.jme.font.TrueTypeMesh;
+import com.atr.jme.font.util.Style;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.mesh.IndexBuffer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.FloatBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>Stores triangulated {@link MeshGlyf}s by glyph ID so they can be written
+ * to disk and re-used the next time the application starts instead of
+ * triangulating the glyphs again.</p>
+ * 
+ * <p>Glyphs are stored per font file and {@link Style}, the font file being
+ * identified by the checksum in its head table, so a single cache can be
+ * shared by several styles or fonts. A font only receives glyphs it added
+ * itself, a cache built from an older version of a font is never used to
+ * display the wrong shapes. Meshes are stored at the point scale they were
+ * triangulated at and are scaled when requested by a font of a different
+ * size.</p>
+ * 
+ * <p>To build a cache ahead of time load the font with an empty cache, request
+ * every character the application displays and then {@link #save(java.io.File)}
+ * the cache. Caches can be loaded with {@link #load(java.io.File)} or through
+ * the {@code AssetManager} with
+ * {@link com.atr.jme.font.asset.TrueTypeLoaderMeshCache}.</p>
+ * 
+ * @see TrueTypeMesh#setMeshCache(com.atr.jme.font.shape.MeshGlyfCache) 
+ */
+public class MeshGlyfCache {
+    private static final int MAGIC = 0x4A54544D;
+    private static final int VERSION = 2;
+    
+    private final Map<FontKey, Map<Integer, Entry>> fonts = new LinkedHashMap<>();
+    
+    /**
+     * Creates an empty cache.
+     */
+    public MeshGlyfCache() {
+    }
+    
+    /**
+     * Reads a cache previously written with {@link #save(java.io.File)}.
+     * 
+     * @param file The file to read.
+     * @return The cache stored in the file.
+     * @throws IOException If the file could not be read or is not a cache.
+     */
+    public static MeshGlyfCache load(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return load(in);
+        }
+    }
+    
+    /**
+     * Reads a cache previously written with
+     * {@link #save(java.io.OutputStream)}. The stream is not closed.
+     * 
+     * @param in The stream to read from.
+     * @return The cache read from the stream.
+     * @throws IOException If the stream could not be read or does not
+     * contain a cache.
+     */
+    public static MeshGlyfCache load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a glyph mesh cache.");
+        }
+        int version = data.readInt();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported glyph mesh cache version: " + version);
+        }
+        
+        //version 1 caches hold the glyphs of a single font
+        MeshGlyfCache cache = new MeshGlyfCache();
+        int numFonts = (version == 1) ? 1 : data.readInt();
+        for (int i = 0; i < numFonts; i++) {
+            long checksum = data.readLong();
+            String styl = data.readUTF();
+            Map<Integer, Entry> entries = new TreeMap<>();
+            read(data, entries);
+            if (!styl.isEmpty() && !entries.isEmpty()) {
+                cache.fonts.put(new FontKey(checksum, Style.valueOf(styl)), entries);
+            }
+        }
+        
+        return cache;
+    }
+    
+    private static void read(DataInputStream data, Map<Integer, Entry> entries)
+            throws IOException {
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            int glyphID = data.readInt();
+            Entry e = new Entry(data.readFloat(), data.readInt(), data.readInt());
+            for (int n = 0; n < e.bounds.length; n++) {
+                e.bounds[n] = data.readFloat();
+            }
+            read(data, e.positions);
+            read(data, e.texCoords);
+            read(data, e.texCoords2);
+            for (int n = 0; n < e.indices.length; n++) {
+                e.indices[n] = data.readShort();
+            }
+            entries.put(glyphID, e);
+        }
+    }
+    
+    private static void read(DataInputStream data, float[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = data.readFloat();
+        }
+    }
+    
+    /**
+     * Writes the cache to a file, replacing the file if it exists.
+     * 
+     * @param file The file to write to.
+     * @throws IOException If the file could not be written.
+     */
+    public void save(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            save(out);
+        }
+    }
+    
+    /**
+     * Writes the cache to a stream. The stream is flushed but not closed.
+     * 
+     * @param out The stream to write to.
+     * @throws IOException If the cache could not be written.
+     */
+    public synchronized void save(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        
+        data.writeInt(fonts.size());
+        for (Map.Entry<FontKey, Map<Integer, Entry>> font : fonts.entrySet()) {
+            data.writeLong(font.getKey().checksum);
+            data.writeUTF(font.getKey().style.name());
+            write(data, font.getValue());
+        }
+        
+        data.flush();
+    }
+    
+    private static void write(DataOutputStream data, Map<Integer, Entry> entries)
+            throws IOException {
+        data.writeInt(entries.size());
+        for (Map.Entry<Integer, Entry> me : entries.entrySet()) {
+            Entry e = me.getValue();
+            data.writeInt(me.getKey());
+            data.writeFloat(e.scale);
+            data.writeInt(e.positions.length / 2);
+            data.writeInt(e.indices.length);
+            for (float f : e.bounds) {
+                data.writeFloat(f);
+            }
+            write(data, e.positions);
+            write(data, e.texCoords);
+            write(data, e.texCoords2);
+            for (short s : e.indices) {
+                data.writeShort(s);
+            }
+        }
+    }
+    
+    private static void write(DataOutputStream data, float[] values) throws IOException {
+        for (float f : values) {
+            data.writeFloat(f);
+        }
+    }
+    
+    /**
+     * Gets a cached glyph for a font.
+     * 
+     * @param ttm The font requesting the glyph.
+     * @param glyphID The ID of the glyph in the font file.
+     * @return A new {@code MeshGlyf} scaled to the font's point scale or null
+     * if the glyph is not cached for the font.
+     */
+    public MeshGlyf get(TrueTypeMesh ttm, int glyphID) {
+        FontKey key = new FontKey(getChecksum(ttm), ttm.getStyle());
+        Entry e;
+        synchronized (this) {
+            Map<Integer, Entry> entries = fonts.get(key);
+            e = (entries == null) ? null : entries.get(glyphID);
+        }
+        if (e == null) {
+            return null;
+        }
+        
+        float pointScale = ttm.getPointScale();
+        return new MeshGlyf(e.positions, e.texCoords, e.texCoords2, e.indices,
+                (pointScale == e.scale) ? 1 : pointScale / e.scale, e.bounds);
+    }
+    
+    /**
+     * Adds a glyph triangulated by a font to the cache. Glyphs of other
+     * fonts and styles in the cache are kept.
+     * 
+     * @param ttm The font that triangulated the glyph.
+     * @param glyphID The ID of the glyph in the font file.
+     * @param mesh The triangulated glyph.
+     */
+    public void put(TrueTypeMesh ttm, int glyphID, MeshGlyf mesh) {
+        FloatBuffer pos = mesh.getFloatBuffer(VertexBuffer.Type.Position);
+        FloatBuffer tc = mesh.getFloatBuffer(VertexBuffer.Type.TexCoord);
+        FloatBuffer tc2 = mesh.getFloatBuffer(VertexBuffer.Type.TexCoord2);
+        IndexBuffer ib = mesh.getIndexBuffer();
+        int numVerts = mesh.getVertexCount();
+        if (numVerts > 0xFFFF) {
+            return;
+        }
+        
+        Entry e = new Entry(ttm.getPointScale(), numVerts, ib.size());
+        e.bounds[0] = mesh.getMinX();
+        e.bounds[1] = mesh.getMinY();
+        e.bounds[2] = mesh.getMaxX();
+        e.bounds[3] = mesh.getMaxY();
+        for (int i = 0; i < numVerts; i++) {
+            e.positions[i * 2] = pos.get(i * 3);
+            e.positions[(i * 2) + 1] = pos.get((i * 3) + 1);
+        }
+        for (int i = 0; i < e.texCoords.length; i++) {
+            e.texCoords[i] = tc.get(i);
+            e.texCoords2[i] = tc2.get(i);
+        }
+        for (int i = 0; i < e.indices.length; i++) {
+            e.indices[i] = (short)ib.get(i);
+        }
+        
+        FontKey key = new FontKey(getChecksum(ttm), ttm.getStyle());
+        synchronized (this) {
+            Map<Integer, Entry> entries = fonts.get(key);
+            if (entries == null) {
+                entries = new TreeMap<>();
+                fonts.put(key, entries);
+            }
+            entries.put(glyphID, e);
+        }
+    }
+    
+    /**
+     * 
+     * @return The number of glyphs in the cache, of all fonts and styles.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Map<Integer, Entry> entries : fonts.values()) {
+            size += entries.size();
+        }
+        
+        return size;
+    }
+    
+    /**
+     * 
+     * @param ttm A font that may have added glyphs to the cache.
+     * @return The number of glyphs in the cache that belong to the font's
+     * file and style.
+     */
+    public int size(TrueTypeMesh ttm) {
+        FontKey key = new FontKey(getChecksum(ttm), ttm.getStyle());
+        synchronized (this) {
+            Map<Integer, Entry> entries = fonts.get(key);
+            return (entries == null) ? 0 : entries.size();
+        }
+    }
+    
+    /**
+     * Removes all glyphs from the cache.
+     */
+    public synchronized void clear() {
+        fonts.clear();
+    }
+    
+    private static long getChecksum(TrueTypeMesh ttm) {
+        return ttm.getFontTables().getHeader().checkSumAdjustment();
+    }
+    
+    /**
+     * Identifies the font file and style a set of glyphs belongs to.
+     */
+    private static class FontKey {
+        private final long checksum;
+        private final Style style;
+        
+        private FontKey(long checksum, Style style) {
+            this.checksum = checksum;
+            this.style = style;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FontKey)) {
+                return false;
+            }
+            
+            FontKey key = (FontKey)other;
+            return key.checksum == checksum && key.style == style;
+        }
+        
+        @Override
+        public int hashCode() {
+            return (31 * (int)(checksum ^ (checksum >>> 32))) + style.hashCode();
+        }
+    }
+    
+    /**
+     * The triangulated data of a single glyph. Never modified once
+     * added to the cache.
+     */
+    private static class Entry {
+        private final float scale;
+        private final float[] bounds = new float[4];
+        private final float[] positions;
+        private final float[] texCoords;
+        private final float[] texCoords2;
+        private final short[] indices;
+        
+        private Entry(float scale, int numVerts, int numIndices) {
+            this.scale = scale;
+            positions = new float[numVerts * 2];
+            texCoords = new float[numVerts * 2];
+            texCoords2 = new float[numVerts * 2];
+            indices = new short[numIndices];
+        }
+    }
+}
@@ -17,16 +17,21 @@ package com.atr.jme.font.shape;
 import com.atr.jme.font.TrueTypeBMP;
 import com.atr.jme.font.glyph.Glyph;
 import com.atr.jme.font.glyph.GlyphBMP;
+import com.atr.jme.font.util.AtlasUploadControl;
 import com.atr.jme.font.util.StringContainer;
 import com.atr.jme.font.util.StringContainer.Align;
+import com.jme3.material.MatParamOverride;
 import com.jme3.material.Material;
 import com.jme3.math.Vector2f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
+import com.jme3.scene.Spatial;
 import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.shader.VarType;
 import com.jme3.util.BufferUtils;
+import java.nio.Buffer;
 import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
 
 /**
  * An implementation of {@link TrueTypeContainer} used for
@@ -36,15 +41,128 @@ import java.nio.ShortBuffer;
  * <a href="http://1337atr.weebly.com">http://1337atr.weebly.com</a>
  */
 public class TrueTypeBMPContainer extends TrueTypeContainer {
+    private int fixedCapacity;
+    
     public TrueTypeBMPContainer(StringContainer stringContainer, Material material) {
         super(stringContainer, material);
-        attachChild(new Geometry("TrueTypeContainerBMP", new BMPMesh()));
+        addControl(new AtlasUploadControl());
+        updateGeometry();
         setMaterial(material);
     }
     
+    @Override
+    public void setMaterial(Material material) {
+        super.setMaterial(material);
+        applyPageMaterials();
+    }
+    
+    /**
+     * Sets a fixed character capacity for each page of this container. When set,
+     * the mesh buffers are allocated for at least this many characters up
+     * front and keep the same size as the text changes, unused characters
+     * being written as degenerate quads. This avoids re-specifying the
+     * buffers on the GPU for texts that are updated frequently, such as
+     * counters or chat lines. If the text outgrows the capacity the buffers
+     * are enlarged. Takes effect on the next call to
+     * {@link #updateGeometry()}.
+     * 
+     * @param fixedCapacity the number of characters, or 0 to size the buffers
+     * to the text
+     * 
+     * @see #updateGeometry() 
+     */
+    public void setFixedCapacity(int fixedCapacity) {
+        this.fixedCapacity = Math.max(fixedCapacity, 0);
+    }
+    
+    /**
+     * 
+     * @return the fixed character capacity or 0 if none is set
+     * 
+     * @see #setFixedCapacity(int) 
+     */
+    public int getFixedCapacity() {
+        return fixedCapacity;
+    }
+    
+    /**
+     * Updates the text's geometry. One {@code Geometry} is created for each
+     * texture atlas page used by the text.
+     * 
+     * @see TrueTypeBMP#setMaxAtlasPages(int) 
+     */
     @Override
     public void updateGeometry() {
-        ((BMPMesh)((Geometry)getChild(0)).getMesh()).updateMesh();
+        TrueTypeBMP ttb = (TrueTypeBMP)stringContainer.getFont();
+        AtlasUploadControl upload = getControl(AtlasUploadControl.class);
+        if (upload != null) {
+            upload.setFont(ttb);
+        }
+        boolean[] used = new boolean[Math.max(ttb.getPageCount(), 1)];
+        boolean empty = true;
+        for (Glyph[] line : stringContainer.getLines()) {
+            for (Glyph glyph : line) {
+                if (glyph.codePoint != ' ') {
+                    used[((GlyphBMP)glyph).page] = true;
+                    empty = false;
+                }
+            }
+        }
+        if (empty) {
+            used[0] = true;
+        }
+        
+        int numPages = 0;
+        boolean unchanged = true;
+        for (int page = 0; page < used.length; page++) {
+            if (!used[page]) {
+                continue;
+            }
+            if (numPages >= getQuantity()
+                    || ((BMPMesh)((Geometry)getChild(numPages)).getMesh()).page != page) {
+                unchanged = false;
+            }
+            numPages++;
+        }
+        
+        if (unchanged && numPages == getQuantity()) {
+            for (Spatial child : getChildren()) {
+                ((BMPMesh)((Geometry)child).getMesh()).updateMesh();
+            }
+            return;
+        }
+        
+        detachAllChildren();
+        for (int page = 0; page < used.length; page++) {
+            if (used[page]) {
+                attachChild(new Geometry("TrueTypeContainerBMP", new BMPMesh(page)));
+            }
+        }
+        applyPageMaterials();
+    }
+    
+    /**
+     * Assigns a material to each child {@code Geometry}. Every geometry shares
+     * this text's material, so changes made to it apply to all pages. If the
+     * font has more than one atlas page each geometry overrides the material's
+     * texture with the appropriate page.
+     */
+    private void applyPageMaterials() {
+        if (material == null) {
+            return;
+        }
+        
+        TrueTypeBMP ttb = (TrueTypeBMP)stringContainer.getFont();
+        for (Spatial child : getChildren()) {
+            Geometry geom = (Geometry)child;
+            geom.setMaterial(material);
+            geom.clearMatParamOverrides();
+            if (ttb.getPageCount() > 1
+                    && material.getMaterialDef().getMaterialParam("Texture") != null) {
+                geom.addMatParamOverride(new MatParamOverride(VarType.Texture2D, "Texture",
+                        ttb.getAtlas(((BMPMesh)geom.getMesh()).page)));
+            }
+        }
     }
     
     /**
@@ -53,7 +171,18 @@ public class TrueTypeBMPContainer extends TrueTypeContainer {
      * @author Adam T. Ryder
      */
     private class BMPMesh extends Mesh {
-        private BMPMesh() {
+        private final int page;
+        
+        private FloatBuffer verts;
+        private FloatBuffer tex1;
+        private FloatBuffer tex2;
+        private FloatBuffer tex3;
+        private FloatBuffer tex4;
+        private IndexBuffer indices;
+        private int capacity;
+        
+        private BMPMesh(int page) {
+            this.page = page;
             updateMesh();
         }
         
@@ -74,17 +203,21 @@ public class TrueTypeBMPContainer extends TrueTypeContainer {
                     break;
             }
 
-            FloatBuffer verts = BufferUtils.createFloatBuffer(stringContainer.getNumNonSpaceCharacters() * 12);
-            FloatBuffer tex1 = BufferUtils.createFloatBuffer(stringContainer.getNumNonSpaceCharacters() * 8);
-            FloatBuffer tex2 = BufferUtils.createFloatBuffer(tex1.capacity());
-            FloatBuffer tex3 = BufferUtils.createFloatBuffer(tex2.capacity());
-            FloatBuffer tex4 = BufferUtils.createFloatBuffer(tex3.capacity());
-            ShortBuffer indices = BufferUtils.createShortBuffer(stringContainer.getNumNonSpaceCharacters() * 6);
+            int numChars = 0;
+            for (Glyph[] line : lines) {
+                for (Glyph glyph : line) {
+                    if (glyph.codePoint != ' ' && ((GlyphBMP)glyph).page == page) {
+                        numChars++;
+                    }
+                }
+            }
+
+            reserve(numChars);
 
             float[] widths = stringContainer.getLineWidths();
             int padding = ttb.padding / 2;
             float currentLineHeight = stringContainer.getFont().getActualAscender();
-            short currentIndex = 0;
+            int currentIndex = 0;
             int lineNum = 0;
             for (Glyph[] line : lines) {
                 if (line.length == 0) {
@@ -98,7 +231,7 @@ public class TrueTypeBMPContainer extends TrueTypeContainer {
                 float lineHeight = lineY.x - lineY.y;
                 for (Glyph glyf : line) {
                     GlyphBMP glyph = (GlyphBMP)glyf;
-                    if (glyph.codePoint == ' ') {
+                    if (glyph.codePoint == ' ' || glyph.page != page) {
                         currentX += glyph.getXAdvance() + stringContainer.getKerning();
                         continue;
                     }
@@ -205,11 +338,11 @@ public class TrueTypeBMPContainer extends TrueTypeContainer {
                     tex4.put(1f - ((y - currentLineHeight) / -getHeight()));
 
                     indices.put(currentIndex);
-                    indices.put((short)(currentIndex + 1));
-                    indices.put((short)(currentIndex + 2));
-                    indices.put((short)(currentIndex + 2));
-                    indices.put((short)(currentIndex + 1));
-                    indices.put((short)(currentIndex + 3));
+                    indices.put(currentIndex + 1);
+                    indices.put(currentIndex + 2);
+                    indices.put(currentIndex + 2);
+                    indices.put(currentIndex + 1);
+                    indices.put(currentIndex + 3);
 
                     currentX += glyph.getXAdvance() + stringContainer.getKerning();
                     currentIndex += 4;
@@ -219,15 +352,91 @@ public class TrueTypeBMPContainer extends TrueTypeContainer {
                 lineNum++;
             }
 
-            setBuffer(VertexBuffer.Type.Position, 3, verts);
-            setBuffer(VertexBuffer.Type.TexCoord, 2, tex1);
-            setBuffer(VertexBuffer.Type.TexCoord2, 2, tex2);
-            setBuffer(VertexBuffer.Type.TexCoord3, 2, tex3);
-            setBuffer(VertexBuffer.Type.TexCoord4, 2, tex4);
-            setBuffer(VertexBuffer.Type.Index, 3, indices);
+            commit(numChars);
 
             clearCollisionData();
             updateBound();
         }
+        
+        /**
+         * Makes sure the mesh's buffers can hold at least the specified
+         * number of characters, or the fixed capacity if that is larger, and
+         * rewinds them for writing. Buffers are only replaced when they are
+         * too small, in which case the capacity is at least doubled.
+         * 
+         * @param numChars the number of characters to be written
+         * 
+         * @see #setFixedCapacity(int) 
+         */
+        private void reserve(int numChars) {
+            int required = Math.max(numChars, fixedCapacity);
+            if (verts == null || required > capacity) {
+                capacity = verts == null || numChars <= fixedCapacity
+                        ? required : Math.max(required, capacity * 2);
+                verts = BufferUtils.createFloatBuffer(capacity * 12);
+                tex1 = BufferUtils.createFloatBuffer(capacity * 8);
+                tex2 = BufferUtils.createFloatBuffer(capacity * 8);
+                tex3 = BufferUtils.createFloatBuffer(capacity * 8);
+                tex4 = BufferUtils.createFloatBuffer(capacity * 8);
+                indices = IndexBuffer.wrapIndexBuffer(capacity * 4 > 65536
+                        ? BufferUtils.createIntBuffer(capacity * 6)
+                        : BufferUtils.createShortBuffer(capacity * 6));
+            }
+            
+            verts.clear();
+            tex1.clear();
+            tex2.clear();
+            tex3.clear();
+            tex4.clear();
+            indices.getBuffer().clear();
+        }
+        
+        /**
+         * Flips the buffers written by {@link #updateMesh()} and hands them to
+         * the mesh. Existing {@code VertexBuffer}s are updated in place so the
+         * buffer objects on the GPU are reused. With a fixed capacity the
+         * unused characters are written as degenerate quads collapsed onto the
+         * first vertex, keeping the size of every buffer constant.
+         * 
+         * @param numChars the number of characters written
+         */
+        private void commit(int numChars) {
+            if (fixedCapacity > 0) {
+                float x = numChars > 0 ? verts.get(0) : 0;
+                float y = numChars > 0 ? verts.get(1) : 0;
+                for (int i = numChars * 4; i < capacity * 4; i++) {
+                    verts.put(x);
+                    verts.put(y);
+                    verts.put(0);
+                }
+                for (int i = numChars * 6; i < capacity * 6; i++) {
+                    indices.put(0);
+                }
+                tex1.position(capacity * 8);
+                tex2.position(capacity * 8);
+                tex3.position(capacity * 8);
+                tex4.position(capacity * 8);
+            }
+            
+            putBuffer(VertexBuffer.Type.Position, 3, VertexBuffer.Format.Float, verts);
+            putBuffer(VertexBuffer.Type.TexCoord, 2, VertexBuffer.Format.Float, tex1);
+            putBuffer(VertexBuffer.Type.TexCoord2, 2, VertexBuffer.Format.Float, tex2);
+            putBuffer(VertexBuffer.Type.TexCoord3, 2, VertexBuffer.Format.Float, tex3);
+            putBuffer(VertexBuffer.Type.TexCoord4, 2, VertexBuffer.Format.Float, tex4);
+            putBuffer(VertexBuffer.Type.Index, 3, indices.getFormat(), indices.getBuffer());
+            updateCounts();
+        }
+        
+        private void putBuffer(VertexBuffer.Type type, int components,
+                VertexBuffer.Format format, Buffer data) {
+            data.flip();
+            VertexBuffer vb = getBuffer(type);
+            if (vb == null || vb.getFormat() != format) {
+                clearBuffer(type);
+                setBuffer(type, components, format, data);
+            } else {
+                vb.updateData(data);
+            }
+        }
     }
 }
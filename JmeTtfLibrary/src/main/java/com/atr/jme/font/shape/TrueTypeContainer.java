@@ -23,10 +23,11 @@ import com.jme3.scene.Node;
  * text constrained by parameters set via a {@link StringContainer}
  * 
  * For {@link com.atr.jme.font.TrueTypeBMP} fonts this will have one child
- * {@code Geometry}. For {@link com.atr.jme.font.TrueTypeMesh} fonts this will
- * have one or more children which will be the supplied text
- * split into multiple geometries should the vertex count exceed
- * {@code Short.MAX_VALUE}.
+ * {@code Geometry} for each texture atlas page used by the text. For
+ * {@link com.atr.jme.font.TrueTypeMesh} fonts this will have a single child
+ * {@code Geometry}, switching to 32-bit indices once the vertex count exceeds
+ * 65,535. The text is only split into multiple geometries should its vertex
+ * data be too large for a single buffer.
  * 
  * @author Adam T. Ryder
  * <a href="http://1337atr.weebly.com">http://1337atr.weebly.com</a>
@@ -24,6 +24,7 @@ import com.jme3.math.Vector2f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.mesh.IndexBuffer;
 import com.jme3.util.BufferUtils;
 import java.nio.FloatBuffer;
 import java.nio.ShortBuffer;
@@ -37,6 +38,8 @@ import java.util.LinkedList;
  * <a href="http://1337atr.weebly.com">http://1337atr.weebly.com</a>
  */
 public class TrueTypeMeshContainer extends TrueTypeContainer {
+    //Largest vertex count whose position data fits in a single direct buffer.
+    private static final int MAX_VERTICES = Integer.MAX_VALUE / 12;
     
     public TrueTypeMeshContainer(StringContainer stringContainer, Material material) {
         super(stringContainer, material);
@@ -61,6 +64,7 @@ public class TrueTypeMeshContainer extends TrueTypeContainer {
         int startIndex = 0;
         int startLine = 0;
         int numVerts = 0;
+        int numIndices = 0;
         int totalVerts = 0;
         int lineNum = 0;
         int index = 0;
@@ -75,14 +79,16 @@ public class TrueTypeMeshContainer extends TrueTypeContainer {
             for (Glyph glyf : line) {
                 GlyphMesh glyph = (GlyphMesh)glyf;
                 if (glyph.codePoint != ' ') {
-                    if (numVerts + glyph.getMesh().getVertexCount() < Short.MAX_VALUE) {
+                    if (numVerts + glyph.getMesh().getVertexCount() <= MAX_VERTICES) {
                         numVerts += glyph.getMesh().getVertexCount();
+                        numIndices += glyph.getMesh().getTriangleCount() * 3;
                     } else {
                         snippets.add(new TextSnippet(startLine, lineNum, startIndex, index, numVerts,
-                                totalVerts));
+                                numIndices, totalVerts));
                         
                         totalVerts += numVerts;
                         numVerts = glyph.getMesh().getVertexCount();
+                        numIndices = glyph.getMesh().getTriangleCount() * 3;
                         startLine = lineNum;
                         startIndex = index;
                     }
@@ -92,7 +98,7 @@ public class TrueTypeMeshContainer extends TrueTypeContainer {
             lineNum++;
         }
         snippets.add(new TextSnippet(startLine, lines.length - 1, startIndex, index, numVerts,
-                                totalVerts));
+                                numIndices, totalVerts));
         
         Vector2f xyOffset = new Vector2f(0, ttm.getScaledAscender());
         float yOffset = 0;
@@ -131,14 +137,17 @@ public class TrueTypeMeshContainer extends TrueTypeContainer {
         public final int startIndex;
         public final int endIndex;
         public final int numVerts;
+        public final int numIndices;
         
         private TextSnippet(final int startLine, final int endLine, final int startIndex,
-                final int endIndex, final int numVerts, final int indexOffset) {
+                final int endIndex, final int numVerts, final int numIndices,
+                final int indexOffset) {
             this.startLine = startLine;
             this.endLine = endLine;
             this.startIndex = startIndex;
             this.endIndex = endIndex;
             this.numVerts = numVerts;
+            this.numIndices = numIndices;
         }
     }
     
@@ -162,11 +171,12 @@ public class TrueTypeMeshContainer extends TrueTypeContainer {
             FloatBuffer tex4 = BufferUtils.createFloatBuffer(tex3.capacity());
             //Tex5 covers the whole text block
             FloatBuffer tex5 = BufferUtils.createFloatBuffer(tex4.capacity());
-            ShortBuffer indices = BufferUtils.createShortBuffer(snippet.numVerts);
+            IndexBuffer indices = IndexBuffer.createIndexBuffer(snippet.numVerts,
+                    snippet.numIndices);
             
             float startX = currentXY.x;
             float currentY = currentXY.y;
-            short currentIndex = 0;
+            int currentIndex = 0;
             int startIndex = snippet.startIndex;
             lineLoop: for (int i = snippet.startLine; i <= snippet.endLine; i++) {
                 float currentX = startX;
@@ -237,8 +247,9 @@ public class TrueTypeMeshContainer extends TrueTypeContainer {
                             tex5.put((x2 + xOffset) / width);
                         }
                         tex5.put(1f - (y2 / -height));
-                        
-                        indices.put((short)(gindices.get() + currentIndex));
+                    }
+                    while (gindices.hasRemaining()) {
+                        indices.put(gindices.get() + currentIndex);
                     }
                     
                     currentX += glyph.getXAdvance() + stringContainer.getKerning();
@@ -259,7 +270,7 @@ public class TrueTypeMeshContainer extends TrueTypeContainer {
             setBuffer(VertexBuffer.Type.TexCoord3, 2, tex3);
             setBuffer(VertexBuffer.Type.TexCoord4, 2, tex4);
             setBuffer(VertexBuffer.Type.TexCoord5, 2, tex5);
-            setBuffer(VertexBuffer.Type.Index, 3, indices);
+            setBuffer(VertexBuffer.Type.Index, 3, indices.getFormat(), indices.getBuffer());
             
             clearCollisionData();
             updateBound();
@@ -18,15 +18,23 @@ import com.atr.jme.font.TrueTypeMesh;
 import com.atr.jme.font.glyph.GlyphMesh;
 import com.atr.jme.font.util.StringContainer.Align;
 import com.atr.jme.font.util.StringContainer.VAlign;
+import com.jme3.bounding.BoundingBox;
 import com.jme3.material.Material;
 import com.jme3.math.Vector2f;
+import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.instancing.InstancedGeometry;
+import com.jme3.scene.mesh.IndexBuffer;
 import com.jme3.util.BufferUtils;
+import java.nio.Buffer;
 import java.nio.FloatBuffer;
 import java.nio.ShortBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 
 /**
  * An implementation of {@link TrueTypeNode} used for
@@ -36,7 +44,15 @@ import java.util.LinkedList;
  * <a href="http://1337atr.weebly.com">http://1337atr.weebly.com</a>
  */
 public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
+    //Largest vertex count whose position data fits in a single direct buffer.
+    private static final int MAX_VERTICES = Integer.MAX_VALUE / 12;
+    
     private final TrueTypeMesh ttm;
+    private int triangulated = -1;
+    
+    private boolean instanced = false;
+    private Material instancedMat;
+    private final Map<MeshGlyf, GlyphInstances> instances = new HashMap<>();
     
     public TrueTypeMeshText(TrueTypeMesh ttm, GlyphMesh[][] glyphs, int kerning,
             Align hAlign, VAlign vAlign, Material material) {
@@ -60,6 +76,65 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
             return;
         }
         mat.setBoolean("useAA", aa);
+        if (instanced) {
+            setMaterial(mat);
+        }
+    }
+    
+    /**
+     * Sets whether the text should be rendered using GPU instancing. In instanced
+     * mode each distinct character's {@code Mesh} is drawn once per occurrence
+     * using a small per-instance buffer instead of copying the character's
+     * vertices into a new {@code Mesh}, so updating the text only rewrites the
+     * instance offsets. Requires hardware instancing support and a material
+     * with an "Instanced" parameter, such as the default material.
+     * 
+     * <p>In instanced mode the per-vertex texture coordinates TexCoord3-5 are
+     * not available. Instead the vec4 TexCoord6 instance attribute holds the
+     * offset of each character in xy and the position of the character's origin
+     * within the text block, in the same space as TexCoord5, in zw.</p>
+     * 
+     * @param instanced True to render the text with instancing.
+     */
+    public void setInstanced(boolean instanced) {
+        if (this.instanced == instanced) {
+            return;
+        }
+        this.instanced = instanced;
+        instancedMat = null;
+        detachAllChildren();
+        instances.clear();
+        if (instanced) {
+            setMaterial(mat);
+        }
+        updateGeometry();
+    }
+    
+    /**
+     * 
+     * @return True if the text is rendered using GPU instancing.
+     * 
+     * @see #setInstanced(boolean) 
+     */
+    public boolean isInstanced() {
+        return instanced;
+    }
+    
+    @Override
+    public void setMaterial(Material material) {
+        if (!instanced) {
+            super.setMaterial(material);
+            return;
+        }
+        
+        mat = material;
+        instancedMat = material.clone();
+        if (instancedMat.getMaterialDef().getMaterialParam("Instanced") != null) {
+            instancedMat.setBoolean("Instanced", true);
+        }
+        for (GlyphInstances gi : instances.values()) {
+            gi.setMaterial(instancedMat);
+        }
     }
     
     @Override
@@ -67,9 +142,47 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
         setGlyphs(ttm.getGlyphMatrix(text));
     }
     
+    /**
+     * Replaces placeholder glyphs with their finished characters once they
+     * have been triangulated and updates the geometry if any were replaced.
+     * 
+     * @see TrueTypeMesh#setTriangulationExecutor(java.util.concurrent.Executor) 
+     */
+    @Override
+    public void updateLogicalState(float tpf) {
+        super.updateLogicalState(tpf);
+        
+        int count = ttm.getTriangulatedCount();
+        if (count == triangulated) {
+            return;
+        }
+        triangulated = count;
+        
+        boolean replaced = false;
+        for (GlyphMesh[] line : glyphs) {
+            for (int i = 0; i < line.length; i++) {
+                if (!line[i].isPlaceholder()) {
+                    continue;
+                }
+                GlyphMesh glyph = ttm.getGlyphs(new StringBuilder()
+                        .appendCodePoint(line[i].codePoint))[0];
+                if (!glyph.isPlaceholder()) {
+                    line[i] = glyph;
+                    replaced = true;
+                }
+            }
+        }
+        if (replaced) {
+            updateGeometry();
+        }
+    }
+    
     @Override
     public void updateGeometry() {
-        detachAllChildren();
+        if (instanced) {
+            updateInstances();
+            return;
+        }
         
         float[] widths = new float[glyphs.length];
         Vector2f[] lineHeights = new Vector2f[glyphs.length];
@@ -82,6 +195,7 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
         int startIndex = 0;
         int startLine = 0;
         int numVerts = 0;
+        int numIndices = 0;
         int totalVerts = 0;
         int count = 0;
         int lineNum = 0;
@@ -106,14 +220,16 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
                     lineHeight.y = glyph.getDescender();
                 }
                 if (glyph.codePoint != ' ') {
-                    if (numVerts + glyph.getMesh().getVertexCount() < Short.MAX_VALUE) {
+                    if (numVerts + glyph.getMesh().getVertexCount() <= MAX_VERTICES) {
                         numVerts += glyph.getMesh().getVertexCount();
+                        numIndices += glyph.getMesh().getTriangleCount() * 3;
                     } else {
                         snippets.add(new TextSnippet(startLine, lineNum, startIndex, index, numVerts,
-                                totalVerts));
+                                numIndices, totalVerts));
                         
                         totalVerts += numVerts;
                         numVerts = glyph.getMesh().getVertexCount();
+                        numIndices = glyph.getMesh().getTriangleCount() * 3;
                         startLine = lineNum;
                         startIndex = index;
                     }
@@ -130,7 +246,7 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
             }
         }
         snippets.add(new TextSnippet(startLine, glyphs.length - 1, startIndex, index, numVerts,
-                                totalVerts));
+                                numIndices, totalVerts));
         
         Vector2f xyOffset = new Vector2f(0, ttm.getScaledAscender());
         float yOffset = 0;
@@ -142,6 +258,14 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
                 yOffset = height;
         }
         
+        if (snippets.size() == 1 && getQuantity() == 1 && getChild(0) instanceof Geometry
+                && ((Geometry)getChild(0)).getMesh() instanceof TextMesh) {
+            ((TextMesh)((Geometry)getChild(0)).getMesh()).createMesh(glyphs, snippets.getFirst(),
+                    widths, lineHeights, width, height, yOffset, xyOffset);
+            return;
+        }
+        
+        detachAllChildren();
         for (TextSnippet snippet : snippets) {
             TextMesh mesh = new TextMesh();
             mesh.createMesh(glyphs, snippet, widths, lineHeights, width, height, yOffset, xyOffset);
@@ -151,6 +275,180 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
         }
     }
     
+    /**
+     * Lays out the text and writes the offset of each character into the
+     * instance buffer of its character's {@code Mesh}.
+     */
+    private void updateInstances() {
+        float scale = ttm.getScale();
+        height = ttm.getScaledAscender() + ttm.getScaledDescender();
+        if (glyphs.length > 1) {
+            height += (glyphs.length - 1) * ttm.getScaledLineHeight();
+        }
+        width = 0;
+        
+        float[] widths = new float[glyphs.length];
+        int count = 0;
+        for (GlyphMesh[] line : glyphs) {
+            if (line.length == 0) {
+                widths[count++] = 0;
+                continue;
+            }
+            float w = 0;
+            for (GlyphMesh glyph : line) {
+                w += (glyph.getXAdvance() + kerning) * scale;
+            }
+            w -= (line[line.length - 1].getXAdvance() + kerning) * scale;
+            w += line[line.length - 1].getRight() * scale;
+            widths[count++] = w;
+            if (w > width) {
+                width = w;
+            }
+        }
+        
+        float yOffset = 0;
+        switch (vAlign) {
+            case Center:
+                yOffset = height / 2;
+                break;
+            case Bottom:
+                yOffset = height;
+        }
+        
+        for (GlyphInstances gi : instances.values()) {
+            gi.count = 0;
+        }
+        
+        float currentY = ttm.getScaledAscender();
+        for (int i = 0; i < glyphs.length; i++) {
+            float xOffset = 0;
+            switch (hAlign) {
+                case Center:
+                    xOffset = -widths[i] / 2;
+                    break;
+                case Right:
+                    xOffset = width - widths[i];
+            }
+            
+            float currentX = 0;
+            for (GlyphMesh glyph : glyphs[i]) {
+                if (glyph.codePoint != ' ') {
+                    GlyphInstances gi = instances.get(glyph.getMesh());
+                    if (gi == null) {
+                        gi = new GlyphInstances(glyph.getMesh());
+                        gi.setMaterial(instancedMat);
+                        instances.put(glyph.getMesh(), gi);
+                        attachChild(gi);
+                    }
+                    
+                    float x = (currentX * scale) + xOffset;
+                    float y = yOffset - currentY;
+                    float blockX = (hAlign == Align.Center) ? (currentX * scale) + ((width / 2)
+                            - (widths[i] / 2)) : x;
+                    gi.add(x, y, blockX / width, 1f - (y / -height));
+                }
+                currentX += glyph.getXAdvance() + kerning;
+            }
+            
+            currentY += ttm.getScaledLineHeight();
+        }
+        
+        for (Iterator<GlyphInstances> it = instances.values().iterator(); it.hasNext();) {
+            GlyphInstances gi = it.next();
+            if (gi.count == 0) {
+                detachChild(gi);
+                it.remove();
+            } else {
+                gi.updateOffsets();
+            }
+        }
+    }
+    
+    /**
+     * Draws every occurrence of a single character's {@code Mesh} with
+     * one instanced draw call.
+     */
+    private static class GlyphInstances extends InstancedGeometry {
+        private final VertexBuffer offsets = new VertexBuffer(VertexBuffer.Type.TexCoord6);
+        private final VertexBuffer[] instanceData = new VertexBuffer[]{offsets};
+        private final BoundingBox bounds = new BoundingBox();
+        private FloatBuffer data = BufferUtils.createFloatBuffer(16);
+        private int count = 0;
+        
+        private float minX;
+        private float minY;
+        private float maxX;
+        private float maxY;
+        
+        private GlyphInstances(MeshGlyf mesh) {
+            super("TrueTypeMeshText");
+            setIgnoreTransform(false);
+            setMesh(mesh);
+            offsets.setInstanced(true);
+        }
+        
+        private void add(float x, float y, float blockU, float blockV) {
+            if (count == 0) {
+                data.clear();
+                minX = maxX = x;
+                minY = maxY = y;
+            }
+            if (data.remaining() < 4) {
+                FloatBuffer tmp = BufferUtils.createFloatBuffer(data.capacity() * 2);
+                data.flip();
+                tmp.put(data);
+                //The VertexBuffer still references the old buffer until
+                //updateOffsets() hands it the new one.
+                if (offsets.getData() != data) {
+                    BufferUtils.destroyDirectBuffer(data);
+                }
+                data = tmp;
+            }
+            data.put(x).put(y).put(blockU).put(blockV);
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            count++;
+        }
+        
+        private void updateOffsets() {
+            data.flip();
+            Buffer old = offsets.getData();
+            if (old == null) {
+                offsets.setupData(VertexBuffer.Usage.Dynamic, 4, VertexBuffer.Format.Float, data);
+            } else {
+                //updateData() also handles a buffer that grew in add()
+                offsets.updateData(data);
+                if (old != data) {
+                    BufferUtils.destroyDirectBuffer(old);
+                }
+            }
+            
+            MeshGlyf glyf = (MeshGlyf)getMesh();
+            Vector3f min = new Vector3f(glyf.getMinX() + minX, glyf.getMinY() + minY, 0);
+            Vector3f max = new Vector3f(glyf.getMaxX() + maxX, glyf.getMaxY() + maxY, 0);
+            bounds.setMinMax(min, max);
+            setBoundRefresh();
+        }
+        
+        @Override
+        public int getNumVisibleInstances() {
+            return count;
+        }
+        
+        @Override
+        public VertexBuffer[] getAllInstanceData() {
+            return instanceData;
+        }
+        
+        @Override
+        protected void updateWorldBound() {
+            super.updateWorldBound();
+            worldBound = bounds.transform(worldTransform, worldBound);
+        }
+    }
+    
     /**
      * A helper class that tracks information necessary to determine where in the
      * text each {@link TextMesh} should start and end.
@@ -163,14 +461,17 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
         public final int startIndex;
         public final int endIndex;
         public final int numVerts;
+        public final int numIndices;
         
         private TextSnippet(final int startLine, final int endLine, final int startIndex,
-                final int endIndex, final int numVerts, final int indexOffset) {
+                final int endIndex, final int numVerts, final int numIndices,
+                final int indexOffset) {
             this.startLine = startLine;
             this.endLine = endLine;
             this.startIndex = startIndex;
             this.endIndex = endIndex;
             this.numVerts = numVerts;
+            this.numIndices = numIndices;
         }
     }
     
@@ -180,23 +481,52 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
      * @author Adam T. Ryder
      */
     private class TextMesh extends Mesh {
+        private FloatBuffer verts;
+        private FloatBuffer tex1;
+        private FloatBuffer tex2;
+        //Tex3 covers each character
+        private FloatBuffer tex3;
+        //Tex4 covers each line
+        private FloatBuffer tex4;
+        //Tex5 covers the whole text block
+        private FloatBuffer tex5;
+        private IndexBuffer indices;
+        private int vertCapacity = -1;
+        private int indexCapacity = -1;
+        
+        private final LayoutSnapshot snapshot = new LayoutSnapshot();
+        
+        /**
+         * Writes the glyphs covered by the supplied {@link TextSnippet} into
+         * the mesh. When the snippet covers the whole text and the mesh was
+         * built before, glyphs that are unchanged since the last call, and
+         * are preceded only by unchanged glyphs on unchanged lines, are left
+         * as they are in the buffers. If only the size of the text changed
+         * their position and block coordinates are rewritten.
+         */
         public Vector2f createMesh(final GlyphMesh[][] lines, final TextSnippet snippet,
                 final float[] lineWidths, final Vector2f[] lineHeights, final float width,
                 final float height, final float yOffset, final Vector2f currentXY) {
-            FloatBuffer verts = BufferUtils.createFloatBuffer(snippet.numVerts * 3);
-            FloatBuffer tex1 = BufferUtils.createFloatBuffer(snippet.numVerts * 2);
-            FloatBuffer tex2 = BufferUtils.createFloatBuffer(tex1.capacity());
-            //Tex3 covers each character
-            FloatBuffer tex3 = BufferUtils.createFloatBuffer(tex2.capacity());
-            //Tex4 covers each line
-            FloatBuffer tex4 = BufferUtils.createFloatBuffer(tex3.capacity());
-            //Tex5 covers the whole text block
-            FloatBuffer tex5 = BufferUtils.createFloatBuffer(tex4.capacity());
-            ShortBuffer indices = BufferUtils.createShortBuffer(snippet.numVerts);
+            int dirty = 0;
+            float oldWidth = snapshot.getWidth();
+            float oldHeight = snapshot.getHeight();
+            if (snippet.startLine == 0 && snippet.startIndex == 0
+                    && snippet.endLine == lines.length - 1) {
+                //yOffset is derived from the height and vertical alignment
+                dirty = snapshot.update(lines, lineWidths, lineHeights, width, height,
+                        kerning, hAlign, vAlign, 0);
+            } else {
+                snapshot.invalidate();
+            }
+            if (reserve(snippet.numVerts, snippet.numIndices)) {
+                dirty = 0;
+            }
+            boolean resized = width != oldWidth || height != oldHeight;
             
             float startX = currentXY.x;
             float currentY = currentXY.y;
-            short currentIndex = 0;
+            int currentIndex = 0;
+            int glyphIndex = 0;
             int startIndex = snippet.startIndex;
             lineLoop: for (int i = snippet.startLine; i <= snippet.endLine; i++) {
                 float currentX = startX;
@@ -223,10 +553,18 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
                     }
                     
                     GlyphMesh glyph = lines[i][n];
+                    boolean unchanged = glyphIndex++ < dirty;
                     if (glyph.codePoint == ' ') {
                         currentX += glyph.getXAdvance() + kerning;
                         continue;
                     }
+                    if (unchanged && !resized) {
+                        skipGlyph(glyph.getMesh().getVertexCount(),
+                                glyph.getMesh().getTriangleCount() * 3);
+                        currentX += glyph.getXAdvance() + kerning;
+                        currentIndex += glyph.getMesh().getVertexCount();
+                        continue;
+                    }
                     
                     FloatBuffer gverts = glyph.getMesh().getFloatBuffer(VertexBuffer.Type.Position);
                     gverts.clear();
@@ -247,6 +585,15 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
                         verts.put(x2 + xOffset);
                         verts.put(y2 + yOffset);
                         verts.put(gverts.get());
+                        if (hAlign == Align.Center) {
+                            tex5.put((x2 + ((width / 2) - (lineWidths[i] / 2))) / width);
+                        } else {
+                            tex5.put((x2 + xOffset) / width);
+                        }
+                        tex5.put(1f - (y2 / -height));
+                        if (unchanged) {
+                            continue;
+                        }
                         
                         tex1.put(gtex1.get());
                         tex1.put(gtex1.get());
@@ -256,14 +603,13 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
                         tex3.put((y - (glyph.getDescender() * ttm.getScale())) / h);
                         tex4.put(x2 / lineWidths[i]);
                         tex4.put((y - lineY.y) / lineHeight);
-                        if (hAlign == Align.Center) {
-                            tex5.put((x2 + ((width / 2) - (lineWidths[i] / 2))) / width);
-                        } else {
-                            tex5.put((x2 + xOffset) / width);
+                    }
+                    if (unchanged) {
+                        skipCoords(glyph.getMesh().getVertexCount(), gindices.remaining());
+                    } else {
+                        while (gindices.hasRemaining()) {
+                            indices.put(gindices.get() + currentIndex);
                         }
-                        tex5.put(1f - (y2 / -height));
-                        
-                        indices.put((short)(gindices.get() + currentIndex));
                     }
                     
                     currentX += glyph.getXAdvance() + kerning;
@@ -278,18 +624,96 @@ public class TrueTypeMeshText extends TrueTypeNode<GlyphMesh> {
                 currentY += ttm.getScaledLineHeight();
             }
             
-            setBuffer(VertexBuffer.Type.Position, 3, verts);
-            setBuffer(VertexBuffer.Type.TexCoord, 2, tex1);
-            setBuffer(VertexBuffer.Type.TexCoord2, 2, tex2);
-            setBuffer(VertexBuffer.Type.TexCoord3, 2, tex3);
-            setBuffer(VertexBuffer.Type.TexCoord4, 2, tex4);
-            setBuffer(VertexBuffer.Type.TexCoord5, 2, tex5);
-            setBuffer(VertexBuffer.Type.Index, 3, indices);
+            putBuffer(VertexBuffer.Type.Position, 3, VertexBuffer.Format.Float, verts);
+            putBuffer(VertexBuffer.Type.TexCoord, 2, VertexBuffer.Format.Float, tex1);
+            putBuffer(VertexBuffer.Type.TexCoord2, 2, VertexBuffer.Format.Float, tex2);
+            putBuffer(VertexBuffer.Type.TexCoord3, 2, VertexBuffer.Format.Float, tex3);
+            putBuffer(VertexBuffer.Type.TexCoord4, 2, VertexBuffer.Format.Float, tex4);
+            putBuffer(VertexBuffer.Type.TexCoord5, 2, VertexBuffer.Format.Float, tex5);
+            putBuffer(VertexBuffer.Type.Index, 3, indices.getFormat(), indices.getBuffer());
+            updateCounts();
             
             clearCollisionData();
             updateBound();
             
             return currentXY;
         }
+        
+        /**
+         * Makes sure the mesh's buffers can hold at least the specified
+         * number of vertices and indices and rewinds them for writing.
+         * Buffers are only replaced when they are too small, in which case
+         * their capacity is at least doubled.
+         * 
+         * @param numVerts the number of vertices to be written
+         * @param numIndices the number of indices to be written
+         * @return True if the buffers were replaced and must be rewritten
+         * entirely.
+         */
+        private boolean reserve(int numVerts, int numIndices) {
+            boolean replaced = false;
+            if (numVerts > vertCapacity || numIndices > indexCapacity) {
+                vertCapacity = Math.min(Math.max(numVerts, vertCapacity * 2), MAX_VERTICES);
+                indexCapacity = Math.max(numIndices, indexCapacity * 2);
+                verts = BufferUtils.createFloatBuffer(vertCapacity * 3);
+                tex1 = BufferUtils.createFloatBuffer(vertCapacity * 2);
+                tex2 = BufferUtils.createFloatBuffer(vertCapacity * 2);
+                tex3 = BufferUtils.createFloatBuffer(vertCapacity * 2);
+                tex4 = BufferUtils.createFloatBuffer(vertCapacity * 2);
+                tex5 = BufferUtils.createFloatBuffer(vertCapacity * 2);
+                indices = IndexBuffer.createIndexBuffer(vertCapacity, indexCapacity);
+                replaced = true;
+            }
+            
+            verts.clear().limit(numVerts * 3);
+            tex1.clear().limit(numVerts * 2);
+            tex2.clear().limit(numVerts * 2);
+            tex3.clear().limit(numVerts * 2);
+            tex4.clear().limit(numVerts * 2);
+            tex5.clear().limit(numVerts * 2);
+            indices.getBuffer().clear().limit(numIndices);
+            
+            return replaced;
+        }
+        
+        /**
+         * Advances the buffers past a glyph that does not need to be
+         * rewritten.
+         * 
+         * @param numVerts the number of vertices in the glyph
+         * @param numIndices the number of indices in the glyph
+         */
+        private void skipGlyph(int numVerts, int numIndices) {
+            verts.position(verts.position() + numVerts * 3);
+            tex5.position(tex5.position() + numVerts * 2);
+            skipCoords(numVerts, numIndices);
+        }
+        
+        /**
+         * Advances the buffers that do not depend on the size of the text past
+         * a glyph that does not need to be rewritten.
+         * 
+         * @param numVerts the number of vertices in the glyph
+         * @param numIndices the number of indices in the glyph
+         */
+        private void skipCoords(int numVerts, int numIndices) {
+            tex1.position(tex1.position() + numVerts * 2);
+            tex2.position(tex2.position() + numVerts * 2);
+            tex3.position(tex3.position() + numVerts * 2);
+            tex4.position(tex4.position() + numVerts * 2);
+            indices.getBuffer().position(indices.getBuffer().position() + numIndices);
+        }
+        
+        private void putBuffer(VertexBuffer.Type type, int components,
+                VertexBuffer.Format format, Buffer data) {
+            data.flip();
+            VertexBuffer vb = getBuffer(type);
+            if (vb == null || vb.getFormat() != format) {
+                clearBuffer(type);
+                setBuffer(type, components, format, data);
+            } else {
+                vb.updateData(data);
+            }
+        }
     }
 }
@@ -16,16 +16,22 @@ package com.atr.jme.font.shape;
 
 import com.atr.jme.font.TrueTypeBMP;
 import com.atr.jme.font.glyph.GlyphBMP;
+import com.atr.jme.font.util.AtlasUploadControl;
 import com.atr.jme.font.util.StringContainer.Align;
 import com.atr.jme.font.util.StringContainer.VAlign;
+import com.jme3.material.MatParamOverride;
 import com.jme3.material.Material;
 import com.jme3.math.Vector2f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
+import com.jme3.scene.Spatial;
 import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.shader.VarType;
+import com.jme3.texture.Image;
 import com.jme3.util.BufferUtils;
+import java.nio.Buffer;
 import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
 
 /**
  * An implementation of {@link TrueTypeNode} used for
@@ -37,13 +43,16 @@ import java.nio.ShortBuffer;
 public class TrueTypeText extends TrueTypeNode<GlyphBMP> {
     TrueTypeBMP ttb;
     
+    private int fixedCapacity;
+    
     public TrueTypeText(TrueTypeBMP ttb, GlyphBMP[][] glyphs, int kerning,
             Align hAlign, VAlign vAlign, Material material) {
         super(glyphs, kerning, hAlign, vAlign, material);
         
         this.ttb = ttb;
+        addControl(new AtlasUploadControl(ttb));
         
-        attachChild(new Geometry("TrueTypeText", new BMPMesh()));
+        updateGeometry();
         setMaterial(material);
     }
     
@@ -52,9 +61,116 @@ public class TrueTypeText extends TrueTypeNode<GlyphBMP> {
         setGlyphs(ttb.getGlyphMatrix(text));
     }
     
+    @Override
+    public void setMaterial(Material material) {
+        super.setMaterial(material);
+        applyPageMaterials();
+    }
+    
+    /**
+     * Sets a fixed character capacity for each page of this text. When set,
+     * the mesh buffers are allocated for at least this many characters up
+     * front and keep the same size as the text changes, unused characters
+     * being written as degenerate quads. This avoids re-specifying the
+     * buffers on the GPU for texts that are updated frequently, such as
+     * counters or chat lines. If the text outgrows the capacity the buffers
+     * are enlarged. Takes effect on the next call to
+     * {@link #updateGeometry()}.
+     * 
+     * @param fixedCapacity the number of characters, or 0 to size the buffers
+     * to the text
+     * 
+     * @see #updateGeometry() 
+     */
+    public void setFixedCapacity(int fixedCapacity) {
+        this.fixedCapacity = Math.max(fixedCapacity, 0);
+    }
+    
+    /**
+     * 
+     * @return the fixed character capacity or 0 if none is set
+     * 
+     * @see #setFixedCapacity(int) 
+     */
+    public int getFixedCapacity() {
+        return fixedCapacity;
+    }
+    
+    /**
+     * Updates the text's geometry. One {@code Geometry} is created for each
+     * texture atlas page used by the text.
+     * 
+     * @see TrueTypeBMP#setMaxAtlasPages(int) 
+     */
     @Override
     public void updateGeometry() {
-        ((BMPMesh)((Geometry)getChild(0)).getMesh()).updateMesh();
+        boolean[] used = new boolean[Math.max(ttb.getPageCount(), 1)];
+        for (GlyphBMP[] line : glyphs) {
+            for (GlyphBMP glyph : line) {
+                if (glyph.codePoint != ' ') {
+                    used[glyph.page] = true;
+                }
+            }
+        }
+        
+        boolean empty = true;
+        for (boolean u : used) {
+            empty &= !u;
+        }
+        if (empty) {
+            used[0] = true;
+        }
+        
+        int numPages = 0;
+        boolean unchanged = true;
+        for (int page = 0; page < used.length; page++) {
+            if (!used[page]) {
+                continue;
+            }
+            if (numPages >= getQuantity()
+                    || ((BMPMesh)((Geometry)getChild(numPages)).getMesh()).page != page) {
+                unchanged = false;
+            }
+            numPages++;
+        }
+        
+        if (unchanged && numPages == getQuantity()) {
+            for (Spatial child : getChildren()) {
+                ((BMPMesh)((Geometry)child).getMesh()).updateMesh();
+            }
+            return;
+        }
+        
+        detachAllChildren();
+        for (int page = 0; page < used.length; page++) {
+            if (used[page]) {
+                attachChild(new Geometry("TrueTypeText", new BMPMesh(page)));
+            }
+        }
+        applyPageMaterials();
+    }
+    
+    /**
+     * Assigns a material to each child {@code Geometry}. Every geometry shares
+     * this text's material, so changes made to it apply to all pages. If the
+     * font has more than one atlas page each geometry overrides the material's
+     * texture with the appropriate page.
+     */
+    private void applyPageMaterials() {
+        if (mat == null) {
+            return;
+        }
+        
+        for (Spatial child : getChildren()) {
+            Geometry geom = (Geometry)child;
+            geom.setMaterial(mat);
+            geom.clearMatParamOverrides();
+            if (ttb.getPageCount() > 1
+                    && mat.getMaterialDef().getMaterialParam("Texture") != null) {
+                geom.addMatParamOverride(new MatParamOverride(VarType.Texture2D, "Texture",
+                        ttb.getAtlas(((BMPMesh)geom.getMesh()).page)));
+            }
+        }
     }
     
     /**
@@ -63,10 +179,31 @@ public class TrueTypeText extends TrueTypeNode<GlyphBMP> {
      * @author Adam T. Ryder
      */
     private class BMPMesh extends Mesh {
-        private BMPMesh() {
+        private final int page;
+        
+        private FloatBuffer verts;
+        private FloatBuffer tex1;
+        private FloatBuffer tex2;
+        private FloatBuffer tex3;
+        private FloatBuffer tex4;
+        private IndexBuffer indices;
+        private int capacity;
+        private int written;
+        private boolean padded;
+        
+        private final LayoutSnapshot snapshot = new LayoutSnapshot();
+        
+        private BMPMesh(int page) {
+            this.page = page;
             updateMesh();
         }
         
+        /**
+         * Updates the mesh to reflect the text's current glyphs. Characters
+         * that are unchanged since the last update, and are preceded only by
+         * unchanged characters on unchanged lines, are left as they are in
+         * the buffers; only the remainder of the text is rewritten.
+         */
         public void updateMesh() {
             int numChars = 0;
             float[] widths = new float[glyphs.length];
@@ -93,7 +230,7 @@ public class TrueTypeText extends TrueTypeNode<GlyphBMP> {
                     if (glyph.getDescender() < lineHeight.y) {
                         lineHeight.y = glyph.getDescender();
                     }
-                    if (glyph.codePoint != ' ') {
+                    if (glyph.codePoint != ' ' && glyph.page == page) {
                         numChars++;
                     }
                 }
@@ -106,12 +243,18 @@ public class TrueTypeText extends TrueTypeNode<GlyphBMP> {
                 }
             }
 
-            FloatBuffer verts = BufferUtils.createFloatBuffer(numChars * 12);
-            FloatBuffer tex1 = BufferUtils.createFloatBuffer(numChars * 8);
-            FloatBuffer tex2 = BufferUtils.createFloatBuffer(tex1.capacity());
-            FloatBuffer tex3 = BufferUtils.createFloatBuffer(tex2.capacity());
-            FloatBuffer tex4 = BufferUtils.createFloatBuffer(tex3.capacity());
-            ShortBuffer indices = BufferUtils.createShortBuffer(numChars * 6);
+            Image atlas = ttb.getAtlas(page).getImage();
+            float oldWidth = snapshot.getWidth();
+            float oldHeight = snapshot.getHeight();
+            int dirty = snapshot.update(glyphs, widths, lineHeights, width, height,
+                    kerning, hAlign, vAlign,
+                    ((long)atlas.getWidth() << 32) | atlas.getHeight());
+            if (reserve(numChars)) {
+                dirty = 0;
+            }
+            //Unchanged characters only need their block coordinates, and
+            //position if aligned to the size of the text, rewritten.
+            boolean resized = width != oldWidth || height != oldHeight;
 
             float currentY = ttb.getScaledAscender();
             float yOffset = 0;
@@ -122,8 +265,9 @@ public class TrueTypeText extends TrueTypeNode<GlyphBMP> {
                 case Bottom:
                     yOffset = height;
             }
-            int padding = ttb.padding / 2;
-            short currentIndex = 0;
+            int currentIndex = 0;
+            int glyphIndex = 0;
+            int clean = 0;
             count = 0;
             for (GlyphBMP[] line : glyphs) {
                 int currentX = 0;
@@ -135,111 +279,38 @@ public class TrueTypeText extends TrueTypeNode<GlyphBMP> {
                     case Right:
                         xOffset = width - widths[count];
                 }
+                float blockOffset = (hAlign == Align.Center)
+                        ? ((width / 2) - (widths[count] / 2)) : xOffset;
                 
                 Vector2f lineY = lineHeights[count];
                 float lineHeight = lineY == null ? 0 : lineY.x - lineY.y;
                 for (GlyphBMP glyph : line) {
-                    if (glyph.codePoint == ' ') {
+                    boolean unchanged = glyphIndex++ < dirty;
+                    if (glyph.codePoint == ' ' || glyph.page != page) {
                         currentX += glyph.getXAdvance() + kerning;
                         continue;
                     }
-                    float w = glyph.getWidth();
-                    float h = glyph.getHeight();
-
-                    //lower left
-                    float x = currentX + glyph.getXOffset();
-                    float y = glyph.getYOffset();
-                    verts.put(((x - padding) * ttb.getScale()) + xOffset);
-                    verts.put(((y - padding) * ttb.getScale()) + yOffset - currentY);
-                    verts.put(0);
-                    
-                    x *= ttb.getScale();
-                    y *= ttb.getScale();
-                    tex1.put(glyph.getLeftU());
-                    tex1.put(glyph.getBottomV());
-                    tex2.put(0);
-                    tex2.put(0);
-                    tex3.put(x / widths[count]);
-                    tex3.put((y - lineY.y) / lineHeight);
-                    if (hAlign == Align.Center) {
-                        tex4.put((x + ((width / 2) - (widths[count] / 2))) / width);
-                    } else {
-                        tex4.put((x + xOffset) / width);
-                    }
-                    tex4.put(1f - ((y - currentY) / -height));
-
-                    //lower right
-                    x = currentX + glyph.getXOffset() + glyph.atlasWidth;
-                    y = glyph.getYOffset();
-                    verts.put((x * ttb.getScale()) + xOffset);
-                    verts.put(((y - padding) * ttb.getScale()) + yOffset - currentY);
-                    verts.put(0);
-                    
-                    x *= ttb.getScale();
-                    y *= ttb.getScale();
-                    tex1.put(glyph.getRightU());
-                    tex1.put(glyph.getBottomV());
-                    tex2.put(1);
-                    tex2.put(0);
-                    tex3.put(x / widths[count]);
-                    tex3.put((y - lineY.y) / lineHeight);
-                    if (hAlign == Align.Center) {
-                        tex4.put((x + ((width / 2) - (widths[count] / 2))) / width);
-                    } else {
-                        tex4.put((x + xOffset) / width);
-                    }
-                    tex4.put(1f - ((y - currentY) / -height));
-
-                    //Upper left
-                    x = currentX + glyph.getXOffset();
-                    y = glyph.getYOffset() + glyph.atlasHeight;
-                    verts.put(((x - padding) * ttb.getScale()) + xOffset);
-                    verts.put((y * ttb.getScale()) + yOffset - currentY);
-                    verts.put(0);
-                    
-                    x *= ttb.getScale();
-                    y *= ttb.getScale();
-                    tex1.put(glyph.getLeftU());
-                    tex1.put(glyph.getTopV());
-                    tex2.put(0);
-                    tex2.put(1);
-                    tex3.put(x / widths[count]);
-                    tex3.put((y - lineY.y) / lineHeight);
-                    if (hAlign == Align.Center) {
-                        tex4.put((x + ((width / 2) - (widths[count] / 2))) / width);
-                    } else {
-                        tex4.put((x + xOffset) / width);
-                    }
-                    tex4.put(1f - ((y - currentY) / -height));
-
-                    //Upper right
-                    x = currentX + glyph.getXOffset() + glyph.atlasWidth;
-                    y = glyph.getYOffset() + glyph.atlasHeight;
-                    verts.put((x * ttb.getScale()) + xOffset);
-                    verts.put((y * ttb.getScale()) + yOffset - currentY);
-                    verts.put(0);
-                    
-                    x *= ttb.getScale();
-                    y *= ttb.getScale();
-                    tex1.put(glyph.getRightU());
-                    tex1.put(glyph.getTopV());
-                    tex2.put(1);
-                    tex2.put(1);
-                    tex3.put(x / widths[count]);
-                    tex3.put((y - lineY.y) / lineHeight);
-                    if (hAlign == Align.Center) {
-                        tex4.put((x + ((width / 2) - (widths[count] / 2))) / width);
-                    } else {
-                        tex4.put((x + xOffset) / width);
+                    if (unchanged) {
+                        if (resized) {
+                            putQuad(glyph, currentX, xOffset, yOffset, currentY,
+                                    blockOffset, widths[count], lineY, lineHeight, false);
+                        } else {
+                            skipQuad();
+                        }
+                        currentX += glyph.getXAdvance() + kerning;
+                        currentIndex += 4;
+                        clean++;
+                        continue;
                     }
-                    tex4.put(1f - ((y - currentY) / -height));
+                    putQuad(glyph, currentX, xOffset, yOffset, currentY,
+                            blockOffset, widths[count], lineY, lineHeight, true);
 
                     indices.put(currentIndex);
-                    indices.put((short)(currentIndex + 1));
-                    indices.put((short)(currentIndex + 2));
-                    indices.put((short)(currentIndex + 2));
-                    indices.put((short)(currentIndex + 1));
-                    indices.put((short)(currentIndex + 3));
+                    indices.put(currentIndex + 1);
+                    indices.put(currentIndex + 2);
+                    indices.put(currentIndex + 2);
+                    indices.put(currentIndex + 1);
+                    indices.put(currentIndex + 3);
 
                     currentX += glyph.getXAdvance() + kerning;
                     currentIndex += 4;
@@ -249,15 +320,188 @@ public class TrueTypeText extends TrueTypeNode<GlyphBMP> {
                 currentY += ttb.getScaledLineHeight();
             }
 
-            setBuffer(VertexBuffer.Type.Position, 3, verts);
-            setBuffer(VertexBuffer.Type.TexCoord, 2, tex1);
-            setBuffer(VertexBuffer.Type.TexCoord2, 2, tex2);
-            setBuffer(VertexBuffer.Type.TexCoord3, 2, tex3);
-            setBuffer(VertexBuffer.Type.TexCoord4, 2, tex4);
-            setBuffer(VertexBuffer.Type.Index, 3, indices);
+            commit(numChars, clean);
             
             clearCollisionData();
             updateBound();
         }
+        
+        /**
+         * Writes the four corners of a character's quad, lower left, lower
+         * right, upper left and upper right.
+         * 
+         * @param all False to write only the position and block coordinates
+         * of a character that is otherwise unchanged, the other buffers are
+         * skipped.
+         */
+        private void putQuad(GlyphBMP glyph, int currentX, float xOffset, float yOffset,
+                float currentY, float blockOffset, float lineWidth, Vector2f lineY,
+                float lineHeight, boolean all) {
+            int padding = ttb.padding / 2;
+            float left = currentX + glyph.getXOffset();
+            float right = currentX + glyph.getXOffset() + glyph.atlasWidth;
+            float bottom = glyph.getYOffset();
+            float top = glyph.getYOffset() + glyph.atlasHeight;
+            
+            putCorner(left - padding, bottom - padding, left, bottom, xOffset, yOffset,
+                    currentY, blockOffset);
+            putCorner(right, bottom - padding, right, bottom, xOffset, yOffset,
+                    currentY, blockOffset);
+            putCorner(left - padding, top, left, top, xOffset, yOffset,
+                    currentY, blockOffset);
+            putCorner(right, top, right, top, xOffset, yOffset,
+                    currentY, blockOffset);
+            if (!all) {
+                tex1.position(tex1.position() + 8);
+                tex2.position(tex2.position() + 8);
+                tex3.position(tex3.position() + 8);
+                indices.getBuffer().position(indices.getBuffer().position() + 6);
+                return;
+            }
+            
+            tex1.put(glyph.getLeftU()).put(glyph.getBottomV());
+            tex1.put(glyph.getRightU()).put(glyph.getBottomV());
+            tex1.put(glyph.getLeftU()).put(glyph.getTopV());
+            tex1.put(glyph.getRightU()).put(glyph.getTopV());
+            tex2.put(0).put(0);
+            tex2.put(1).put(0);
+            tex2.put(0).put(1);
+            tex2.put(1).put(1);
+            putLineCoord(left, bottom, lineWidth, lineY, lineHeight);
+            putLineCoord(right, bottom, lineWidth, lineY, lineHeight);
+            putLineCoord(left, top, lineWidth, lineY, lineHeight);
+            putLineCoord(right, top, lineWidth, lineY, lineHeight);
+        }
+        
+        private void putCorner(float vx, float vy, float x, float y, float xOffset,
+                float yOffset, float currentY, float blockOffset) {
+            verts.put((vx * ttb.getScale()) + xOffset);
+            verts.put((vy * ttb.getScale()) + yOffset - currentY);
+            verts.put(0);
+            
+            x *= ttb.getScale();
+            y *= ttb.getScale();
+            tex4.put((x + blockOffset) / width);
+            tex4.put(1f - ((y - currentY) / -height));
+        }
+        
+        private void putLineCoord(float x, float y, float lineWidth, Vector2f lineY,
+                float lineHeight) {
+            x *= ttb.getScale();
+            y *= ttb.getScale();
+            tex3.put(x / lineWidth);
+            tex3.put((y - lineY.y) / lineHeight);
+        }
+        
+        /**
+         * Makes sure the mesh's buffers can hold at least the specified
+         * number of characters, or the fixed capacity if that is larger, and
+         * rewinds them for writing. Buffers are only replaced when they are
+         * too small, in which case the capacity is at least doubled.
+         * 
+         * @param numChars the number of characters to be written
+         * @return True if the buffers were replaced and must be rewritten
+         * entirely.
+         * 
+         * @see #setFixedCapacity(int) 
+         */
+        private boolean reserve(int numChars) {
+            boolean replaced = false;
+            int required = Math.max(numChars, fixedCapacity);
+            if (verts == null || required > capacity) {
+                capacity = verts == null || numChars <= fixedCapacity
+                        ? required : Math.max(required, capacity * 2);
+                verts = BufferUtils.createFloatBuffer(capacity * 12);
+                tex1 = BufferUtils.createFloatBuffer(capacity * 8);
+                tex2 = BufferUtils.createFloatBuffer(capacity * 8);
+                tex3 = BufferUtils.createFloatBuffer(capacity * 8);
+                tex4 = BufferUtils.createFloatBuffer(capacity * 8);
+                indices = IndexBuffer.wrapIndexBuffer(capacity * 4 > 65536
+                        ? BufferUtils.createIntBuffer(capacity * 6)
+                        : BufferUtils.createShortBuffer(capacity * 6));
+                replaced = true;
+            }
+            
+            verts.clear();
+            tex1.clear();
+            tex2.clear();
+            tex3.clear();
+            tex4.clear();
+            indices.getBuffer().clear();
+            
+            return replaced;
+        }
+        
+        /**
+         * Advances the buffers past a character that does not need to be
+         * rewritten.
+         */
+        private void skipQuad() {
+            verts.position(verts.position() + 12);
+            tex1.position(tex1.position() + 8);
+            tex2.position(tex2.position() + 8);
+            tex3.position(tex3.position() + 8);
+            tex4.position(tex4.position() + 8);
+            indices.getBuffer().position(indices.getBuffer().position() + 6);
+        }
+        
+        /**
+         * Flips the buffers written by {@link #updateMesh()} and hands them to
+         * the mesh. Existing {@code VertexBuffer}s are updated in place so the
+         * buffer objects on the GPU are reused. Each buffer is still uploaded
+         * whole, skipping unchanged characters only saves rewriting them.
+         * With a fixed capacity the unused characters are written as
+         * degenerate quads collapsed onto the first vertex, keeping the size
+         * of every buffer constant. Quads
+         * that were already degenerate and still collapse onto the same
+         * vertex are not rewritten.
+         * 
+         * @param numChars the number of characters written
+         * @param clean the number of leading characters that were left
+         * unchanged
+         */
+        private void commit(int numChars, int clean) {
+            if (fixedCapacity > 0) {
+                float x = numChars > 0 ? verts.get(0) : 0;
+                float y = numChars > 0 ? verts.get(1) : 0;
+                int end = clean > 0 && padded ? Math.max(written, numChars) : capacity;
+                for (int i = numChars * 4; i < end * 4; i++) {
+                    verts.put(x);
+                    verts.put(y);
+                    verts.put(0);
+                }
+                for (int i = numChars * 6; i < end * 6; i++) {
+                    indices.put(0);
+                }
+                verts.position(capacity * 12);
+                indices.getBuffer().position(capacity * 6);
+                tex1.position(capacity * 8);
+                tex2.position(capacity * 8);
+                tex3.position(capacity * 8);
+                tex4.position(capacity * 8);
+            }
+            
+            putBuffer(VertexBuffer.Type.Position, 3, VertexBuffer.Format.Float, verts);
+            putBuffer(VertexBuffer.Type.TexCoord, 2, VertexBuffer.Format.Float, tex1);
+            putBuffer(VertexBuffer.Type.TexCoord2, 2, VertexBuffer.Format.Float, tex2);
+            putBuffer(VertexBuffer.Type.TexCoord3, 2, VertexBuffer.Format.Float, tex3);
+            putBuffer(VertexBuffer.Type.TexCoord4, 2, VertexBuffer.Format.Float, tex4);
+            putBuffer(VertexBuffer.Type.Index, 3, indices.getFormat(), indices.getBuffer());
+            updateCounts();
+            written = numChars;
+            padded = fixedCapacity > 0;
+        }
+        
+        private void putBuffer(VertexBuffer.Type type, int components,
+                VertexBuffer.Format format, Buffer data) {
+            data.flip();
+            VertexBuffer vb = getBuffer(type);
+            if (vb == null || vb.getFormat() != format) {
+                clearBuffer(type);
+                setBuffer(type, components, format, data);
+            } else {
+                vb.updateData(data);
+            }
+        }
     }
 }
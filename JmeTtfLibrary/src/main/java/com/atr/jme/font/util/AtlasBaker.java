@@ -0,0 +1,148 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.util;
+
+import com.atr.jme.font.TrueTypeBMP;
+import com.atr.jme.font.TrueTypeBaked;
+import com.atr.jme.font.TrueTypeRaster;
+import com.atr.jme.font.asset.TrueTypeKeyBMP;
+import com.google.typography.font.sfntly.Font;
+import com.google.typography.font.sfntly.FontFactory;
+import com.jme3.asset.AssetManager;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * <p>Bakes the texture atlas and character metrics of a bitmap font into a
+ * single file that can be loaded with
+ * {@link com.atr.jme.font.asset.TrueTypeLoaderBaked}, so applications
+ * displaying a known set of characters don't need to parse the font file
+ * or rasterize characters at startup.</p>
+ * 
+ * <p>Can be run at build time from the command line:</p>
+ * 
+ * <pre>
+ * java com.atr.jme.font.util.AtlasBaker font.ttf out.ttfb pointSize characters.txt
+ *     [--style=Plain|Bold|Italic|BoldItalic] [--outline=n] [--dpi=n]
+ *     [--maxAtlasResolution=n] [--maxAtlasPages=n] [--compact]
+ * </pre>
+ * 
+ * <p>Where characters.txt is a UTF-8 text file containing the characters to
+ * bake. The command line uses {@link TrueTypeRaster} and does not require
+ * an {@code AssetManager}.</p>
+ * 
+ * @see TrueTypeBaked
+ */
+public class AtlasBaker {
+    
+    private AtlasBaker() {
+    }
+    
+    /**
+     * Loads a bitmap font, adds the supplied characters to its atlas and
+     * writes the result to a file.
+     * 
+     * @param assetManager An {@code AssetManager} with
+     * {@link com.atr.jme.font.asset.TrueTypeLoader} registered for the font's
+     * extension.
+     * @param key The key of the font to bake.
+     * @param characters The characters to bake, the default character and
+     * space are always included.
+     * @param file The file to write to.
+     * @throws IOException If the file could not be written.
+     */
+    public static void bake(AssetManager assetManager, TrueTypeKeyBMP key, String characters,
+            File file) throws IOException {
+        bake((TrueTypeBMP<?>)assetManager.loadAsset(key), characters, file);
+    }
+    
+    /**
+     * Adds the supplied characters to a bitmap font's atlas and writes the
+     * atlas and metrics of every character cached by the font to a file.
+     * 
+     * @param font The font to bake.
+     * @param characters The characters to bake.
+     * @param file The file to write to.
+     * @throws IOException If the file could not be written.
+     */
+    public static void bake(TrueTypeBMP<?> font, String characters, File file) throws IOException {
+        font.getGlyphs(characters);
+        try (OutputStream out = new FileOutputStream(file)) {
+            TrueTypeBaked.write(font, out);
+        }
+    }
+    
+    /**
+     * @param args font file, output file, point size, character file and
+     * options, see the class description.
+     * @throws IOException If the font could not be read or the baked font
+     * could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: AtlasBaker <font.ttf> <output> <pointSize> <characters.txt>"
+                    + " [--style=Plain|Bold|Italic|BoldItalic] [--outline=n] [--dpi=n]"
+                    + " [--maxAtlasResolution=n] [--maxAtlasPages=n] [--compact]");
+            System.exit(1);
+        }
+        
+        Style style = Style.Plain;
+        int outline = 0;
+        int dpi = 72;
+        int maxRes = 2048;
+        int maxPages = 1;
+        boolean compact = false;
+        for (int i = 4; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--compact")) {
+                compact = true;
+            } else if (arg.startsWith("--style=")) {
+                style = Style.valueOf(arg.substring(8));
+            } else if (arg.startsWith("--outline=")) {
+                outline = Integer.parseInt(arg.substring(10));
+            } else if (arg.startsWith("--dpi=")) {
+                dpi = Integer.parseInt(arg.substring(6));
+            } else if (arg.startsWith("--maxAtlasResolution=")) {
+                maxRes = Integer.parseInt(arg.substring(21));
+            } else if (arg.startsWith("--maxAtlasPages=")) {
+                maxPages = Integer.parseInt(arg.substring(16));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        
+        Font[] fonts;
+        try (InputStream in = new FileInputStream(args[0])) {
+            fonts = FontFactory.getInstance().loadFonts(in);
+        }
+        if (fonts.length == 0) {
+            throw new IOException("No fonts found in: " + args[0]);
+        }
+        String characters = new String(Files.readAllBytes(new File(args[3]).toPath()),
+                StandardCharsets.UTF_8);
+        
+        TrueTypeRaster font = new TrueTypeRaster(null, fonts[0], style,
+                Integer.parseInt(args[2]), outline, dpi, maxRes, "", false, compact,
+                new SkylinePacker());
+        font.setMaxAtlasPages(maxPages);
+        bake(font, characters.replaceAll("[\\r\\n]", ""), new File(args[1]));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.util;
+
+/**
+ * <p>A strategy used by {@link com.atr.jme.font.TrueTypeBMP} to decide where
+ * new characters are placed in the texture atlas.</p>
+ * 
+ * <p>Placements are permanent, once a character has been packed its location
+ * must remain valid for as long as the packer is in use, including after the
+ * atlas has been resized.</p>
+ * 
+ * @see RowPacker
+ * @see SkylinePacker
+ */
+public interface AtlasPacker {
+    /**
+     * Called when the texture atlas is created and every time it grows.
+     * The atlas never shrinks.
+     * 
+     * @param width The new width of the atlas.
+     * @param height The new height of the atlas.
+     * @param lineHeight The height of the tallest character the font can
+     * produce.
+     */
+    public void resize(int width, int height, int lineHeight);
+    
+    /**
+     * Discards all reserved areas and the atlas dimensions. Called when a
+     * new, empty, atlas page is started, {@link #resize(int, int, int)} will
+     * be called afterwards.
+     */
+    public void reset();
+    
+    /**
+     * Attempts to reserve an area of the texture atlas. If successful the
+     * location of the reserved area can be retrieved with {@link #getX()}
+     * and {@link #getY()}.
+     * 
+     * @param width The width of the area.
+     * @param height The height of the area.
+     * @return True if the area was reserved, false if there is no room
+     * in the atlas.
+     */
+    public boolean pack(int width, int height);
+    
+    /**
+     * 
+     * @return The x-axis location of the last area reserved with
+     * {@link #pack(int, int)}.
+     */
+    public int getX();
+    
+    /**
+     * 
+     * @return The y-axis location of the last area reserved with
+     * {@link #pack(int, int)}.
+     */
+    public int getY();
+    
+    /**
+     * 
+     * @return The total area, in pixels, of all reserved areas.
+     */
+    public long getUsedArea();
+}
@@ -0,0 +1,75 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.util;
+
+import com.atr.jme.font.TrueTypeBMP;
+import com.jme3.renderer.RenderManager;
+import com.jme3.renderer.ViewPort;
+import com.jme3.scene.control.AbstractControl;
+
+/**
+ * Uploads the areas of a font's texture atlas that were modified in place
+ * whenever the {@code Spatial} it is attached to is rendered. Text created by
+ * a {@link TrueTypeBMP} font carries one of these controls, so characters
+ * added with {@link TrueTypeBMP#setIncrementalAtlas(boolean)} enabled appear
+ * without further action. Attach one to any other {@code Spatial} displaying
+ * characters from the font's atlas.
+ * 
+ * @see TrueTypeBMP#uploadAtlasUpdates(com.jme3.renderer.Renderer)
+ */
+public class AtlasUploadControl extends AbstractControl {
+    private TrueTypeBMP font;
+    
+    /**
+     * For serialization only. Do not use.
+     */
+    public AtlasUploadControl() {
+    }
+    
+    /**
+     * 
+     * @param font The font whose atlas updates are uploaded.
+     */
+    public AtlasUploadControl(TrueTypeBMP font) {
+        this.font = font;
+    }
+    
+    /**
+     * 
+     * @param font The font whose atlas updates are uploaded.
+     */
+    public void setFont(TrueTypeBMP font) {
+        this.font = font;
+    }
+    
+    /**
+     * 
+     * @return The font whose atlas updates are uploaded.
+     */
+    public TrueTypeBMP getFont() {
+        return font;
+    }
+    
+    @Override
+    protected void controlUpdate(float tpf) {
+    }
+    
+    @Override
+    protected void controlRender(RenderManager rm, ViewPort vp) {
+        if (font != null && font.isIncrementalAtlas()) {
+            font.uploadAtlasUpdates(rm.getRenderer());
+        }
+    }
+}
@@ -61,7 +61,9 @@ public class BlurTextBMP extends BlurText {
             atlasHeight = ttb.getAtlas().getImage().getHeight();
             geom.updateGeometry();
         }
-        geom.getMaterial().setTexture("Texture", ttb.getAtlas());
+        if (ttb.getPageCount() <= 1) {
+            geom.getMaterial().setTexture("Texture", ttb.getAtlas());
+        }
         if (ttb.getOutline() > 0) {
             geom.getMaterial().setColor("Outline", color);
         }
@@ -0,0 +1,247 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.util;
+
+import com.atr.jme.font.glyph.Glyph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>A map of Unicode code points to {@link Glyph}s that does not box its keys.
+ * Characters in the Basic Multilingual Plane are stored in a directly indexed
+ * table allocated in blocks of 256 characters as they are needed. All other
+ * characters are stored in an open addressing hash table.</p>
+ * 
+ * <p>Lookups do not lock and may be performed from any thread. Modifications
+ * are serialized.</p>
+ * 
+ * @param <T> The type of {@code Glyph} stored.
+ */
+public class GlyphCache<T extends Glyph> {
+    private static final int BMP_SIZE = 0x10000;
+    private static final int BLOCK_SHIFT = 8;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> blocks
+            = new AtomicReferenceArray<>(BMP_SIZE >> BLOCK_SHIFT);
+    
+    /*
+     * Characters outside of the BMP are rare, characters are added to the
+     * table in place and it is only copied when it grows or a character
+     * is removed.
+     */
+    private volatile Table<T> table = new Table<>(16);
+    
+    private int size = 0;
+    
+    /**
+     * Gets the glyph for a character.
+     * 
+     * @param codePoint The Unicode code point of the character.
+     * @return The glyph for the character or null if it is not in the cache.
+     */
+    public T get(int codePoint) {
+        if (codePoint >= 0 && codePoint < BMP_SIZE) {
+            AtomicReferenceArray<T> block = blocks.get(codePoint >> BLOCK_SHIFT);
+            return (block == null) ? null : block.get(codePoint & BLOCK_MASK);
+        }
+        
+        return table.get(codePoint);
+    }
+    
+    /**
+     * 
+     * @param codePoint The Unicode code point of the character.
+     * @return True if the cache contains a glyph for the character.
+     */
+    public boolean containsKey(int codePoint) {
+        return get(codePoint) != null;
+    }
+    
+    /**
+     * Adds a glyph to the cache replacing any glyph already stored for the
+     * same character.
+     * 
+     * @param codePoint The Unicode code point of the character.
+     * @param glyph The glyph to store, not null.
+     */
+    public synchronized void put(int codePoint, T glyph) {
+        if (codePoint >= 0 && codePoint < BMP_SIZE) {
+            int b = codePoint >> BLOCK_SHIFT;
+            AtomicReferenceArray<T> block = blocks.get(b);
+            if (block == null) {
+                block = new AtomicReferenceArray<>(BLOCK_SIZE);
+                blocks.set(b, block);
+            }
+            if (block.getAndSet(codePoint & BLOCK_MASK, glyph) == null) {
+                size++;
+            }
+            return;
+        }
+        
+        Table<T> t = table;
+        if ((t.size + 1) * 2 > t.keys.length) {
+            t = t.copy(t.keys.length * 2);
+            table = t;
+        }
+        if (t.put(codePoint, glyph)) {
+            size++;
+        }
+    }
+    
+    /**
+     * Removes a character from the cache.
+     * 
+     * @param codePoint The Unicode code point of the character.
+     * @return The glyph that was removed or null if the character was not
+     * in the cache.
+     */
+    public synchronized T remove(int codePoint) {
+        T old;
+        if (codePoint >= 0 && codePoint < BMP_SIZE) {
+            AtomicReferenceArray<T> block = blocks.get(codePoint >> BLOCK_SHIFT);
+            old = (block == null) ? null : block.getAndSet(codePoint & BLOCK_MASK, null);
+        } else {
+            Table<T> t = table;
+            old = t.get(codePoint);
+            if (old != null) {
+                Table<T> copy = new Table<>(t.keys.length);
+                for (int i = 0; i < t.keys.length; i++) {
+                    T glyph = t.values.get(i);
+                    if (glyph != null && t.keys[i] != codePoint) {
+                        copy.put(t.keys[i], glyph);
+                    }
+                }
+                table = copy;
+            }
+        }
+        
+        if (old != null) {
+            size--;
+        }
+        return old;
+    }
+    
+    /**
+     * Removes all characters from the cache.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < blocks.length(); i++) {
+            blocks.set(i, null);
+        }
+        table = new Table<>(16);
+        size = 0;
+    }
+    
+    /**
+     * 
+     * @return The number of characters in the cache.
+     */
+    public synchronized int size() {
+        return size;
+    }
+    
+    /**
+     * Gets a snapshot of the glyphs currently in the cache. Changes made to the
+     * cache after this method returns are not reflected in the returned list.
+     * 
+     * @return A new list containing the cached glyphs.
+     */
+    public synchronized List<T> values() {
+        List<T> values = new ArrayList<>(size);
+        for (int b = 0; b < blocks.length(); b++) {
+            AtomicReferenceArray<T> block = blocks.get(b);
+            if (block == null) {
+                continue;
+            }
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                T glyph = block.get(i);
+                if (glyph != null) {
+                    values.add(glyph);
+                }
+            }
+        }
+        Table<T> t = table;
+        for (int i = 0; i < t.keys.length; i++) {
+            T glyph = t.values.get(i);
+            if (glyph != null) {
+                values.add(glyph);
+            }
+        }
+        
+        return values;
+    }
+    
+    /**
+     * An open addressing hash table using linear probing. Characters are only
+     * added, a key is written before its glyph is published so the table can
+     * be read while it is being added to.
+     */
+    private static class Table<T> {
+        private final int[] keys;
+        private final AtomicReferenceArray<T> values;
+        private int size = 0;
+        
+        private Table(int capacity) {
+            keys = new int[capacity];
+            values = new AtomicReferenceArray<>(capacity);
+        }
+        
+        private int index(int codePoint) {
+            return (codePoint * 0x9E3779B9) >>> 1 & (keys.length - 1);
+        }
+        
+        private T get(int codePoint) {
+            for (int i = index(codePoint);; i = (i + 1) & (keys.length - 1)) {
+                T glyph = values.get(i);
+                if (glyph == null) {
+                    return null;
+                }
+                if (keys[i] == codePoint) {
+                    return glyph;
+                }
+            }
+        }
+        
+        private boolean put(int codePoint, T glyph) {
+            for (int i = index(codePoint);; i = (i + 1) & (keys.length - 1)) {
+                if (values.get(i) == null) {
+                    keys[i] = codePoint;
+                    values.set(i, glyph);
+                    size++;
+                    return true;
+                }
+                if (keys[i] == codePoint) {
+                    values.set(i, glyph);
+                    return false;
+                }
+            }
+        }
+        
+        private Table<T> copy(int capacity) {
+            Table<T> copy = new Table<>(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                T glyph = values.get(i);
+                if (glyph != null) {
+                    copy.put(keys[i], glyph);
+                }
+            }
+            
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.util;
+
+/**
+ * A pure Java replacement for {@code android.graphics.Path} used by
+ * {@link com.atr.jme.font.TrueTypeRaster}. Quadratic B&eacute;zier curves
+ * are flattened into line segments as they are added and the resulting
+ * segments are stored in a single {@code float} array.
+ * 
+ * @see Rasterizer
+ */
+public class GlyphPath {
+    /**
+     * The maximum distance, in pixels, a flattened curve is allowed
+     * to deviate from the actual curve.
+     */
+    private static final float TOLERANCE = 0.2f;
+    
+    private float[] segments = new float[64];
+    private int numSegments = 0;
+    
+    private float startX;
+    private float startY;
+    private float lastX;
+    private float lastY;
+    
+    private float minX = Float.MAX_VALUE;
+    private float maxX = -Float.MAX_VALUE;
+    private float minY = Float.MAX_VALUE;
+    private float maxY = -Float.MAX_VALUE;
+    
+    /**
+     * Starts a new contour at the specified location. If the previous
+     * contour was not closed it will be closed.
+     * 
+     * @param x The x-axis location of the new contour's first point.
+     * @param y The y-axis location of the new contour's first point.
+     */
+    public void moveTo(float x, float y) {
+        close();
+        startX = x;
+        startY = y;
+        lastX = x;
+        lastY = y;
+        addBounds(x, y);
+    }
+    
+    /**
+     * Adds a line from the last point to the specified location.
+     * 
+     * @param x The x-axis location of the line's end point.
+     * @param y The y-axis location of the line's end point.
+     */
+    public void lineTo(float x, float y) {
+        addSegment(lastX, lastY, x, y);
+        lastX = x;
+        lastY = y;
+        addBounds(x, y);
+    }
+    
+    /**
+     * Adds a quadratic B&eacute;zier curve from the last point to the specified
+     * location.
+     * 
+     * @param cx The x-axis location of the control point.
+     * @param cy The y-axis location of the control point.
+     * @param x The x-axis location of the curve's end point.
+     * @param y The y-axis location of the curve's end point.
+     */
+    public void quadTo(float cx, float cy, float x, float y) {
+        float ddx = lastX - (2 * cx) + x;
+        float ddy = lastY - (2 * cy) + y;
+        int steps = Math.max(1, (int)Math.ceil(Math.sqrt(
+                Math.sqrt((ddx * ddx) + (ddy * ddy)) / (8 * TOLERANCE))));
+        
+        float x0 = lastX;
+        float y0 = lastY;
+        float px = x0;
+        float py = y0;
+        for (int i = 1; i < steps; i++) {
+            float t = (float)i / steps;
+            float mt = 1 - t;
+            float nx = (mt * mt * x0) + (2 * mt * t * cx) + (t * t * x);
+            float ny = (mt * mt * y0) + (2 * mt * t * cy) + (t * t * y);
+            addSegment(px, py, nx, ny);
+            px = nx;
+            py = ny;
+        }
+        addSegment(px, py, x, y);
+        
+        lastX = x;
+        lastY = y;
+        addBounds(cx, cy);
+        addBounds(x, y);
+    }
+    
+    /**
+     * Closes the current contour by adding a line from the last point
+     * to the contour's first point if they differ.
+     */
+    public void close() {
+        if (lastX != startX || lastY != startY) {
+            addSegment(lastX, lastY, startX, startY);
+        }
+        lastX = startX;
+        lastY = startY;
+    }
+    
+    private void addSegment(float x0, float y0, float x1, float y1) {
+        if (x0 == x1 && y0 == y1) {
+            return;
+        }
+        
+        int index = numSegments * 4;
+        if (index + 4 > segments.length) {
+            float[] tmp = new float[segments.length * 2];
+            System.arraycopy(segments, 0, tmp, 0, index);
+            segments = tmp;
+        }
+        segments[index] = x0;
+        segments[index + 1] = y0;
+        segments[index + 2] = x1;
+        segments[index + 3] = y1;
+        numSegments++;
+    }
+    
+    private void addBounds(float x, float y) {
+        if (x < minX) {
+            minX = x;
+        }
+        if (x > maxX) {
+            maxX = x;
+        }
+        if (y < minY) {
+            minY = y;
+        }
+        if (y > maxY) {
+            maxY = y;
+        }
+    }
+    
+    /**
+     * Gets the line segments that make up this path. Each segment occupies
+     * four consecutive values: x0, y0, x1, y1. Only the first
+     * {@code getSegmentCount() * 4} values are valid.
+     * 
+     * @return The segments of this path.
+     * 
+     * @see #getSegmentCount() 
+     */
+    public float[] getSegments() {
+        return segments;
+    }
+    
+    /**
+     * 
+     * @return The number of line segments in this path.
+     */
+    public int getSegmentCount() {
+        return numSegments;
+    }
+    
+    /**
+     * 
+     * @return True if this path contains no line segments.
+     */
+    public boolean isEmpty() {
+        return numSegments == 0;
+    }
+    
+    public float getMinX() {
+        return (minX > maxX) ? 0 : minX;
+    }
+    
+    public float getMaxX() {
+        return (minX > maxX) ? 0 : maxX;
+    }
+    
+    public float getMinY() {
+        return (minY > maxY) ? 0 : minY;
+    }
+    
+    public float getMaxY() {
+        return (minY > maxY) ? 0 : maxY;
+    }
+    
+    public float getWidth() {
+        return getMaxX() - getMinX();
+    }
+    
+    public float getHeight() {
+        return getMaxY() - getMinY();
+    }
+}
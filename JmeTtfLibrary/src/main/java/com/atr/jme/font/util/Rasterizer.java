@@ -0,0 +1,213 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.util;
+
+/**
+ * <p>A self-contained scanline rasterizer for {@link GlyphPath}s that does not
+ * depend on {@code android.graphics}.</p>
+ * 
+ * <p>For every pixel in the target area the rasterizer computes the signed
+ * distance from the pixel's center to the nearest edge of the path, negative
+ * inside the path and positive outside. Inside/outside is determined one
+ * scanline at a time using the non-zero winding rule and distances are only
+ * evaluated within {@code range} pixels of each edge. Anti-aliased coverage
+ * for filled, emboldened and stroked glyphs can then be derived from the
+ * distance with {@link #getFill(int, int, float)} and
+ * {@link #getStroke(int, int, float)}.</p>
+ * 
+ * <p>Instances re-use their internal buffers and are not thread safe.</p>
+ * 
+ * @see GlyphPath
+ */
+public class Rasterizer {
+    private float[] distance = new float[0];
+    private float[] crossX = new float[16];
+    private int[] crossDir = new int[16];
+    
+    private int width;
+    private int height;
+    
+    /**
+     * Rasterizes a path into an area of the specified dimensions.
+     * 
+     * @param path The path to rasterize.
+     * @param offsetX Amount to add to the x-axis location of the path's points.
+     * @param offsetY Amount to add to the y-axis location of the path's points.
+     * @param width The width of the area in pixels.
+     * @param height The height of the area in pixels.
+     * @param range The maximum distance from the path's edges, in pixels,
+     * that needs to be evaluated. Should be at least the largest value that
+     * will be supplied to {@link #getFill(int, int, float)} or
+     * {@link #getStroke(int, int, float)} plus one.
+     */
+    public void rasterize(GlyphPath path, float offsetX, float offsetY, int width,
+            int height, float range) {
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        if (distance.length < size) {
+            distance = new float[size];
+        }
+        
+        float range2 = range * range;
+        for (int i = 0; i < size; i++) {
+            distance[i] = range2;
+        }
+        
+        float[] segs = path.getSegments();
+        int numSegs = path.getSegmentCount() * 4;
+        
+        //Squared distance to the nearest edge, only evaluated in a band
+        //of range pixels around each edge.
+        for (int i = 0; i < numSegs; i += 4) {
+            float x0 = segs[i] + offsetX;
+            float y0 = segs[i + 1] + offsetY;
+            float x1 = segs[i + 2] + offsetX;
+            float y1 = segs[i + 3] + offsetY;
+            float dx = x1 - x0;
+            float dy = y1 - y0;
+            float len2 = (dx * dx) + (dy * dy);
+            
+            int startX = Math.max(0, (int)Math.floor(Math.min(x0, x1) - range));
+            int endX = Math.min(width - 1, (int)Math.ceil(Math.max(x0, x1) + range));
+            int startY = Math.max(0, (int)Math.floor(Math.min(y0, y1) - range));
+            int endY = Math.min(height - 1, (int)Math.ceil(Math.max(y0, y1) + range));
+            
+            for (int y = startY; y <= endY; y++) {
+                float ey = (y + 0.5f) - y0;
+                int row = y * width;
+                for (int x = startX; x <= endX; x++) {
+                    float ex = (x + 0.5f) - x0;
+                    float t = ((ex * dx) + (ey * dy)) / len2;
+                    if (t < 0) {
+                        t = 0;
+                    } else if (t > 1) {
+                        t = 1;
+                    }
+                    float ddx = ex - (t * dx);
+                    float ddy = ey - (t * dy);
+                    float d = (ddx * ddx) + (ddy * ddy);
+                    if (d < distance[row + x]) {
+                        distance[row + x] = d;
+                    }
+                }
+            }
+        }
+        
+        //Scanline pass, determine which pixel centers are inside
+        //the path using the non-zero winding rule.
+        for (int y = 0; y < height; y++) {
+            float cy = y + 0.5f;
+            int numCross = 0;
+            for (int i = 0; i < numSegs; i += 4) {
+                float y0 = segs[i + 1] + offsetY;
+                float y1 = segs[i + 3] + offsetY;
+                int dir;
+                if (y0 <= cy && y1 > cy) {
+                    dir = 1;
+                } else if (y1 <= cy && y0 > cy) {
+                    dir = -1;
+                } else {
+                    continue;
+                }
+                
+                float x0 = segs[i] + offsetX;
+                float x = x0 + ((cy - y0) * ((segs[i + 2] + offsetX) - x0) / (y1 - y0));
+                
+                if (numCross == crossX.length) {
+                    float[] tmpX = new float[numCross * 2];
+                    int[] tmpDir = new int[numCross * 2];
+                    System.arraycopy(crossX, 0, tmpX, 0, numCross);
+                    System.arraycopy(crossDir, 0, tmpDir, 0, numCross);
+                    crossX = tmpX;
+                    crossDir = tmpDir;
+                }
+                
+                //insertion sort, there are rarely more than a handful
+                //of crossings per scanline
+                int n = numCross++;
+                while (n > 0 && crossX[n - 1] > x) {
+                    crossX[n] = crossX[n - 1];
+                    crossDir[n] = crossDir[n - 1];
+                    n--;
+                }
+                crossX[n] = x;
+                crossDir[n] = dir;
+            }
+            
+            int row = y * width;
+            int winding = 0;
+            int cross = 0;
+            for (int x = 0; x < width; x++) {
+                float cx = x + 0.5f;
+                while (cross < numCross && crossX[cross] <= cx) {
+                    winding += crossDir[cross++];
+                }
+                
+                float d = (float)Math.sqrt(distance[row + x]);
+                distance[row + x] = (winding != 0) ? -d : d;
+            }
+        }
+    }
+    
+    /**
+     * Gets the signed distance from the center of a pixel to the nearest
+     * edge of the last rasterized path. Negative values are inside the path.
+     * 
+     * @param x The x-axis location of the pixel.
+     * @param y The y-axis location of the pixel.
+     * @return The signed distance in pixels.
+     */
+    public float getDistance(int x, int y) {
+        return distance[(y * width) + x];
+    }
+    
+    /**
+     * Gets the coverage of a pixel by the filled path.
+     * 
+     * @param x The x-axis location of the pixel.
+     * @param y The y-axis location of the pixel.
+     * @param expand The distance, in pixels, to grow the filled area by.
+     * Used to embolden glyphs.
+     * @return The coverage of the pixel between 0 and 1.
+     */
+    public float getFill(int x, int y, float expand) {
+        return clamp(0.5f + expand - distance[(y * width) + x]);
+    }
+    
+    /**
+     * Gets the coverage of a pixel by a stroke centered on the path's edges.
+     * 
+     * @param x The x-axis location of the pixel.
+     * @param y The y-axis location of the pixel.
+     * @param halfWidth Half the width of the stroke in pixels.
+     * @return The coverage of the pixel between 0 and 1.
+     */
+    public float getStroke(int x, int y, float halfWidth) {
+        return clamp(0.5f + halfWidth - Math.abs(distance[(y * width) + x]));
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    private static float clamp(float value) {
+        return (value < 0) ? 0 : ((value > 1) ? 1 : value);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link AtlasPacker} that places characters left-to-right in rows of
+ * uniform height, the height of the tallest character in the font. Fast
+ * and simple, but short characters waste most of the row they occupy.
+ * This is the default packer.
+ * 
+ * @see SkylinePacker
+ */
+public class RowPacker implements AtlasPacker {
+    private final List<AtlasLine> lines = new ArrayList<>();
+    private int width;
+    private int lineHeight;
+    
+    private int x;
+    private int y;
+    private long usedArea = 0;
+    
+    @Override
+    public void resize(int width, int height, int lineHeight) {
+        this.width = width;
+        this.lineHeight = lineHeight;
+        
+        int numNewLines = (height / lineHeight) - lines.size();
+        for (int i = 0; i < numNewLines; i++) {
+            lines.add(new AtlasLine());
+        }
+    }
+    
+    @Override
+    public void reset() {
+        lines.clear();
+        width = 0;
+        usedArea = 0;
+    }
+    
+    @Override
+    public boolean pack(int width, int height) {
+        int line = 0;
+        for (AtlasLine al : lines) {
+            if (al.canFit(width)) {
+                x = al.getX();
+                y = line * lineHeight;
+                al.addChar(width);
+                usedArea += (long)width * height;
+                
+                return true;
+            }
+            line++;
+        }
+        
+        return false;
+    }
+    
+    @Override
+    public int getX() {
+        return x;
+    }
+    
+    @Override
+    public int getY() {
+        return y;
+    }
+    
+    @Override
+    public long getUsedArea() {
+        return usedArea;
+    }
+    
+    /**
+     * A helper class used in determining if a new character can fit
+     * on a particular line in the atlas.
+     */
+    private class AtlasLine {
+        private int currentX = 0;
+        
+        public boolean canFit(int cWidth) {
+            return (width - currentX) - cWidth >= 0;
+        }
+        
+        public void addChar(int cWidth) {
+            currentX += cWidth;
+        }
+        
+        public int getX() {
+            return currentX;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Free Public License 1.0.0
+ * Permission to use, copy, modify, and/or distribute this software
+ * for any purpose with or without fee is hereby granted.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL
+ * WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL
+ * THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM
+ * LOSS OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT,
+ * NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN
+ * CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.atr.jme.font.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>An {@link AtlasPacker} that packs characters by their actual bounds using
+ * the skyline bottom-left algorithm. The packer tracks the top edge, the
+ * skyline, of all placed characters as a list of horizontal segments and
+ * places each new character at the lowest position where it fits, preferring
+ * positions that leave the least unusable space beneath it.</p>
+ * 
+ * <p>Fits considerably more characters into the same atlas than
+ * {@link RowPacker} for fonts with many short characters, such as
+ * punctuation, lowercase latin or CJK subsets.</p>
+ */
+public class SkylinePacker implements AtlasPacker {
+    private final List<Segment> skyline = new ArrayList<>();
+    private int width = 0;
+    private int height = 0;
+    
+    private int x;
+    private int y;
+    private long usedArea = 0;
+    
+    @Override
+    public void resize(int width, int height, int lineHeight) {
+        if (width > this.width) {
+            skyline.add(new Segment(this.width, 0, width - this.width));
+            mergeSegments();
+            this.width = width;
+        }
+        this.height = Math.max(height, this.height);
+    }
+    
+    @Override
+    public void reset() {
+        skyline.clear();
+        width = 0;
+        height = 0;
+        usedArea = 0;
+    }
+    
+    @Override
+    public boolean pack(int width, int height) {
+        int bestIndex = -1;
+        int bestY = Integer.MAX_VALUE;
+        long bestWaste = Long.MAX_VALUE;
+        
+        for (int i = 0; i < skyline.size(); i++) {
+            Segment start = skyline.get(i);
+            if (start.x + width > this.width) {
+                break;
+            }
+            
+            //Find the height the character would rest at and the area
+            //left unusable beneath it if placed at this segment.
+            int top = 0;
+            int remaining = width;
+            for (int n = i; remaining > 0; n++) {
+                Segment seg = skyline.get(n);
+                top = Math.max(top, seg.y);
+                remaining -= seg.width;
+            }
+            if (top + height > this.height || top > bestY) {
+                continue;
+            }
+            
+            long waste = 0;
+            remaining = width;
+            for (int n = i; remaining > 0; n++) {
+                Segment seg = skyline.get(n);
+                int w = Math.min(seg.width, remaining);
+                waste += (long)(top - seg.y) * w;
+                remaining -= w;
+            }
+            
+            if (top < bestY || waste < bestWaste) {
+                bestIndex = i;
+                bestY = top;
+                bestWaste = waste;
+            }
+        }
+        
+        if (bestIndex < 0) {
+            return false;
+        }
+        
+        x = skyline.get(bestIndex).x;
+        y = bestY;
+        addSegment(bestIndex, x, y + height, width);
+        usedArea += (long)width * height;
+        
+        return true;
+    }
+    
+    /**
+     * Inserts a new segment into the skyline at the specified index and
+     * shrinks or removes the segments it covers.
+     */
+    private void addSegment(int index, int x, int y, int width) {
+        skyline.add(index, new Segment(x, y, width));
+        
+        int right = x + width;
+        for (int i = index + 1; i < skyline.size();) {
+            Segment seg = skyline.get(i);
+            if (seg.x >= right) {
+                break;
+            }
+            
+            int shrink = right - seg.x;
+            if (shrink >= seg.width) {
+                skyline.remove(i);
+            } else {
+                seg.x += shrink;
+                seg.width -= shrink;
+                break;
+            }
+        }
+        
+        mergeSegments();
+    }
+    
+    /**
+     * Merges neighboring segments of equal height.
+     */
+    private void mergeSegments() {
+        for (int i = 0; i < skyline.size() - 1;) {
+            Segment seg = skyline.get(i);
+            Segment next = skyline.get(i + 1);
+            if (seg.y == next.y) {
+                seg.width += next.width;
+                skyline.remove(i + 1);
+            } else {
+                i++;
+            }
+        }
+    }
+    
+    @Override
+    public int getX() {
+        return x;
+    }
+    
+    @Override
+    public int getY() {
+        return y;
+    }
+    
+    @Override
+    public long getUsedArea() {
+        return usedArea;
+    }
+    
+    private class Segment {
+        private int x;
+        private final int y;
+        private int width;
+        
+        private Segment(int x, int y, int width) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+        }
+    }
+}
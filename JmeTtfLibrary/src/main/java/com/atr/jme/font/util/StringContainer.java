@@ -14,14 +14,17 @@
  */
 package com.atr.jme.font.util;
 
+import com.atr.jme.font.TrueTypeBMP;
 import com.atr.jme.font.TrueTypeFont;
 import com.atr.jme.font.glyph.Glyph;
 import com.jme3.font.Rectangle;
 import com.jme3.math.Vector2f;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>{@code StringContainer} is used to format one or more lines of
@@ -45,6 +48,11 @@ import java.util.List;
  * to {@link #getLines()}. All formatting is performed in the
  * {@link #getLines()} method.</p>
  * 
+ * <p>Text that only needs to be measured, for example to find a font size
+ * at which it fits, can be formatted with {@link #measure()} instead. This
+ * performs the same formatting using {@link TrueTypeFont#getGlyphMetrics(java.lang.String)}
+ * so no characters are added to the font's texture atlas or triangulated.</p>
+ * 
  * @author Adam T. Ryder
  * <a href="http://1337atr.weebly.com">http://1337atr.weebly.com</a>
  * 
@@ -113,6 +121,7 @@ public class StringContainer {
     private Align align = Align.Left;
     private VAlign valign = VAlign.Top;
     private WrapMode wrap = WrapMode.WordClip;
+    private String ellipsisText;
     private Glyph[] ellipsis;
     private TrueTypeFont font;
     private int kerning = 0;
@@ -121,6 +130,22 @@ public class StringContainer {
     private float height = 0;
     private int numNonSpaceChars = 0;
     private int offset = 0;
+    /*
+     * True when lines were formatted by measure() and hold GlyphMetrics
+     * rather than glyphs that can be displayed.
+     */
+    private boolean measured = false;
+    
+    /*
+     * The glyphs and wrapped lines of each paragraph of the text keyed by
+     * the paragraph's content, so only paragraphs that changed are processed
+     * again. Valid while the font, its glyph version and the kind of glyphs
+     * (metrics or displayable) are unchanged.
+     */
+    private Map<String, Paragraph> paragraphs = new HashMap<>();
+    private TrueTypeFont<?, ?> paragraphFont;
+    private int paragraphVersion;
+    private boolean paragraphMetrics;
     
     /**
      * Constructs a new {@code StringContainer} instance with no text
@@ -213,16 +238,19 @@ public class StringContainer {
         align = hAlign;
         valign = vAlign;
         wrap = wrapMode;
-        this.ellipsis = (ellipsis == null) ? font.getGlyphs("\u2026") : font.getGlyphs(ellipsis);
+        ellipsisText = (ellipsis == null) ? "\u2026" : ellipsis;
     }
     
     @Override
     public StringContainer clone() {
         StringContainer newContainer = new StringContainer(font, text, kerning, textBox.clone(),
-                align, valign, wrap, null);
-        newContainer.ellipsis = Arrays.copyOf(ellipsis, ellipsis.length);
+                align, valign, wrap, ellipsisText);
+        if (ellipsis != null) {
+            newContainer.ellipsis = Arrays.copyOf(ellipsis, ellipsis.length);
+        }
         
         if (lines != null) {
+            newContainer.measured = measured;
             newContainer.lines = new Glyph[lines.length][];
             for (int i = 0; i < lines.length; i++) {
                 newContainer.lines[i] = Arrays.copyOf(lines[i], lines[i].length);
@@ -428,7 +456,7 @@ public class StringContainer {
      * at the end of a clipped line of text.
      */
     public void setElipsis(String ellipsis) {
-        this.ellipsis = (ellipsis == null) ? font.getGlyphs("\u2026") : font.getGlyphs(ellipsis);
+        ellipsisText = (ellipsis == null) ? "\u2026" : ellipsis;
         lines = null;
     }
     
@@ -532,18 +560,45 @@ public class StringContainer {
      * each line of text.
      * 
      * @see Glyph
+     * @see #measure()
      */
-    @SuppressWarnings("unchecked")
     public Glyph[][] getLines() {
+        if (lines != null && !measured) {
+            return lines;
+        }
+        
+        lines = null;
+        measured = false;
+        return format(false);
+    }
+    
+    /**
+     * Formats the text associated with this {@code StringContainer} in the
+     * same way as {@link #getLines()}, but using only the metrics of the
+     * characters. Characters are not added to the font's texture atlas or
+     * triangulated. Afterwards {@link #getTextWidth()}, {@link #getTextHeight()},
+     * {@link #getLineWidths()}, {@link #getLineHeights()} and
+     * {@link #getLineCount()} describe the formatted text. A later call to
+     * {@link #getLines()} formats the text again with displayable glyphs.
+     * 
+     * @see TrueTypeFont#getGlyphMetrics(java.lang.String) 
+     */
+    public void measure() {
+        if (lines != null) {
+            return;
+        }
+        
+        measured = true;
+        format(true);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Glyph[][] format(boolean metricsOnly) {
         //I had to add 2 to the calculated width of each line
         //the widths appear to always be off about 2 pixels for
         //no apparent reason. Probably because the methods Java
         //supplies to measure glyphs are not exact.
         
-        if (lines != null) {
-            return lines;
-        }
-        
         String text = this.text;
         if (offset > 0) {
             if (offset < this.text.length()) {
@@ -563,77 +618,79 @@ public class StringContainer {
             return lines;
         }
         
-        String[] stringLines = text.split("\n");
-        int numTrailingBreaks = 0;
-        for (int i = text.length() - 1; i >= 0; i--) {
-            if (text.charAt(i) == '\n') {
-                numTrailingBreaks++;
-            } else {
+        String[] stringLines = splitParagraphs(text);
+        
+        TrueTypeFont<?, ?> font = this.font;
+        //When unused characters may be evicted from the atlas the glyphs of
+        //memoized paragraphs are fetched again so they are marked as used.
+        boolean trackUse = !metricsOnly && font instanceof TrueTypeBMP
+                && ((TrueTypeBMP<?>)font).isGlyphEviction();
+        Paragraph[] tmpLines = new Paragraph[stringLines.length];
+        for (int attempt = 0;; attempt++) {
+            int glyphVersion = font.getGlyphVersion();
+            if (font != paragraphFont || glyphVersion != paragraphVersion
+                    || metricsOnly != paragraphMetrics) {
+                paragraphs.clear();
+                paragraphFont = font;
+                paragraphVersion = glyphVersion;
+                paragraphMetrics = metricsOnly;
+            }
+
+            //Only the paragraphs of the current text are kept so the memo does not
+            //grow as the text is edited.
+            Map<String, Paragraph> current = new HashMap<>();
+            for (int i = 0; i < tmpLines.length; i++) {
+                Paragraph paragraph = current.get(stringLines[i]);
+                if (paragraph == null) {
+                    paragraph = paragraphs.get(stringLines[i]);
+                    if (paragraph == null || trackUse) {
+                        Glyph[] glyphs = metricsOnly ? font.getGlyphMetrics(stringLines[i])
+                                : font.getGlyphs(stringLines[i]);
+                        if (paragraph == null || !Arrays.equals(glyphs, paragraph.glyphs)) {
+                            paragraph = new Paragraph(glyphs);
+                        }
+                    }
+                    current.put(stringLines[i], paragraph);
+                }
+                tmpLines[i] = paragraph;
+            }
+            ellipsis = metricsOnly ? font.getGlyphMetrics(ellipsisText) : font.getGlyphs(ellipsisText);
+
+            //getLines() may have been called recursively if the call to font.getBitmapGlyphs
+            //causes the atlas to be updated and a TTF_AtlasListener was attached that calls
+            //StringContainer.getLines() on this StringContainer. This prevents calculating
+            //again.
+            if (lines != null) {
+                return lines;
+            }
+
+            //Characters evicted while the glyphs were fetched leave earlier
+            //paragraphs holding stale glyphs, so they are fetched again and
+            //the memo is only kept once every glyph belongs to one version.
+            if (font.getGlyphVersion() == glyphVersion) {
+                paragraphs = current;
                 break;
             }
-        }
-        if (numTrailingBreaks > 0) {
-            if (stringLines.length > 0) {
-                stringLines = Arrays.copyOf(stringLines, stringLines.length + numTrailingBreaks);
-                for (int i = stringLines.length - 1; i >= stringLines.length - numTrailingBreaks; i--)
-                    stringLines[i] = "";
-            } else {
-                stringLines = new String[numTrailingBreaks + 1];
-                Arrays.fill(stringLines, "");
+            if (attempt == 2) {
+                paragraphs.clear();
+                break;
             }
         }
-            
-        Glyph[][] tmpLines = new Glyph[stringLines.length][];
-        for (int i = 0; i < tmpLines.length; i++) {
-            tmpLines[i] = font.getGlyphs(stringLines[i]);
-        }
-        
-        //getLines() may have been called recursively if the call to font.getBitmapGlyphs
-        //causes the atlas to be updated and a TTF_AtlasListener was attached that calls
-        //StringContainer.getLines() on this StringContainer. This prevents calculating
-        //again.
-        if (lines != null) {
-            return lines;
-        }
         
         width = 0;
         height = 0;
         numNonSpaceChars = 0;
+        List<Glyph[]> newLines = new ArrayList<>();
         List<Float> lineWidthsArray = new ArrayList<>();
         LinkedList<Vector2f> lineHeightsArray = new LinkedList<>();
         
         if (wrap == WrapMode.NoWrap) {
-            lines = tmpLines;
-            int line = 0;
-            for (Glyph[] glyphs : lines) {
-                Vector2f lineHeight = new Vector2f(Float.MIN_VALUE, Float.MAX_VALUE);
-                float lWidth = 0;
-                int pos = 0;
-                for (Glyph glyph : glyphs) {
-                    if (glyph.getAscender() > lineHeight.x) {
-                        lineHeight.x = glyph.getAscender();
-                    }
-                    if (glyph.getDescender() < lineHeight.y) {
-                        lineHeight.y = glyph.getDescender();
-                    }
-                    if (glyph.codePoint != ' ') {
-                        numNonSpaceChars++;
-                    }
-                    
-                    lWidth += glyph.getXAdvance()
-                            + (pos < glyphs.length - 1 ? kerning : 0);
-                    pos++;
-                }
-                
-                lWidth *= font.getScale();
-                lineWidthsArray.add(lWidth + 2);
-                lineHeightsArray.add(lineHeight.multLocal(font.getScale()));
-                if (lWidth > width) {
-                    width = lWidth + 2;
-                }
-                line ++;
+            for (Paragraph paragraph : tmpLines) {
+                wrapParagraph(paragraph, WrapMode.NoWrap);
+                addLines(paragraph, newLines, lineWidthsArray, lineHeightsArray);
             }
             
+            lines = newLines.toArray(new Glyph[newLines.size()][]);
             height = (lines.length * font.getScaledLineHeight()) - font.getScaledLineGap();
             
             lineWidths = new float[lines.length];
@@ -650,7 +707,7 @@ public class StringContainer {
         float eWidth = font.getLineWidth(ellipsis, kerning);
         if (wrap == WrapMode.Clip) {
             lines = new Glyph[1][];
-            lines[0] = getCharClippedLine(0, tmpLines[0], eWidth, lineWidthsArray,
+            lines[0] = getCharClippedLine(0, tmpLines[0].glyphs, eWidth, lineWidthsArray,
                     lineHeightsArray);
             height = font.getScaledLineHeight() - font.getScaledLineGap();
             
@@ -671,71 +728,12 @@ public class StringContainer {
             return lines;
         }
         
-        List<Glyph[]> newLines = new LinkedList<>();
         switch(wrap) {
             case Char:
-                for (int i = 0; i < tmpLines.length; i++) {
-                    int pos = 0;
-                    Glyph[] glyphs = tmpLines[i];
-
-                    if (glyphs.length == 0) {
-                        newLines.add(glyphs);
-                        lineWidthsArray.add(Float.valueOf(0));
-                        lineHeightsArray.add(new Vector2f());
-                        continue;
-                    }
-
-                    while (pos < glyphs.length) {
-                        Glyph[] newLine = getCharLine(pos, glyphs, lineWidthsArray,
-                                lineHeightsArray);
-                        newLines.add(newLine);
-
-                        if (newLine.length == 0) {
-                            break;
-                        }
-
-                        pos += newLine.length;
-                    }
-                }
-                break;
             case Word:
-                for (int i = 0; i < tmpLines.length; i++) {
-                    int pos = 0;
-                    Glyph[] glyphs = tmpLines[i];
-
-                    if (glyphs.length == 0) {
-                        newLines.add(glyphs);
-                        lineWidthsArray.add(Float.valueOf(0));
-                        lineHeightsArray.add(new Vector2f());
-                        continue;
-                    }
-
-                    while (pos < glyphs.length) {
-                        Glyph[] newLine = getWordLine(pos, glyphs, lineWidthsArray,
-                                lineHeightsArray);
-                        if (newLine.length == 0) {
-                            lineWidthsArray.remove(lineWidthsArray.size() - 1);
-                            lineHeightsArray.removeLast();
-                            newLine = getCharLine(pos, glyphs, lineWidthsArray, lineHeightsArray);
-                            pos += newLine.length;
-                        } else if (pos + newLine.length < glyphs.length) {
-                            pos += newLine.length + 1;
-                            if (pos == glyphs.length) {
-                                pos--;
-                            }
-                        } else if (newLine.length == 1 && newLine[0].codePoint == ' '
-                                && pos > 0 && glyphs[pos - 1].codePoint != ' ') {
-                            newLine = new Glyph[0];
-                            pos++;
-                        } else {
-                            pos += newLine.length;
-                        }
-                        
-                        newLines.add(newLine);
-                        if (newLine.length == 0 || pos == glyphs.length) {
-                            break;
-                        }
-                    }
+                for (Paragraph paragraph : tmpLines) {
+                    wrapParagraph(paragraph, wrap);
+                    addLines(paragraph, newLines, lineWidthsArray, lineHeightsArray);
                 }
                 break;
             case CharClip:
@@ -744,8 +742,7 @@ public class StringContainer {
                         break;
                     }
 
-                    int pos = 0;
-                    Glyph[] glyphs = tmpLines[i];
+                    Glyph[] glyphs = tmpLines[i].glyphs;
 
                     if (glyphs.length == 0) {
                         newLines.add(glyphs);
@@ -758,20 +755,16 @@ public class StringContainer {
                         continue;
                     }
 
-                    while (pos < glyphs.length) {
+                    //The lines of a clipped paragraph are those of the unclipped
+                    //paragraph up to the line where the text box is full.
+                    Paragraph paragraph = wrapParagraph(tmpLines[i], WrapMode.Char);
+                    for (int line = 0; line < paragraph.lines.length; line++) {
                         if (height + (font.getScaledLineHeight() * 2)
                                 - font.getScaledLineGap() <= textBox.height) {
-                            Glyph[] newLine = getCharLine(pos, glyphs, lineWidthsArray,
-                                    lineHeightsArray);
-                            newLines.add(newLine);
+                            addLine(paragraph, line, newLines, lineWidthsArray, lineHeightsArray);
                             height += font.getScaledLineHeight();
-
-                            if (newLine.length == 0) {
-                                break;
-                            }
-
-                            pos += newLine.length;
                         } else {
+                            int pos = (line == 0) ? 0 : paragraph.ends[line - 1];
                             newLines.add(getCharClippedLine(pos, glyphs, eWidth, lineWidthsArray,
                                     lineHeightsArray));
                             height += font.getScaledLineHeight();
@@ -786,8 +779,7 @@ public class StringContainer {
                         break;
                     }
 
-                    int pos = 0;
-                    Glyph[] glyphs = tmpLines[i];
+                    Glyph[] glyphs = tmpLines[i].glyphs;
 
                     if (glyphs.length == 0) {
                         newLines.add(glyphs);
@@ -800,37 +792,14 @@ public class StringContainer {
                         continue;
                     }
                     
-                    while (pos < glyphs.length) {
+                    Paragraph paragraph = wrapParagraph(tmpLines[i], WrapMode.Word);
+                    for (int line = 0; line < paragraph.lines.length; line++) {
                         if (height + (font.getScaledLineHeight() * 2)
                                 - font.getScaledLineGap() <= textBox.height) {
-                            Glyph[] newLine = getWordLine(pos, glyphs, lineWidthsArray,
-                                    lineHeightsArray);
-                            if (newLine.length == 0) {
-                                lineWidthsArray.remove(lineWidthsArray.size() - 1);
-                                lineHeightsArray.removeLast();
-                                newLine = getCharLine(pos, glyphs, lineWidthsArray,
-                                        lineHeightsArray);
-                                pos += newLine.length;
-                            } else if (pos + newLine.length < glyphs.length) {
-                                pos += newLine.length + 1;
-                                if (pos == glyphs.length) {
-                                    pos--;
-                                }
-                            } else if (newLine.length == 1 && newLine[0].codePoint == ' '
-                                    && pos > 0 && glyphs[pos - 1].codePoint != ' ') {
-                                newLine = new Glyph[0];
-                                pos++;
-                            } else {
-                                pos += newLine.length;
-                            }
-                            
-                            newLines.add(newLine);
+                            addLine(paragraph, line, newLines, lineWidthsArray, lineHeightsArray);
                             height += font.getScaledLineHeight();
-
-                            if (newLine.length == 0 || pos == glyphs.length) {
-                                break;
-                            }
                         } else {
+                            int pos = (line == 0) ? 0 : paragraph.ends[line - 1];
                             Glyph[] newLine = getWordClippedLine(pos, glyphs, eWidth,
                                     lineWidthsArray, lineHeightsArray);
                             if (newLine.length == 0) {
@@ -868,6 +837,165 @@ public class StringContainer {
         return lines;
     }
     
+    /**
+     * Splits the text into paragraphs at each line break. A text ending
+     * in a line break ends with an empty paragraph.
+     */
+    private static String[] splitParagraphs(String text) {
+        List<String> paragraphs = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = text.indexOf('\n', start)) >= 0) {
+            paragraphs.add(text.substring(start, end));
+            start = end + 1;
+        }
+        paragraphs.add(text.substring(start));
+        
+        return paragraphs.toArray(new String[paragraphs.size()]);
+    }
+    
+    /**
+     * Wraps a paragraph unless it was last wrapped with the same wrap mode,
+     * text box width, kerning and scale. The wrapped lines are those
+     * produced when the text box's height is not limited.
+     * 
+     * @param paragraph The paragraph to wrap.
+     * @param mode {@code WrapMode.NoWrap}, {@code WrapMode.Char} or
+     * {@code WrapMode.Word}.
+     * @return The supplied paragraph.
+     */
+    private Paragraph wrapParagraph(Paragraph paragraph, WrapMode mode) {
+        if (paragraph.lines != null && paragraph.wrap == mode
+                && paragraph.wrapWidth == textBox.width
+                && paragraph.wrapKerning == kerning
+                && paragraph.wrapScale == font.getScale()) {
+            return paragraph;
+        }
+        
+        //the line methods accumulate into these, the totals are added
+        //when the lines are used
+        float oldWidth = width;
+        int oldNonSpaceChars = numNonSpaceChars;
+        
+        List<Glyph[]> newLines = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        List<Integer> nonSpaceChars = new ArrayList<>();
+        List<Float> lineWidthsArray = new ArrayList<>();
+        LinkedList<Vector2f> lineHeightsArray = new LinkedList<>();
+        Glyph[] glyphs = paragraph.glyphs;
+        
+        if (mode == WrapMode.NoWrap) {
+            Vector2f lineHeight = new Vector2f(Float.MIN_VALUE, Float.MAX_VALUE);
+            float lWidth = 0;
+            int nonSpace = 0;
+            int pos = 0;
+            for (Glyph glyph : glyphs) {
+                if (glyph.getAscender() > lineHeight.x) {
+                    lineHeight.x = glyph.getAscender();
+                }
+                if (glyph.getDescender() < lineHeight.y) {
+                    lineHeight.y = glyph.getDescender();
+                }
+                if (glyph.codePoint != ' ') {
+                    nonSpace++;
+                }
+                
+                lWidth += glyph.getXAdvance()
+                        + (pos < glyphs.length - 1 ? kerning : 0);
+                pos++;
+            }
+            
+            lWidth *= font.getScale();
+            newLines.add(glyphs);
+            ends.add(glyphs.length);
+            nonSpaceChars.add(nonSpace);
+            lineWidthsArray.add(lWidth + 2);
+            lineHeightsArray.add(lineHeight.multLocal(font.getScale()));
+        } else if (glyphs.length == 0) {
+            newLines.add(glyphs);
+            ends.add(0);
+            nonSpaceChars.add(0);
+            lineWidthsArray.add(Float.valueOf(0));
+            lineHeightsArray.add(new Vector2f());
+        } else {
+            int pos = 0;
+            while (pos < glyphs.length) {
+                numNonSpaceChars = 0;
+                Glyph[] newLine;
+                if (mode == WrapMode.Char) {
+                    newLine = getCharLine(pos, glyphs, lineWidthsArray, lineHeightsArray);
+                    pos += newLine.length;
+                } else {
+                    newLine = getWordLine(pos, glyphs, lineWidthsArray, lineHeightsArray);
+                    if (newLine.length == 0) {
+                        lineWidthsArray.remove(lineWidthsArray.size() - 1);
+                        lineHeightsArray.removeLast();
+                        newLine = getCharLine(pos, glyphs, lineWidthsArray, lineHeightsArray);
+                        pos += newLine.length;
+                    } else if (pos + newLine.length < glyphs.length) {
+                        pos += newLine.length + 1;
+                        if (pos == glyphs.length) {
+                            pos--;
+                        }
+                    } else if (newLine.length == 1 && newLine[0].codePoint == ' '
+                            && pos > 0 && glyphs[pos - 1].codePoint != ' ') {
+                        newLine = new Glyph[0];
+                        pos++;
+                    } else {
+                        pos += newLine.length;
+                    }
+                }
+                
+                newLines.add(newLine);
+                ends.add(pos);
+                nonSpaceChars.add(numNonSpaceChars);
+                if (newLine.length == 0 || pos == glyphs.length) {
+                    break;
+                }
+            }
+        }
+        
+        width = oldWidth;
+        numNonSpaceChars = oldNonSpaceChars;
+        
+        int numLines = newLines.size();
+        paragraph.lines = newLines.toArray(new Glyph[numLines][]);
+        paragraph.ends = new int[numLines];
+        paragraph.nonSpaceChars = new int[numLines];
+        paragraph.widths = new float[numLines];
+        paragraph.heights = lineHeightsArray.toArray(new Vector2f[numLines]);
+        for (int i = 0; i < numLines; i++) {
+            paragraph.ends[i] = ends.get(i);
+            paragraph.nonSpaceChars[i] = nonSpaceChars.get(i);
+            paragraph.widths[i] = lineWidthsArray.get(i);
+        }
+        paragraph.wrap = mode;
+        paragraph.wrapWidth = textBox.width;
+        paragraph.wrapKerning = kerning;
+        paragraph.wrapScale = font.getScale();
+        
+        return paragraph;
+    }
+    
+    private void addLines(Paragraph paragraph, List<Glyph[]> newLines,
+            List<Float> lineWidths, List<Vector2f> lineHeights) {
+        for (int line = 0; line < paragraph.lines.length; line++) {
+            addLine(paragraph, line, newLines, lineWidths, lineHeights);
+        }
+    }
+    
+    private void addLine(Paragraph paragraph, int line, List<Glyph[]> newLines,
+            List<Float> lineWidths, List<Vector2f> lineHeights) {
+        float lineWidth = paragraph.widths[line];
+        if (lineWidth > width + 2) {
+            width = lineWidth;
+        }
+        newLines.add(paragraph.lines[line]);
+        lineWidths.add(lineWidth);
+        lineHeights.add(paragraph.heights[line].clone());
+        numNonSpaceChars += paragraph.nonSpaceChars[line];
+    }
+    
     private Glyph[] getCharLine(int start, Glyph[] glyphs,
             List<Float>lineWidths, List<Vector2f> lineHeights) {
         Vector2f lineHeight = new Vector2f(Float.MIN_VALUE, Float.MAX_VALUE);
@@ -1349,4 +1477,29 @@ public class StringContainer {
             this.end = end;
         }
     }
+    
+    /**
+     * The glyphs of a line of text between line breaks and the lines it
+     * was last wrapped into.
+     * 
+     * @see StringContainer#wrapParagraph(com.atr.jme.font.util.StringContainer.Paragraph, com.atr.jme.font.util.StringContainer.WrapMode) 
+     */
+    private static class Paragraph {
+        private final Glyph[] glyphs;
+        
+        private WrapMode wrap;
+        private float wrapWidth;
+        private int wrapKerning;
+        private float wrapScale;
+        
+        private Glyph[][] lines;
+        private int[] ends;
+        private int[] nonSpaceChars;
+        private float[] widths;
+        private Vector2f[] heights;
+        
+        private Paragraph(Glyph[] glyphs) {
+            this.glyphs = glyphs;
+        }
+    }
 }
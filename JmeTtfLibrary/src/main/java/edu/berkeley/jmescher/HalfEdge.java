@@ -60,7 +60,11 @@ public class HalfEdge
     
     int type = AUXILARY;
 
-    private boolean flagged[] = new boolean[FLAGS];
+    /* one bit per flag */
+    private int flagged = 0;
+
+    /* the last face walk to visit this halfedge, see Mesh.findFace */
+    int visit = 0;
 
     /**
      * Constructs a halfedge with null pointers.
@@ -205,7 +209,7 @@ public class HalfEdge
      * @return true if the indexed flag is set, otherwise false
      */
     public boolean isFlagged(int flag) {
-        return flagged[flag];
+        return (flagged & (1 << flag)) != 0;
     }
 
     /**
@@ -222,7 +226,7 @@ public class HalfEdge
      * @param flag
      */
     public void flag(int flag) {
-        flagged[flag] = true;
+        flagged |= 1 << flag;
     }
 
     /**
@@ -231,9 +235,9 @@ public class HalfEdge
      * @param flag
      */
     public void flagEdge(int flag) {
-        flagged[flag] = true;
+        flagged |= 1 << flag;
         if (sibling != null) {
-            sibling.flagged[flag] = true;
+            sibling.flagged |= 1 << flag;
         }
     }
 
@@ -244,6 +248,6 @@ public class HalfEdge
      * @param flag
      */
     public void unflag(int flag) {
-        flagged[flag] = false;
+        flagged &= ~(1 << flag);
     }
 }
@@ -29,8 +29,9 @@ package edu.berkeley.jmescher;
 
 import com.atr.jme.font.util.Point2d;
 import com.atr.jme.font.util.Point3d;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Level;
@@ -65,6 +66,10 @@ public class Mesh {
     /* typical size of polygons, for initializing ArrayLists */
     private final static int TYPICAL_POLYGON_SIZE = 16;
 
+    /* number of points from which the closest point is found with a
+     * PointLocator rather than by scanning every point */
+    private final static int LOCATOR_MIN_POINTS = 128;
+
     /* errors */
     protected final static String E_EXHAUSTED
             = "Exhausted halfedges or points!";
@@ -103,19 +108,24 @@ public class Mesh {
     private final float orientErrorBound;
     private final float incircleErrorBound;
 
-    /* mesh data */
-    final protected List<Point> points
-            = Collections.synchronizedList(new LinkedList<Point>());
-    final protected List<HalfEdge> halfEdges
-            = Collections.synchronizedList(new LinkedList<HalfEdge>());
+    /* mesh data, array backed for constant time random access; a mesh is
+     * only ever used by a single thread */
+    final protected List<Point> points = new ArrayList<>();
+    final protected List<HalfEdge> halfEdges = new ArrayList<>();
     protected int nBoundary;
 
     /* queues */
-    protected LinkedList<HalfEdge> delaunayQueue = new LinkedList<>();
+    protected ArrayDeque<HalfEdge> delaunayQueue = new ArrayDeque<>();
     protected LinkedList<Point> removedConstraints = new LinkedList<>();
-    protected LinkedList<Point> deleteQueue = new LinkedList<>();
+    protected ArrayDeque<Point> deleteQueue = new ArrayDeque<>();
     private Point removeConstraintPeg = null;
 
+    /* number of calls to findFace, used to mark visited halfedges */
+    private int walkCount = 0;
+
+    /* bucket grid used to find the closest point, built on demand */
+    private PointLocator locator = null;
+
     /* name and colors */
     protected String name = "(unnamed mesh)";
     /*protected Color highlightColor = Color.RED;
@@ -178,6 +188,7 @@ public class Mesh {
         points.clear();
         halfEdges.clear();
         delaunayQueue.clear();
+        locator = null;
     }
 
     public void clearFlags(int flag) {
@@ -202,7 +213,7 @@ public class Mesh {
         Point3d[] coords = new Point3d[points.size()];
         int i = 0;
         for (Point p : points) {
-            coords[i++] = p.coords3d;
+            coords[i++] = p.getCoords3d();
         }
         return coords;
     }
@@ -242,9 +253,9 @@ public class Mesh {
             HalfEdge he1 = he0.next;
             HalfEdge he2 = he1.next;
             // the face is oriented CCW
-            coords.add(new Point3d(he0.origin.coords3d));
-            coords.add(new Point3d(he1.origin.coords3d));
-            coords.add(new Point3d(he2.origin.coords3d));
+            coords.add(new Point3d(he0.origin.getCoords3d()));
+            coords.add(new Point3d(he1.origin.getCoords3d()));
+            coords.add(new Point3d(he2.origin.getCoords3d()));
             // mark these half edges as used
             he0.flag(HalfEdge.FLAG_READ);
             he1.flag(HalfEdge.FLAG_READ);
@@ -289,6 +300,7 @@ public class Mesh {
             p.x += x;
             p.y += y;
         }
+        locator = null;
     }
 
     /******************************************************************************/
@@ -310,7 +322,7 @@ public class Mesh {
         ArrayList<HalfEdge> polygon = new ArrayList<>(s);
         clear();
         for (Point p : pts) {
-            points.add(p);
+            listPoint(p);
             p.setType(Point.BOUNDARY);
             p.he = new HalfEdge(p, HalfEdge.BOUNDARY);
             halfEdges.add(p.he);
@@ -327,6 +339,20 @@ public class Mesh {
         updateDelaunay();
     }
 
+    private void listPoint(Point p) {
+        points.add(p);
+        if (locator != null) {
+            locator.add(p);
+        }
+    }
+
+    private void unlistPoint(Point p) {
+        points.remove(p);
+        if (locator != null && !locator.remove(p)) {
+            locator = null;
+        }
+    }
+
     private HalfEdge addHalfEdge(Point origin, Point destination) {
         HalfEdge he1 = new HalfEdge(origin);
         HalfEdge he2 = new HalfEdge(destination);
@@ -390,7 +416,7 @@ public class Mesh {
             }
             return he0.next.origin;
         }
-        points.add(p);
+        listPoint(p);
         if (MESSAGES) {
             message("Adding boundary point %d.", points.indexOf(p));
         }
@@ -415,31 +441,46 @@ public class Mesh {
     public Point addInteriorPoint(Point p) {
         float dist, min;
         Point pNearest = null;
+        Point pWithin = null;
         FaceWalk walk;
         
         /*if (DEBUG) {
             debugView(p, "addInteriorPoint: p");
         }*/
-        /* find the closest point to p */
-        min = Float.MAX_VALUE;
-        for (Point pTest : points) {
-            dist = p.distanceSquared(pTest);
-            /* abort if the point is within epsilon of an existing point */
-            if (dist < epsilon) {
-                if (MESSAGES) {
-                    message(
-                            "Point is within epsilon of %d.",
-                            points.indexOf(pTest));
+        /* find the closest point to p, or the first point within epsilon */
+        if (points.size() < LOCATOR_MIN_POINTS) {
+            min = Float.MAX_VALUE;
+            for (Point pTest : points) {
+                dist = p.distanceSquared(pTest);
+                if (dist < epsilon) {
+                    pWithin = pTest;
+                    break;
+                } else if (dist < min) {
+                    min = dist;
+                    pNearest = pTest;
                 }
-                /*if (DEBUG) {
-                    debugView(pTest, "addInteriorPoint: within epsilon");
-                }*/
-                pTest.users ++;
-                return pTest;
-            } else if (dist < min) {
-                min = dist;
-                pNearest = pTest;
             }
+        } else {
+            if (locator == null || locator.isFull(points.size())) {
+                locator = new PointLocator(points);
+            }
+            pWithin = locator.findWithin(p, epsilon);
+            if (pWithin == null) {
+                pNearest = locator.findNearest(p);
+            }
+        }
+        /* abort if the point is within epsilon of an existing point */
+        if (pWithin != null) {
+            if (MESSAGES) {
+                message(
+                        "Point is within epsilon of %d.",
+                        points.indexOf(pWithin));
+            }
+            /*if (DEBUG) {
+                debugView(pWithin, "addInteriorPoint: within epsilon");
+            }*/
+            pWithin.users ++;
+            return pWithin;
         }
         if (MESSAGES) {
             message("Closest point is ", points.indexOf(pNearest));
@@ -454,7 +495,7 @@ public class Mesh {
                     "Point is within face with halfedge %d.",
                     halfEdges.indexOf(walk.he));
         }
-        points.add(p);
+        listPoint(p);
         if (walk.status == FaceWalk.COINCIDENT) {
             splitEdge(p, walk.he);
         } else {
@@ -856,7 +897,7 @@ public class Mesh {
                 error("Attempting to split a boundary edge!");
         // add point
         p0 = new Point(p);
-        points.add(p0);
+        listPoint(p0);
         if (MESSAGES) {
             message(
                     "Adding constraint intersection point %d.",
@@ -938,7 +979,7 @@ public class Mesh {
         pPrev.he.next = p.he.next;
         halfEdges.remove(p.he);
         p.he = null;
-        points.remove(p);
+        unlistPoint(p);
         p.setType(Point.DELETED);
         /* stitch the polygon back together */
         /*fillEdgeVisiblePolygon(pPrev.he);
@@ -992,7 +1033,7 @@ public class Mesh {
             fillQuadrilateral(heSearch);
         }
         p.he = null;
-        points.remove(p);
+        unlistPoint(p);
         p.setType(Point.DELETED);
         updateDelaunay();
     }
@@ -1026,7 +1067,7 @@ public class Mesh {
         }
         assert i < halfEdges.size() : error(E_EXHAUSTED);
 
-        points.remove(p);
+        unlistPoint(p);
         p.setType(Point.DELETED);
         p.he = null;
     }
@@ -1130,7 +1171,7 @@ public class Mesh {
                     heTest = heTest.sibling.next;
                 }
                 assert i < halfEdges.size() : error(E_EXHAUSTED);
-                points.remove(p1);
+                unlistPoint(p1);
                 p1.type = Point.DELETED;
                 p1.he = null;
             }
@@ -1244,6 +1285,8 @@ public class Mesh {
 
     public void updateInteriorPoint(Point p) {
         assert points.contains(p) : error(E_MISSING);
+        // p has been moved, so it can no longer be found in the locator
+        locator = null;
         initRemoveConstraints(p);
         removeInteriorPoint(p);
         p = addInteriorPoint(p);
@@ -1291,6 +1334,9 @@ public class Mesh {
         int i;
         HalfEdge he;
 
+        // p has been moved, so it can no longer be found in the locator
+        locator = null;
+
         if (MESSAGES) {
             message(
                     "Updating boundary point outside existing boundary.");
@@ -1586,23 +1632,23 @@ public class Mesh {
         int i;
         float[] ccw = new float[3];
         HalfEdge he0, he1, he2;
-        LinkedList<HalfEdge> queue = new LinkedList<>();
+        // when the walk revisits a face, fall back on the halfedges in order
+        int fallback = 0;
+        // marks the faces visited by this walk without clearing every flag
+        int visit = ++walkCount;
 
-        clearFlags(HalfEdge.FLAG_ALGORITHM);
-        queue.add(heStart);
-        queue.addAll(halfEdges);
-        he0 = queue.pop();
+        he0 = heStart;
         for (i = 0; i <= halfEdges.size(); i++) {
-            if (he0.isFlagged(HalfEdge.FLAG_ALGORITHM)) {
-                he0 = queue.pop();
+            if (he0.visit == visit) {
+                he0 = halfEdges.get(fallback++);
                 continue;
             }
             he1 = he0.next;
             he2 = he1.next;
             assert he2.next == he0 : error("Found non-face!");
-            he0.flag(HalfEdge.FLAG_ALGORITHM);
-            he1.flag(HalfEdge.FLAG_ALGORITHM);
-            he2.flag(HalfEdge.FLAG_ALGORITHM);
+            he0.visit = visit;
+            he1.visit = visit;
+            he2.visit = visit;
             ccw[0] = orient(he0.origin, he1.origin, p);
             if (ccw[0] < 0) {
                 if (he0.sibling == null) {
@@ -2674,4 +2720,182 @@ public class Mesh {
         }*/
         return error(s);
     }
+
+    /*
+     * A uniform bucket grid over the points of the mesh, used to find the
+     * closest point to a new interior point without scanning every point.
+     * Ties are broken in favour of the point added first, so the results are
+     * the same as those of a linear scan of the point list. Points outside
+     * the grid are kept in the nearest edge bucket, which therefore extends
+     * to infinity.
+     */
+    private static final class PointLocator {
+        /* average number of points per bucket before the grid is rebuilt */
+        private static final int MAX_LOAD = 4;
+
+        private final float x0, y0;
+        private final float cellWidth, cellHeight;
+        private final float slack;
+        private final int nx, ny;
+        private final Point[][] cells;
+        private final int[][] serials;
+        private final int[] counts;
+        private int serial = 0;
+
+        private PointLocator(List<Point> pts) {
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (Point p : pts) {
+                minX = Math.min(minX, p.x);
+                minY = Math.min(minY, p.y);
+                maxX = Math.max(maxX, p.x);
+                maxY = Math.max(maxY, p.y);
+            }
+            if (pts.isEmpty()) {
+                minX = minY = 0;
+                maxX = maxY = 1;
+            }
+            int n = (int)Math.ceil(Math.sqrt(Math.max(pts.size(), 64)));
+            nx = n;
+            ny = n;
+            x0 = minX;
+            y0 = minY;
+            cellWidth = Math.max(maxX - minX, Float.MIN_NORMAL) / nx;
+            cellHeight = Math.max(maxY - minY, Float.MIN_NORMAL) / ny;
+            // guards the search bounds against rounding in cellX and cellY
+            slack = 1e-3f * Math.min(cellWidth, cellHeight);
+            cells = new Point[nx * ny][];
+            serials = new int[nx * ny][];
+            counts = new int[nx * ny];
+            for (Point p : pts) {
+                add(p);
+            }
+        }
+
+        private boolean isFull(int size) {
+            return size > MAX_LOAD * nx * ny;
+        }
+
+        private int cellX(float x) {
+            int i = (int)((x - x0) / cellWidth);
+            return i < 0 ? 0 : (i >= nx ? nx - 1 : i);
+        }
+
+        private int cellY(float y) {
+            int j = (int)((y - y0) / cellHeight);
+            return j < 0 ? 0 : (j >= ny ? ny - 1 : j);
+        }
+
+        private void add(Point p) {
+            int c = cellY(p.y) * nx + cellX(p.x);
+            if (cells[c] == null) {
+                cells[c] = new Point[MAX_LOAD];
+                serials[c] = new int[MAX_LOAD];
+            } else if (counts[c] == cells[c].length) {
+                cells[c] = Arrays.copyOf(cells[c], counts[c] * 2);
+                serials[c] = Arrays.copyOf(serials[c], counts[c] * 2);
+            }
+            cells[c][counts[c]] = p;
+            serials[c][counts[c]++] = serial++;
+        }
+
+        /*
+         * @return  false if p was not found where its coordinates place it
+         */
+        private boolean remove(Point p) {
+            int c = cellY(p.y) * nx + cellX(p.x);
+            for (int k = 0; k < counts[c]; k++) {
+                if (cells[c][k] == p) {
+                    counts[c]--;
+                    System.arraycopy(cells[c], k + 1, cells[c], k, counts[c] - k);
+                    System.arraycopy(serials[c], k + 1, serials[c], k, counts[c] - k);
+                    cells[c][counts[c]] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /*
+         * @return  the first point added whose squared distance to p is less
+         *          than epsilon, or null
+         */
+        private Point findWithin(Point p, float epsilon) {
+            float r = (float)Math.sqrt(epsilon) + slack;
+            int i0 = cellX(p.x - r), i1 = cellX(p.x + r);
+            int j0 = cellY(p.y - r), j1 = cellY(p.y + r);
+            Point found = null;
+            int first = Integer.MAX_VALUE;
+            for (int j = j0; j <= j1; j++) {
+                for (int i = i0; i <= i1; i++) {
+                    int c = j * nx + i;
+                    for (int k = 0; k < counts[c]; k++) {
+                        if (serials[c][k] < first
+                                && p.distanceSquared(cells[c][k]) < epsilon) {
+                            first = serials[c][k];
+                            found = cells[c][k];
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+
+        /*
+         * Searches rings of buckets around p until no unvisited bucket can
+         * hold a closer point.
+         *
+         * @return  the closest point to p, the first added if several are
+         *          equally close
+         */
+        private Point findNearest(Point p) {
+            int cx = cellX(p.x), cy = cellY(p.y);
+            Point nearest = null;
+            float min = Float.MAX_VALUE;
+            int first = Integer.MAX_VALUE;
+            for (int r = 0;; r++) {
+                for (int j = cy - r; j <= cy + r; j++) {
+                    if (j < 0 || j >= ny) {
+                        continue;
+                    }
+                    int step = (j == cy - r || j == cy + r) ? 1 : 2 * r;
+                    for (int i = cx - r; i <= cx + r; i += step) {
+                        if (i < 0 || i >= nx) {
+                            continue;
+                        }
+                        int c = j * nx + i;
+                        for (int k = 0; k < counts[c]; k++) {
+                            float dist = p.distanceSquared(cells[c][k]);
+                            if (dist < min || (dist == min && serials[c][k] < first)) {
+                                min = dist;
+                                first = serials[c][k];
+                                nearest = cells[c][k];
+                            }
+                        }
+                    }
+                }
+                /* distance from p to the closest unvisited bucket */
+                float bound = Float.MAX_VALUE;
+                if (cx - r > 0) {
+                    bound = Math.min(bound, p.x - (x0 + (cx - r) * cellWidth));
+                }
+                if (cx + r < nx - 1) {
+                    bound = Math.min(bound, x0 + (cx + r + 1) * cellWidth - p.x);
+                }
+                if (cy - r > 0) {
+                    bound = Math.min(bound, p.y - (y0 + (cy - r) * cellHeight));
+                }
+                if (cy + r < ny - 1) {
+                    bound = Math.min(bound, y0 + (cy + r + 1) * cellHeight - p.y);
+                }
+                if (bound == Float.MAX_VALUE) {
+                    return nearest;
+                }
+                bound = Math.max(bound - slack, 0);
+                if (nearest != null && bound * bound > min) {
+                    return nearest;
+                }
+            }
+        }
+    }
 }
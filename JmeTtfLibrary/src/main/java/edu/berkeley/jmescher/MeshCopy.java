@@ -112,7 +112,7 @@ public class MeshCopy extends Mesh
             if (p instanceof PointCopy) {
                 PointCopy pc = (PointCopy)p;
                 pc.set(pc.origin);
-                pc.coords3d.set(pc.origin.coords3d);
+                pc.getCoords3d().set(pc.origin.getCoords3d());
             }
         }
     }
@@ -150,7 +150,7 @@ final class PointCopy extends Point
     public PointCopy(Point p)
     {
         super(p);
-        assert this.coords3d != p.coords3d;
+        assert this.getCoords3d() != p.getCoords3d();
         origin = p;
     }
 }
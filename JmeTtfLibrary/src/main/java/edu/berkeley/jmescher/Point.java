@@ -48,7 +48,7 @@ public class Point extends Point2d implements Cloneable {
 
     public HalfEdge he = null;
     public int type = INTERIOR;
-    public Coords3d coords3d = new Coords3d();
+    private Coords3d coords3d;
     public Point pair;
     
     private Vector2f uv;
@@ -92,7 +92,9 @@ public class Point extends Point2d implements Cloneable {
         super(p);
         he = p.he;
         type = p.type;
-        coords3d.set(p.coords3d);
+        if (p.coords3d != null) {
+            getCoords3d().set(p.coords3d);
+        }
         pair = p.pair;
         if (p.getUV() != null) {
             uv = p.getUV().clone();            
@@ -112,6 +114,19 @@ public class Point extends Point2d implements Cloneable {
         return uv;
     }
 
+    /**
+     * Gets the 3D coordinates of this point, they are only allocated
+     * once requested.
+     *
+     * @return the 3D coordinates
+     */
+    public Coords3d getCoords3d() {
+        if (coords3d == null) {
+            coords3d = new Coords3d();
+        }
+        return coords3d;
+    }
+
     /**
      * Sets the point type (interior, boundary, etc.). Use the static int flags
      * to specify type.
@@ -16,7 +16,12 @@ void main() {
         discard;
     } else {
         float a = col.r;
-        col = (m_Outline * (1.0 - col.b)) + (m_Color * col.b);
+        #ifdef COMPACT_ATLAS
+            float fill = col.a;
+        #else
+            float fill = col.b;
+        #endif
+        col = (m_Outline * (1.0 - fill)) + (m_Color * fill);
         col.a *= a;
         
         gl_FragColor = col;
@@ -5,6 +5,11 @@ attribute vec3 inPosition;
 attribute vec2 inTexCoord;
 attribute vec2 inTexCoord2;
 
+#ifdef INSTANCED
+    // xy: offset of the glyph instance within the text
+    attribute vec4 inTexCoord6;
+#endif
+
 varying vec2 texCoord;
 varying vec2 texCoord2;
 
@@ -18,5 +23,11 @@ void main() {
         vertColor = inColor;
     #endif
 
-    gl_Position = g_WorldViewProjectionMatrix * vec4(inPosition, 1.0);
+    #ifdef INSTANCED
+        vec3 pos = vec3(inPosition.xy + inTexCoord6.xy, inPosition.z);
+    #else
+        vec3 pos = inPosition;
+    #endif
+
+    gl_Position = g_WorldViewProjectionMatrix * vec4(pos, 1.0);
 }